@@ -3,26 +3,33 @@ package ru.practicum.shareit.booking;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.booking.dto.BookingBulkDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.client.BaseClient;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.Map;
 
+@Profile("!reactive")
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         HttpComponentsClientHttpRequestFactory requestFactory) {
         super(
+                "bookings",
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
     }
@@ -38,26 +45,56 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
+    public ResponseEntity<Object> decideBookings(Long userId, BookingBulkDecisionDto decisionDto) {
+        return patch("/bulk", userId, decisionDto);
+    }
+
     public ResponseEntity<Object> getBookingById(Long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getAllUserBookings(Long userId, State state, Integer from, Integer size) {
+    public ResponseEntity<Object> getAllUserBookings(Long userId, State state, Integer from, Integer size, Boolean count) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
-                "size", size
+                "size", size,
+                "count", count
         );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        return get("?state={state}&from={from}&size={size}&count={count}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getAllOwnerItemBookings(Long userId, State state, Integer from, Integer size) {
+    public ResponseEntity<Object> getAllOwnerItemBookings(Long userId, State state, Integer from, Integer size, Boolean count) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
-                "size", size
+                "size", size,
+                "count", count
+        );
+        return get("/owner?state={state}&from={from}&size={size}&count={count}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getUserBookingsAfter(Long userId, State state, String cursor, Integer size, Boolean count) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "cursor", cursor,
+                "size", size,
+                "count", count
         );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        return get("?state={state}&cursor={cursor}&size={size}&count={count}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getOwnerItemBookingsAfter(Long userId, State state, String cursor, Integer size, Boolean count) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "cursor", cursor,
+                "size", size,
+                "count", count
+        );
+        return get("/owner?state={state}&cursor={cursor}&size={size}&count={count}", userId, parameters);
+    }
+
+    public void exportOwnerItemBookings(Long userId, String accept, HttpServletResponse response) throws IOException {
+        stream("/owner/export", userId, accept, response);
     }
 
 }
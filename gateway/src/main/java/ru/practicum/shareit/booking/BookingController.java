@@ -2,21 +2,28 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingBulkDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.State;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
 
 import static ru.practicum.shareit.item.ItemController.X_SHARED_USER_ID;
 
 @Slf4j
 @Validated
+@Profile("!reactive")
 @Controller
 @RequiredArgsConstructor
 @RequestMapping(path = "/bookings")
@@ -39,6 +46,14 @@ public class BookingController {
         return bookingClient.approveBooking(ownerId, bookingId, approved);
     }
 
+    @PatchMapping("/bulk")
+    public ResponseEntity<Object> decideBookings(@RequestHeader(X_SHARED_USER_ID) Long ownerId,
+                                                 @Valid @RequestBody BookingBulkDecisionDto decisionDto) {
+        log.info("Пользователь {} реагирует на запросы вещей: {}, предмет: {}",
+                ownerId, decisionDto.getBookingIds(), decisionDto.getItemId());
+        return bookingClient.decideBookings(ownerId, decisionDto);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBooking(@RequestHeader(X_SHARED_USER_ID) Long userId,
                                     @Positive @PathVariable Long bookingId) {
@@ -50,20 +65,39 @@ public class BookingController {
     public ResponseEntity<Object> getAllUserBookings(@RequestHeader(X_SHARED_USER_ID) Long userId,
                                                   @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
                                                   @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                                  @Positive @RequestParam(defaultValue = "10") Integer size) {
+                                                  @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "false") Boolean count) {
         State state = State.getEnumValue(stateParam);
         log.info("Пользователь {} запросил список своих бронирований в статусе: {}", userId, state);
-        return bookingClient.getAllUserBookings(userId, state, from, size);
+        if (cursor != null) {
+            return bookingClient.getUserBookingsAfter(userId, state, cursor, size, count);
+        }
+        return bookingClient.getAllUserBookings(userId, state, from, size, count);
+    }
+
+    @GetMapping("/owner/export")
+    public void exportOwnerItemBookings(@RequestHeader(X_SHARED_USER_ID) Long userId,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT,
+                                                defaultValue = MediaType.APPLICATION_NDJSON_VALUE) String accept,
+                                        HttpServletResponse response) throws IOException {
+        log.info("Пользователь {} выгружает историю бронирований своих вещей", userId);
+        bookingClient.exportOwnerItemBookings(userId, accept, response);
     }
 
     @GetMapping("/owner")
     public ResponseEntity<Object> getAllOwnerItemBookings(@RequestHeader(X_SHARED_USER_ID) Long userId,
                                                        @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
                                                        @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                                       @Positive @RequestParam(defaultValue = "10") Integer size) {
+                                                       @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "false") Boolean count) {
         State state = State.getEnumValue(stateParam);
         log.info("Пользователь {} запросил список своих вещей в статусе бронирования: {}", userId, state);
-        return bookingClient.getAllOwnerItemBookings(userId, state, from, size);
+        if (cursor != null) {
+            return bookingClient.getOwnerItemBookingsAfter(userId, state, cursor, size, count);
+        }
+        return bookingClient.getAllOwnerItemBookings(userId, state, from, size, count);
     }
 
 }
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import ru.practicum.shareit.booking.dto.BookingBulkDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.State;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+
+import java.util.Map;
+
+@Profile("reactive")
+@Service
+public class ReactiveBookingClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/bookings";
+
+    @Autowired
+    public ReactiveBookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                                 ReactorClientHttpConnector connector) {
+        super(
+                "bookings",
+                builder.clone()
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(connector)
+                        .build()
+        );
+    }
+
+    public Mono<ResponseEntity<byte[]>> addBooking(Long userId, BookingDto requestDto) {
+        return post("", userId, requestDto);
+    }
+
+    public Mono<ResponseEntity<byte[]>> approveBooking(Long userId, Long bookingId, Boolean approved) {
+        Map<String, Object> parameters = Map.of(
+                "approved", approved
+        );
+        return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
+    }
+
+    public Mono<ResponseEntity<byte[]>> decideBookings(Long userId, BookingBulkDecisionDto decisionDto) {
+        return patch("/bulk", userId, decisionDto);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getBookingById(Long userId, Long bookingId) {
+        return get("/" + bookingId, userId);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAllUserBookings(Long userId, State state, Integer from, Integer size, Boolean count) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "from", from,
+                "size", size,
+                "count", count
+        );
+        return get("?state={state}&from={from}&size={size}&count={count}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAllOwnerItemBookings(Long userId, State state, Integer from, Integer size, Boolean count) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "from", from,
+                "size", size,
+                "count", count
+        );
+        return get("/owner?state={state}&from={from}&size={size}&count={count}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getUserBookingsAfter(Long userId, State state, String cursor, Integer size, Boolean count) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "cursor", cursor,
+                "size", size,
+                "count", count
+        );
+        return get("?state={state}&cursor={cursor}&size={size}&count={count}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getOwnerItemBookingsAfter(Long userId, State state, String cursor, Integer size, Boolean count) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "cursor", cursor,
+                "size", size,
+                "count", count
+        );
+        return get("/owner?state={state}&cursor={cursor}&size={size}&count={count}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportOwnerItemBookings(Long userId, String accept) {
+        return stream("/owner/export", userId, accept);
+    }
+
+}
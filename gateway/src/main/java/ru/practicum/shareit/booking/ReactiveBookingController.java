@@ -0,0 +1,103 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingBulkDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.State;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+import static ru.practicum.shareit.item.ItemController.X_SHARED_USER_ID;
+
+@Slf4j
+@Validated
+@Profile("reactive")
+@Controller
+@RequiredArgsConstructor
+@RequestMapping(path = "/bookings")
+public class ReactiveBookingController {
+
+    private final ReactiveBookingClient bookingClient;
+
+    @PostMapping
+    public Mono<ResponseEntity<byte[]>> addBooking(@RequestHeader(X_SHARED_USER_ID) Long userId,
+                                             @Valid @RequestBody BookingDto bookingDto) {
+        log.info("Пользователь {} запросил бронирование вещи: {}", userId, bookingDto.getItemId());
+        return bookingClient.addBooking(userId, bookingDto);
+    }
+
+    @PatchMapping("/{bookingId}")
+    public Mono<ResponseEntity<byte[]>> approveBooking(@RequestHeader(X_SHARED_USER_ID) Long ownerId,
+                                        @Positive @PathVariable Long bookingId,
+                                        @RequestParam Boolean approved) {
+        log.info("Пользователь {} реагирует на запрос вещи: {}", ownerId, bookingId);
+        return bookingClient.approveBooking(ownerId, bookingId, approved);
+    }
+
+    @PatchMapping("/bulk")
+    public Mono<ResponseEntity<byte[]>> decideBookings(@RequestHeader(X_SHARED_USER_ID) Long ownerId,
+                                                 @Valid @RequestBody BookingBulkDecisionDto decisionDto) {
+        log.info("Пользователь {} реагирует на запросы вещей: {}, предмет: {}",
+                ownerId, decisionDto.getBookingIds(), decisionDto.getItemId());
+        return bookingClient.decideBookings(ownerId, decisionDto);
+    }
+
+    @GetMapping("/{bookingId}")
+    public Mono<ResponseEntity<byte[]>> getBooking(@RequestHeader(X_SHARED_USER_ID) Long userId,
+                                    @Positive @PathVariable Long bookingId) {
+        log.info("Пользователь {} запрашивает данные о бронировании: {}", userId, bookingId);
+        return bookingClient.getBookingById(userId, bookingId);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> getAllUserBookings(@RequestHeader(X_SHARED_USER_ID) Long userId,
+                                                  @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+                                                  @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                  @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "false") Boolean count) {
+        State state = State.getEnumValue(stateParam);
+        log.info("Пользователь {} запросил список своих бронирований в статусе: {}", userId, state);
+        if (cursor != null) {
+            return bookingClient.getUserBookingsAfter(userId, state, cursor, size, count);
+        }
+        return bookingClient.getAllUserBookings(userId, state, from, size, count);
+    }
+
+    @GetMapping("/owner/export")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportOwnerItemBookings(
+            @RequestHeader(X_SHARED_USER_ID) Long userId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.APPLICATION_NDJSON_VALUE) String accept) {
+        log.info("Пользователь {} выгружает историю бронирований своих вещей", userId);
+        return bookingClient.exportOwnerItemBookings(userId, accept);
+    }
+
+    @GetMapping("/owner")
+    public Mono<ResponseEntity<byte[]>> getAllOwnerItemBookings(@RequestHeader(X_SHARED_USER_ID) Long userId,
+                                                       @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+                                                       @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                       @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "false") Boolean count) {
+        State state = State.getEnumValue(stateParam);
+        log.info("Пользователь {} запросил список своих вещей в статусе бронирования: {}", userId, state);
+        if (cursor != null) {
+            return bookingClient.getOwnerItemBookingsAfter(userId, state, cursor, size, count);
+        }
+        return bookingClient.getAllOwnerItemBookings(userId, state, from, size, count);
+    }
+
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class BookingBulkDecisionDto {
+
+    @Size(max = 1000, message = "no more than 1000 bookings per request")
+    private List<@NotNull @Positive Long> bookingIds;
+
+    @Positive(message = "itemId must be positive")
+    private Long itemId;
+
+    @NotNull(message = "approved cannot be null")
+    private Boolean approved;
+
+    @JsonIgnore
+    @AssertTrue(message = "either bookingIds or itemId must be set")
+    public boolean isTargetValid() {
+        boolean byIds = bookingIds != null && !bookingIds.isEmpty();
+        return byIds != (itemId != null);
+    }
+
+}
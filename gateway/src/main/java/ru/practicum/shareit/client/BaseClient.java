@@ -1,24 +1,79 @@
 package ru.practicum.shareit.client;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 public class BaseClient {
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade");
+
     protected final RestTemplate rest;
 
-    public BaseClient(RestTemplate rest) {
+    /**
+     * Имя клиента для предохранителя и ограничителя одновременных вызовов сервера.
+     */
+    private final String name;
+
+    private boolean passthrough = true;
+
+    @Nullable
+    private GatewayResponseCache responseCache;
+
+    @Nullable
+    private RequestCoalescer requestCoalescer;
+
+    @Nullable
+    private ServerCallGuard serverCallGuard;
+
+    public BaseClient(String name, RestTemplate rest) {
+        this.name = name;
         this.rest = rest;
     }
 
+    @Autowired
+    public void setPassthrough(@Value("${shareit-server.passthrough:true}") boolean passthrough) {
+        this.passthrough = passthrough;
+    }
+
+    @Autowired
+    public void setResponseCache(GatewayResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Autowired
+    public void setRequestCoalescer(RequestCoalescer requestCoalescer) {
+        this.requestCoalescer = requestCoalescer;
+    }
+
+    @Autowired
+    public void setServerCallGuard(ServerCallGuard serverCallGuard) {
+        this.serverCallGuard = serverCallGuard;
+        serverCallGuard.register(name);
+    }
+
     protected ResponseEntity<Object> get(String path) {
         return get(path, null, null);
     }
@@ -31,6 +86,22 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    /**
+     * Условный GET: If-None-Match клиента передается серверу, а его 304 Not Modified с ETag - обратно клиенту.
+     */
+    protected ResponseEntity<Object> conditionalGet(String path, Long userId, @Nullable String ifNoneMatch) {
+        return conditionalGet(path, userId, null, ifNoneMatch);
+    }
+
+    protected ResponseEntity<Object> conditionalGet(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                                    @Nullable String ifNoneMatch) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (ifNoneMatch != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return sendRequest(HttpMethod.GET, path, parameters, new HttpEntity<>(null, headers));
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -79,8 +150,87 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Проксирует ответ сервера в {@code response} по мере чтения, не загружая тело целиком в память.
+     * Предохранитель и ограничитель охватывают вызов только до получения заголовков ответа: медленный клиент,
+     * читающий выгрузку, не держит место в ограничителе и не считается медленным вызовом сервера.
+     */
+    protected void stream(String path, Long userId, String accept, HttpServletResponse response) throws IOException {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.set(HttpHeaders.ACCEPT, accept);
+        URI uri = rest.getUriTemplateHandler().expand(path);
+        ClientHttpResponse shareitServerResponse;
+        try {
+            shareitServerResponse = guarded(() -> open(uri, headers));
+        } catch (HttpStatusCodeException e) {
+            copyResponse(e.getRawStatusCode(), e.getResponseHeaders(), response);
+            response.getOutputStream().write(e.getResponseBodyAsByteArray());
+            return;
+        }
+        try (shareitServerResponse) {
+            copyResponse(shareitServerResponse.getRawStatusCode(), shareitServerResponse.getHeaders(), response);
+            StreamUtils.copy(shareitServerResponse.getBody(), response.getOutputStream());
+            response.flushBuffer();
+        }
+    }
+
+    /**
+     * Отправляет GET и возвращает ответ сервера, как только получены заголовки; тело закрывает вызывающий.
+     * Ответы 4xx и 5xx, как и в {@link RestTemplate}, превращаются в {@link HttpStatusCodeException}.
+     */
+    private ClientHttpResponse open(URI uri, HttpHeaders headers) {
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            request.getHeaders().putAll(headers);
+            ClientHttpResponse shareitServerResponse = request.execute();
+            try {
+                if (rest.getErrorHandler().hasError(shareitServerResponse)) {
+                    rest.getErrorHandler().handleError(uri, HttpMethod.GET, shareitServerResponse);
+                }
+            } catch (IOException | RuntimeException e) {
+                shareitServerResponse.close();
+                throw e;
+            }
+            return shareitServerResponse;
+        } catch (IOException e) {
+            throw new ResourceAccessException(String.format("Ошибка ввода-вывода при запросе GET %s: %s",
+                    uri, e.getMessage()), e);
+        }
+    }
+
+    private static void copyResponse(int status, @Nullable HttpHeaders headers, HttpServletResponse response) {
+        response.setStatus(status);
+        if (headers != null && headers.getContentType() != null) {
+            response.setContentType(headers.getContentType().toString());
+        }
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        return sendRequest(method, path, parameters, new HttpEntity<>(body, defaultHeaders(userId)));
+    }
+
+    private <T> ResponseEntity<Object> sendRequest(HttpMethod method, String path, @Nullable Map<String, Object> parameters, HttpEntity<T> requestEntity) {
+        ResponseEntity<Object> response;
+        if (method == HttpMethod.GET && requestCoalescer != null) {
+            URI uri = parameters != null
+                    ? rest.getUriTemplateHandler().expand(path, parameters)
+                    : rest.getUriTemplateHandler().expand(path);
+            response = requestCoalescer.execute(uri, requestEntity.getHeaders(),
+                    () -> guarded(() -> exchange(method, path, parameters, requestEntity)));
+        } else {
+            response = guarded(() -> exchange(method, path, parameters, requestEntity));
+        }
+        return responseCache != null ? responseCache.applyInvalidation(response) : response;
+    }
+
+    private <T> T guarded(Supplier<T> call) {
+        return serverCallGuard != null ? serverCallGuard.execute(name, call) : call.get();
+    }
+
+    private <T> ResponseEntity<Object> exchange(HttpMethod method, String path, @Nullable Map<String, Object> parameters, HttpEntity<T> requestEntity) {
+        if (passthrough) {
+            return relay(method, path, parameters, requestEntity);
+        }
 
         ResponseEntity<Object> shareitServerResponse;
         try {
@@ -95,6 +245,41 @@ public class BaseClient {
         return prepareGatewayResponse(shareitServerResponse);
     }
 
+    /**
+     * Возвращает тело ответа сервера как есть, без разбора JSON в {@code Map}/{@code List}
+     * и повторной сериализации на шлюзе.
+     */
+    private <T> ResponseEntity<Object> relay(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                             HttpEntity<T> requestEntity) {
+        ResponseEntity<byte[]> shareitServerResponse;
+        try {
+            if (parameters != null) {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
+            } else {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
+            }
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getRawStatusCode())
+                    .headers(relayedHeaders(e.getResponseHeaders()))
+                    .body(e.getResponseBodyAsByteArray());
+        }
+        return ResponseEntity.status(shareitServerResponse.getStatusCodeValue())
+                .headers(relayedHeaders(shareitServerResponse.getHeaders()))
+                .body(shareitServerResponse.getBody());
+    }
+
+    static HttpHeaders relayedHeaders(@Nullable HttpHeaders headers) {
+        HttpHeaders relayed = new HttpHeaders();
+        if (headers != null) {
+            headers.forEach((name, values) -> {
+                if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    relayed.addAll(name, values);
+                }
+            });
+        }
+        return relayed;
+    }
+
     private HttpHeaders defaultHeaders(Long userId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -109,6 +294,11 @@ public class BaseClient {
         if (response.getStatusCode().is2xxSuccessful()) {
             return response;
         }
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .headers(relayedHeaders(response.getHeaders()))
+                    .build();
+        }
 
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
 
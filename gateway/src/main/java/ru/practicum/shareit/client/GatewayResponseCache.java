@@ -0,0 +1,236 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш ответов сервера на публичные чтения: поиск предметов, свободные периоды предмета и карточку предмета
+ * для всех, кроме владельца.
+ * Объем ограничен shareit-server.cache.max-size (вытеснение W-TinyLFU из Caffeine), записи живут
+ * shareit-server.cache.ttl. Сервер сбрасывает записи заголовком {@value #X_CACHE_INVALIDATE} в ответах
+ * на запись, вручную - DELETE /actuator/responsecache.
+ */
+@Slf4j
+@Profile("!reactive")
+@Component
+public class GatewayResponseCache implements MeterBinder {
+    public static final String X_ITEM_OWNER_ID = "X-Item-Owner-Id";
+    public static final String X_CACHE_INVALIDATE = "X-Cache-Invalidate";
+    public static final List<String> INTERNAL_HEADERS = List.of(X_ITEM_OWNER_ID, X_CACHE_INVALIDATE);
+
+    private static final String ITEM_TAG = "item";
+    private static final String SEARCH_TAG = "search";
+    private static final String AVAILABILITY_TAG = "availability";
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final boolean enabled;
+    private final Cache<String, CachedResponse> cache;
+    /**
+     * Счетчик сбросов: ответ, загрузка которого началась до сброса, в кэш уже не кладется.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public GatewayResponseCache(@Value("${shareit-server.cache.enabled:true}") boolean enabled,
+                                @Value("${shareit-server.cache.ttl:30s}") Duration ttl,
+                                @Value("${shareit-server.cache.max-size:64MB}") DataSize maxSize) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse value) -> value.weight)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public ResponseEntity<Object> getItem(Long itemId, Long userId, @Nullable String ifNoneMatch,
+                                          Function<String, ResponseEntity<Object>> loader) {
+        if (!enabled) {
+            return withoutInternalHeaders(loader.apply(ifNoneMatch));
+        }
+        String key = ITEM_TAG + ":" + itemId;
+        CachedResponse cached = cache.policy().getIfPresentQuietly(key);
+        if (cached != null && Objects.equals(cached.ownerId, userId)) {
+            return withoutInternalHeaders(loader.apply(ifNoneMatch));
+        }
+        cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.toResponse(ifNoneMatch);
+        }
+
+        long generation = invalidations.get();
+        ResponseEntity<Object> response = loader.apply(ifNoneMatch);
+        Long ownerId = ownerId(response);
+        if (response.getStatusCodeValue() != HttpStatus.OK.value() || ownerId == null || ownerId.equals(userId)) {
+            return withoutInternalHeaders(response);
+        }
+        cached = new CachedResponse(withoutInternalHeaders(response), ownerId);
+        put(key, cached, generation);
+        return cached.response;
+    }
+
+    public ResponseEntity<Object> search(Map<String, Object> parameters, Supplier<ResponseEntity<Object>> loader) {
+        if (!enabled) {
+            return withoutInternalHeaders(loader.get());
+        }
+        String key = SEARCH_TAG + ":" + normalize(parameters);
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.response;
+        }
+
+        long generation = invalidations.get();
+        ResponseEntity<Object> response = withoutInternalHeaders(loader.get());
+        if (response.getStatusCodeValue() == HttpStatus.OK.value()) {
+            put(key, new CachedResponse(response, null), generation);
+        }
+        return response;
+    }
+
+    /**
+     * Свободные периоды кэшируются для каждого периода отдельно, тег availability:5 сбрасывает все периоды предмета.
+     * Ответ из кэша, как и сервер, отвечает 304 Not Modified на совпавший If-None-Match.
+     */
+    public ResponseEntity<Object> availability(Long itemId, Map<String, Object> parameters, @Nullable String ifNoneMatch,
+                                               Function<String, ResponseEntity<Object>> loader) {
+        if (!enabled) {
+            return withoutInternalHeaders(loader.apply(ifNoneMatch));
+        }
+        String key = AVAILABILITY_TAG + ":" + itemId + ":" + normalize(parameters);
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.toResponse(ifNoneMatch);
+        }
+
+        long generation = invalidations.get();
+        ResponseEntity<Object> response = withoutInternalHeaders(loader.apply(ifNoneMatch));
+        if (response.getStatusCodeValue() == HttpStatus.OK.value()) {
+            put(key, new CachedResponse(response, null), generation);
+        }
+        return response;
+    }
+
+    /**
+     * Сбрасывает записи по тегам из заголовка {@value #X_CACHE_INVALIDATE} ответа сервера и убирает заголовок.
+     */
+    public ResponseEntity<Object> applyInvalidation(ResponseEntity<Object> response) {
+        List<String> tags = response.getHeaders().get(X_CACHE_INVALIDATE);
+        if (tags == null) {
+            return response;
+        }
+        invalidate(tags);
+        return withoutInternalHeaders(response);
+    }
+
+    /**
+     * Тег вида item:5 сбрасывает одну запись, availability:5 - записи предмета за все периоды,
+     * тег без идентификатора (item, search, availability) - всю группу.
+     */
+    public void invalidate(Collection<String> tags) {
+        invalidations.incrementAndGet();
+        tags.stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .forEach(tag -> {
+                    if (tag.startsWith(AVAILABILITY_TAG + ":")) {
+                        cache.asMap().keySet().removeIf(key -> key.startsWith(tag + ":"));
+                    } else if (tag.contains(":")) {
+                        cache.invalidate(tag);
+                    } else {
+                        cache.asMap().keySet().removeIf(key -> key.startsWith(tag + ":"));
+                    }
+                });
+        log.debug("Сброшены записи кэша ответов по тегам: {}", tags);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+        log.info("Кэш ответов очищен");
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "shareit.gateway.responses");
+    }
+
+    private void put(String key, CachedResponse value, long generation) {
+        cache.put(key, value);
+        if (invalidations.get() != generation) {
+            cache.invalidate(key);
+        }
+    }
+
+    private static String normalize(Map<String, Object> parameters) {
+        return new TreeMap<>(parameters).entrySet().stream()
+                .map(parameter -> parameter.getKey() + "=" + ("text".equals(parameter.getKey())
+                        ? String.valueOf(parameter.getValue()).toLowerCase(Locale.ROOT)
+                        : parameter.getValue()))
+                .collect(Collectors.joining("&"));
+    }
+
+    @Nullable
+    private static Long ownerId(ResponseEntity<Object> response) {
+        String ownerId = response.getHeaders().getFirst(X_ITEM_OWNER_ID);
+        return ownerId == null ? null : Long.valueOf(ownerId);
+    }
+
+    private static ResponseEntity<Object> withoutInternalHeaders(ResponseEntity<Object> response) {
+        if (INTERNAL_HEADERS.stream().noneMatch(response.getHeaders()::containsKey)) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        INTERNAL_HEADERS.forEach(headers::remove);
+        return ResponseEntity.status(response.getStatusCodeValue())
+                .headers(headers)
+                .body(response.getBody());
+    }
+
+    private static final class CachedResponse {
+        private final ResponseEntity<Object> response;
+        @Nullable
+        private final Long ownerId;
+        private final int weight;
+
+        private CachedResponse(ResponseEntity<Object> response, @Nullable Long ownerId) {
+            this.response = response;
+            this.ownerId = ownerId;
+            Object body = response.getBody();
+            this.weight = ENTRY_OVERHEAD_BYTES + (body instanceof byte[] ? ((byte[]) body).length : 1024);
+        }
+
+        private ResponseEntity<Object> toResponse(@Nullable String ifNoneMatch) {
+            String eTag = response.getHeaders().getETag();
+            if (ifNoneMatch != null && eTag != null && Arrays.stream(ifNoneMatch.split(","))
+                    .map(String::trim)
+                    .anyMatch(candidate -> candidate.equals(eTag) || candidate.equals("*"))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            return response;
+        }
+    }
+}
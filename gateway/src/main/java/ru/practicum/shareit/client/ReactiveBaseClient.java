@@ -0,0 +1,162 @@
+package ru.practicum.shareit.client;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Неблокирующий аналог {@link BaseClient} на {@link WebClient}: тело ответа сервера передается клиенту как есть,
+ * ошибки сервера не превращаются в исключения, а возвращаются со своим статусом.
+ */
+public class ReactiveBaseClient {
+    protected final WebClient webClient;
+
+    private final String name;
+
+    @Nullable
+    private ServerCallGuard serverCallGuard;
+
+    public ReactiveBaseClient(String name, WebClient webClient) {
+        this.name = name;
+        this.webClient = webClient;
+    }
+
+    @Autowired
+    public void setServerCallGuard(ServerCallGuard serverCallGuard) {
+        this.serverCallGuard = serverCallGuard;
+        serverCallGuard.register(name);
+    }
+
+    protected Mono<ResponseEntity<byte[]>> get(String path) {
+        return get(path, null, null);
+    }
+
+    protected Mono<ResponseEntity<byte[]>> get(String path, long userId) {
+        return get(path, userId, null);
+    }
+
+    protected Mono<ResponseEntity<byte[]>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    }
+
+    protected Mono<ResponseEntity<byte[]>> conditionalGet(String path, Long userId, @Nullable String ifNoneMatch) {
+        return conditionalGet(path, userId, null, ifNoneMatch);
+    }
+
+    protected Mono<ResponseEntity<byte[]>> conditionalGet(String path, Long userId,
+                                                          @Nullable Map<String, Object> parameters,
+                                                          @Nullable String ifNoneMatch) {
+        return webClient.get()
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> {
+                    headers.addAll(defaultHeaders(userId));
+                    if (ifNoneMatch != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+                    }
+                })
+                .retrieve()
+                .onStatus(HttpStatus::isError, response -> Mono.empty())
+                .toEntity(byte[].class)
+                .transform(this::guarded)
+                .map(ReactiveBaseClient::prepareGatewayResponse);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> post(String path, T body) {
+        return post(path, null, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> post(String path, long userId, T body) {
+        return post(path, userId, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, T body) {
+        return patch(path, null, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, long userId, T body) {
+        return patch(path, userId, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+    }
+
+    protected Mono<ResponseEntity<byte[]>> delete(String path) {
+        return delete(path, null, null);
+    }
+
+    protected Mono<ResponseEntity<byte[]>> delete(String path, long userId) {
+        return delete(path, userId, null);
+    }
+
+    protected Mono<ResponseEntity<byte[]>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> stream(String path, Long userId, String accept) {
+        return webClient.get()
+                .uri(path)
+                .headers(headers -> {
+                    headers.addAll(defaultHeaders(userId));
+                    headers.set(HttpHeaders.ACCEPT, accept);
+                })
+                .retrieve()
+                .onStatus(HttpStatus::isError, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .transform(this::guarded)
+                .map(ReactiveBaseClient::prepareGatewayResponse);
+    }
+
+    private <T> Mono<ResponseEntity<byte[]>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(defaultHeaders(userId)));
+        WebClient.RequestHeadersSpec<?> requestWithBody = body != null ? request.bodyValue(body) : request;
+
+        return requestWithBody.retrieve()
+                .onStatus(HttpStatus::isError, response -> Mono.empty())
+                .toEntity(byte[].class)
+                .transform(this::guarded)
+                .map(ReactiveBaseClient::prepareGatewayResponse);
+    }
+
+    /**
+     * Для потокового ответа разрешение возвращается, как только придут статус и заголовки сервера.
+     */
+    private <T> Mono<T> guarded(Mono<T> call) {
+        return serverCallGuard != null ? serverCallGuard.execute(name, call) : call;
+    }
+
+    private HttpHeaders defaultHeaders(Long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        if (userId != null) {
+            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        return headers;
+    }
+
+    private static <B> ResponseEntity<B> prepareGatewayResponse(ResponseEntity<B> response) {
+        HttpHeaders headers = BaseClient.relayedHeaders(response.getHeaders());
+        GatewayResponseCache.INTERNAL_HEADERS.forEach(headers::remove);
+        return ResponseEntity.status(response.getStatusCodeValue())
+                .headers(headers)
+                .body(response.getBody());
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Объединяет одновременные одинаковые GET-запросы к серверу: пока запрос выполняется, такие же запросы
+ * не уходят на сервер, а получают его ответ. Запросы одинаковы, если совпадают URI и заголовки из
+ * shareit-server.coalescing.key-headers; объединяются только пути, подходящие под shareit-server.coalescing.paths.
+ */
+@Profile("!reactive")
+@Component
+public class RequestCoalescer {
+
+    private final boolean enabled;
+    private final List<String> paths;
+    private final List<String> keyHeaders;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, CompletableFuture<ResponseEntity<Object>>> inFlight = new ConcurrentHashMap<>();
+    private final Counter collapsed;
+
+    public RequestCoalescer(@Value("${shareit-server.coalescing.enabled:true}") boolean enabled,
+                            @Value("${shareit-server.coalescing.paths:/**}") List<String> paths,
+                            @Value("${shareit-server.coalescing.key-headers:X-Sharer-User-Id,If-None-Match,Accept}")
+                            List<String> keyHeaders,
+                            MeterRegistry registry) {
+        this.enabled = enabled;
+        this.paths = paths;
+        this.keyHeaders = keyHeaders;
+        this.collapsed = Counter.builder("shareit.gateway.requests.collapsed")
+                .description("GET-запросы, получившие ответ уже выполнявшегося одинакового запроса")
+                .register(registry);
+        Gauge.builder("shareit.gateway.requests.in.flight", inFlight, Map::size)
+                .description("Выполняющиеся на сервере GET-запросы, к которым могут присоединиться одинаковые")
+                .register(registry);
+    }
+
+    public ResponseEntity<Object> execute(URI uri, HttpHeaders headers, Supplier<ResponseEntity<Object>> request) {
+        if (!enabled || paths.stream().noneMatch(pattern -> pathMatcher.match(pattern, uri.getPath()))) {
+            return request.get();
+        }
+        String key = key(uri, headers);
+        CompletableFuture<ResponseEntity<Object>> leader = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Object>> running = inFlight.putIfAbsent(key, leader);
+        if (running != null) {
+            collapsed.increment();
+            return join(running);
+        }
+        try {
+            ResponseEntity<Object> response = request.get();
+            leader.complete(response);
+            return response;
+        } catch (Throwable e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    private String key(URI uri, HttpHeaders headers) {
+        StringBuilder key = new StringBuilder(uri.toString());
+        for (String header : keyHeaders) {
+            key.append('\n').append(header).append(':').append(headers.getOrDefault(header, List.of()));
+        }
+        return key.toString();
+    }
+
+    private static ResponseEntity<Object> join(CompletableFuture<ResponseEntity<Object>> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+}
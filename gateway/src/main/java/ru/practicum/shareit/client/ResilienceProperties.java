@@ -0,0 +1,67 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Защита шлюза от медленного или недоступного сервера. Настройки общие, но предохранитель и ограничитель
+ * одновременных вызовов у каждого клиента ({@code users}, {@code items}, {@code bookings}, {@code requests}) свои.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "shareit-server.resilience")
+public class ResilienceProperties {
+
+    private boolean enabled = true;
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    private Bulkhead bulkhead = new Bulkhead();
+
+    @Data
+    public static class CircuitBreaker {
+
+        /**
+         * Доля ошибок (исключений и ответов 5xx) в процентах, при которой предохранитель размыкается.
+         */
+        private float failureRateThreshold = 50;
+
+        /**
+         * Доля медленных вызовов в процентах, при которой предохранитель размыкается.
+         */
+        private float slowCallRateThreshold = 80;
+
+        private Duration slowCallDuration = Duration.ofSeconds(3);
+
+        /**
+         * Сколько последних вызовов учитывается при подсчете долей.
+         */
+        private int slidingWindowSize = 50;
+
+        private int minimumNumberOfCalls = 20;
+
+        /**
+         * Сколько предохранитель остается разомкнутым, прежде чем пропустить пробные вызовы.
+         */
+        private Duration waitInOpenState = Duration.ofSeconds(10);
+
+        private int permittedCallsInHalfOpenState = 5;
+
+    }
+
+    @Data
+    public static class Bulkhead {
+
+        private int maxConcurrentCalls = 50;
+
+        /**
+         * Сколько вызов ждет освобождения места, прежде чем получить 503.
+         */
+        private Duration maxWait = Duration.ZERO;
+
+    }
+
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ручной сброс кэша ответов: DELETE /actuator/responsecache очищает его целиком,
+ * DELETE /actuator/responsecache?tags=item:5,search - по тегам.
+ */
+@Profile("!reactive")
+@Component
+@Endpoint(id = "responsecache")
+@RequiredArgsConstructor
+public class ResponseCacheEndpoint {
+
+    private final GatewayResponseCache responseCache;
+
+    @ReadOperation
+    public Map<String, Object> size() {
+        return Map.of("size", responseCache.size());
+    }
+
+    @DeleteOperation
+    public void purge(@Nullable String tags) {
+        if (tags == null) {
+            responseCache.invalidateAll();
+        } else {
+            responseCache.invalidate(List.of(tags));
+        }
+    }
+
+}
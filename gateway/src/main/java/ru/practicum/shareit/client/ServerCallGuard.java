@@ -0,0 +1,127 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * Пропускает вызовы сервера через предохранитель и ограничитель одновременных вызовов клиента.
+ * Предохранитель размыкается, когда среди последних вызовов много ошибок (исключений, в том числе таймаутов,
+ * и ответов 5xx, но не 4xx) или медленных вызовов, и тогда вызовы сразу завершаются
+ * {@code CallNotPermittedException}.
+ * Вызов сверх ограничения завершается {@link BulkheadFullException}; обе ошибки шлюз отдает как 503.
+ * Метрики - resilience4j.circuitbreaker.* и resilience4j.bulkhead.* с тегом name=клиент, переходы
+ * между состояниями предохранителя - shareit.gateway.circuit.breaker.transitions.
+ */
+@Slf4j
+@Component
+public class ServerCallGuard {
+
+    private final boolean enabled;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+
+    public ServerCallGuard(ResilienceProperties properties, MeterRegistry registry) {
+        this.enabled = properties.isEnabled();
+        ResilienceProperties.CircuitBreaker circuitBreaker = properties.getCircuitBreaker();
+        this.circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(circuitBreaker.getFailureRateThreshold())
+                .slowCallRateThreshold(circuitBreaker.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(circuitBreaker.getSlowCallDuration())
+                .slidingWindowSize(circuitBreaker.getSlidingWindowSize())
+                .minimumNumberOfCalls(circuitBreaker.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(circuitBreaker.getWaitInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(circuitBreaker.getPermittedCallsInHalfOpenState())
+                .recordResult(ServerCallGuard::isServerError)
+                .ignoreExceptions(BulkheadFullException.class, HttpClientErrorException.class)
+                .build());
+        this.bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getBulkhead().getMaxConcurrentCalls())
+                .maxWaitDuration(properties.getBulkhead().getMaxWait())
+                .build());
+
+        circuitBreakers.getEventPublisher().onEntryAdded(event -> event.getAddedEntry().getEventPublisher()
+                .onStateTransition(transition -> {
+                    CircuitBreaker.StateTransition states = transition.getStateTransition();
+                    log.warn("Предохранитель клиента {}: {} -> {}", transition.getCircuitBreakerName(),
+                            states.getFromState(), states.getToState());
+                    Counter.builder("shareit.gateway.circuit.breaker.transitions")
+                            .description("Переходы предохранителя клиента между состояниями")
+                            .tag("name", transition.getCircuitBreakerName())
+                            .tag("from", states.getFromState().name())
+                            .tag("to", states.getToState().name())
+                            .register(registry)
+                            .increment();
+                }));
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(registry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(registry);
+    }
+
+    /**
+     * Заводит предохранитель и ограничитель клиента заранее, чтобы его метрики были видны до первого вызова.
+     */
+    public void register(String client) {
+        circuitBreakers.circuitBreaker(client);
+        bulkheads.bulkhead(client);
+    }
+
+    public <T> T execute(String client, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(client);
+        Bulkhead bulkhead = bulkheads.bulkhead(client);
+        circuitBreaker.acquirePermission();
+        if (!bulkhead.tryAcquirePermission()) {
+            circuitBreaker.releasePermission();
+            throw BulkheadFullException.createBulkheadFullException(bulkhead);
+        }
+        long start = circuitBreaker.getCurrentTimestamp();
+        try {
+            T result = call.get();
+            circuitBreaker.onResult(circuitBreaker.getCurrentTimestamp() - start,
+                    circuitBreaker.getTimestampUnit(), result);
+            return result;
+        } catch (Throwable e) {
+            circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start,
+                    circuitBreaker.getTimestampUnit(), e);
+            throw e;
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+
+    /**
+     * Неблокирующий вариант: разрешение берется при подписке и возвращается, когда придет ответ сервера.
+     */
+    public <T> Mono<T> execute(String client, Mono<T> call) {
+        if (!enabled) {
+            return call;
+        }
+        return call
+                .transformDeferred(BulkheadOperator.of(bulkheads.bulkhead(client)))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreakers.circuitBreaker(client)));
+    }
+
+    private static boolean isServerError(Object result) {
+        return result instanceof ResponseEntity && ((ResponseEntity<?>) result).getStatusCodeValue() >= 500;
+    }
+
+}
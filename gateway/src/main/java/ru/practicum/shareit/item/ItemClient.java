@@ -3,57 +3,99 @@ package ru.practicum.shareit.item;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+@Profile("!reactive")
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
+    private final GatewayResponseCache responseCache;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      HttpComponentsClientHttpRequestFactory requestFactory, GatewayResponseCache responseCache) {
         super(
+                "items",
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
+        this.responseCache = responseCache;
     }
 
     public ResponseEntity<Object> addItem(Long userId, ItemDto itemDto) {
         return post("", userId, itemDto);
     }
 
+    public ResponseEntity<Object> addItems(Long userId, List<ItemDto> itemDtos) {
+        return post("/batch", userId, itemDtos);
+    }
+
     public ResponseEntity<Object> updateItem(Long userId, Long itemId, ItemDto itemDto) {
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> getItemById(Long itemId, Long userId) {
-        return get("/" + itemId, userId);
+    public ResponseEntity<Object> getItemById(Long itemId, Long userId, String ifNoneMatch) {
+        return responseCache.getItem(itemId, userId, ifNoneMatch,
+                condition -> conditionalGet("/" + itemId, userId, condition));
+    }
+
+    public ResponseEntity<Object> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to,
+                                                  String ifNoneMatch) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return responseCache.availability(itemId, parameters, ifNoneMatch, condition -> conditionalGet(
+                "/" + itemId + "/availability?from={from}&to={to}", null, parameters, condition));
     }
 
-    public ResponseEntity<Object> getItemsUser(Long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> getItemsUser(Long userId, Integer from, Integer size, Boolean count) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
-                "size", size
+                "size", size,
+                "count", count
         );
-        return get("?from={from}&size={size}", userId, parameters);
+        return get("?from={from}&size={size}&count={count}", userId, parameters);
     }
 
-    public ResponseEntity<Object> searchItem(String text, Integer from, Integer size) {
+    public ResponseEntity<Object> searchItem(String text, Integer from, Integer size, Boolean count) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
-                "size", size
+                "size", size,
+                "count", count
         );
-        return get("/search/?text={text}&from={from}&size={size}", null, parameters);
+        return responseCache.search(parameters,
+                () -> get("/search/?text={text}&from={from}&size={size}&count={count}", null, parameters));
+    }
+
+    public ResponseEntity<Object> searchAvailableItem(String text, LocalDateTime start, LocalDateTime end,
+                                                      Integer from, Integer size, Boolean count) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text);
+        parameters.put("start", start);
+        parameters.put("end", end);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        parameters.put("count", count);
+        return get("/search/?text={text}&start={start}&end={end}&from={from}&size={size}&count={count}",
+                null, parameters);
     }
 
     public ResponseEntity<Object> deleteItem(Long userId, Long itemId) {
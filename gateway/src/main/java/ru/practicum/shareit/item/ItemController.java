@@ -2,6 +2,9 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -9,11 +12,16 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.*;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Slf4j
 @Validated
+@Profile("!reactive")
 @Controller
 @RequestMapping("/items")
 @RequiredArgsConstructor
@@ -31,6 +39,14 @@ public class ItemController {
         return itemClient.addItem(userId, itemDto);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> addItems(
+            @RequestHeader(X_SHARED_USER_ID) Long userId,
+            @RequestBody @NotEmpty @Size(max = 1000) List<@Valid ItemDto> itemDtos) {
+        log.info("Пользователь {} добавляет предметов: {}", userId, itemDtos.size());
+        return itemClient.addItems(userId, itemDtos);
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> updateItem(
             @RequestHeader(X_SHARED_USER_ID) Long userId,
@@ -43,27 +59,45 @@ public class ItemController {
     @GetMapping("/{itemId}")
     public ResponseEntity<Object> getItem(
             @RequestHeader(X_SHARED_USER_ID) Long userId,
-            @Positive @PathVariable Long itemId) {
+            @Positive @PathVariable Long itemId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Пользователь {} запросил предмет: {}", userId, itemId);
-        return itemClient.getItemById(itemId, userId);
+        return itemClient.getItemById(itemId, userId, ifNoneMatch);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(
+            @Positive @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Запрошены свободные периоды предмета {} с {} по {}", itemId, from, to);
+        return itemClient.getAvailability(itemId, from, to, ifNoneMatch);
     }
 
     @GetMapping
     public ResponseEntity<Object> getAllOwnerItems(
             @RequestHeader(X_SHARED_USER_ID) Long userId,
             @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-            @Positive @RequestParam(defaultValue = "10") Integer size) {
+            @Positive @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "false") Boolean count) {
         log.info("Пользователь {} запросил список своих вещей", userId);
-        return itemClient.getItemsUser(userId, from, size);
+        return itemClient.getItemsUser(userId, from, size, count);
     }
 
     @GetMapping("/search")
     public ResponseEntity<Object> searchItems(
             @RequestParam(defaultValue = "") String text,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
             @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-            @Positive @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Запущен поиск по тексту: {}", text);
-        return itemClient.searchItem(text, from, size);
+            @Positive @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "false") Boolean count) {
+        log.info("Запущен поиск по тексту: {}, период: {} - {}", text, start, end);
+        if (start != null || end != null) {
+            return itemClient.searchAvailableItem(text, start, end, from, size, count);
+        }
+        return itemClient.searchItem(text, from, size, count);
     }
 
     @DeleteMapping("/{itemId}")
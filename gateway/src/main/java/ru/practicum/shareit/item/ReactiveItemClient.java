@@ -0,0 +1,102 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Profile("reactive")
+@Service
+public class ReactiveItemClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/items";
+
+    @Autowired
+    public ReactiveItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                              ReactorClientHttpConnector connector) {
+        super(
+                "items",
+                builder.clone()
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(connector)
+                        .build()
+        );
+    }
+
+    public Mono<ResponseEntity<byte[]>> addItem(Long userId, ItemDto itemDto) {
+        return post("", userId, itemDto);
+    }
+
+    public Mono<ResponseEntity<byte[]>> addItems(Long userId, List<ItemDto> itemDtos) {
+        return post("/batch", userId, itemDtos);
+    }
+
+    public Mono<ResponseEntity<byte[]>> updateItem(Long userId, Long itemId, ItemDto itemDto) {
+        return patch("/" + itemId, userId, itemDto);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getItemById(Long itemId, Long userId, String ifNoneMatch) {
+        return conditionalGet("/" + itemId, userId, ifNoneMatch);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to,
+                                                        String ifNoneMatch) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return conditionalGet("/" + itemId + "/availability?from={from}&to={to}", null, parameters, ifNoneMatch);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getItemsUser(Long userId, Integer from, Integer size, Boolean count) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size,
+                "count", count
+        );
+        return get("?from={from}&size={size}&count={count}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> searchItem(String text, Integer from, Integer size, Boolean count) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "from", from,
+                "size", size,
+                "count", count
+        );
+        return get("/search/?text={text}&from={from}&size={size}&count={count}", null, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> searchAvailableItem(String text, LocalDateTime start, LocalDateTime end,
+                                                      Integer from, Integer size, Boolean count) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text);
+        parameters.put("start", start);
+        parameters.put("end", end);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        parameters.put("count", count);
+        return get("/search/?text={text}&start={start}&end={end}&from={from}&size={size}&count={count}",
+                null, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> deleteItem(Long userId, Long itemId) {
+        return delete("/" + itemId, userId);
+    }
+
+    public Mono<ResponseEntity<byte[]>> addComment(Long userId, Long itemId, CommentDto commentDto) {
+        return post("/" + itemId + "/comment", userId, commentDto);
+    }
+
+}
@@ -0,0 +1,121 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.item.dto.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static ru.practicum.shareit.item.ItemController.X_SHARED_USER_ID;
+
+@Slf4j
+@Validated
+@Profile("reactive")
+@Controller
+@RequestMapping("/items")
+@RequiredArgsConstructor
+public class ReactiveItemController {
+
+    private final ReactiveItemClient itemClient;
+
+    @PostMapping
+    public Mono<ResponseEntity<byte[]>> addItem(
+            @RequestHeader(X_SHARED_USER_ID) Long userId,
+            @Valid @RequestBody ItemDto itemDto) {
+        log.info("Пользователь {} добавляет предмет: {}", userId, itemDto.getId());
+        return itemClient.addItem(userId, itemDto);
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<byte[]>> addItems(
+            @RequestHeader(X_SHARED_USER_ID) Long userId,
+            @RequestBody @NotEmpty @Size(max = 1000) List<@Valid ItemDto> itemDtos) {
+        log.info("Пользователь {} добавляет предметов: {}", userId, itemDtos.size());
+        return itemClient.addItems(userId, itemDtos);
+    }
+
+    @PatchMapping("/{itemId}")
+    public Mono<ResponseEntity<byte[]>> updateItem(
+            @RequestHeader(X_SHARED_USER_ID) Long userId,
+            @RequestBody ItemDto itemDto,
+            @Positive @PathVariable Long itemId) {
+        log.info("Владелец {} обновил предмет: {}", userId, itemId);
+        return itemClient.updateItem(userId, itemId, itemDto);
+    }
+
+    @GetMapping("/{itemId}")
+    public Mono<ResponseEntity<byte[]>> getItem(
+            @RequestHeader(X_SHARED_USER_ID) Long userId,
+            @Positive @PathVariable Long itemId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Пользователь {} запросил предмет: {}", userId, itemId);
+        return itemClient.getItemById(itemId, userId, ifNoneMatch);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public Mono<ResponseEntity<byte[]>> getAvailability(
+            @Positive @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Запрошены свободные периоды предмета {} с {} по {}", itemId, from, to);
+        return itemClient.getAvailability(itemId, from, to, ifNoneMatch);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> getAllOwnerItems(
+            @RequestHeader(X_SHARED_USER_ID) Long userId,
+            @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+            @Positive @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "false") Boolean count) {
+        log.info("Пользователь {} запросил список своих вещей", userId);
+        return itemClient.getItemsUser(userId, from, size, count);
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<byte[]>> searchItems(
+            @RequestParam(defaultValue = "") String text,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+            @Positive @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "false") Boolean count) {
+        log.info("Запущен поиск по тексту: {}, период: {} - {}", text, start, end);
+        if (start != null || end != null) {
+            return itemClient.searchAvailableItem(text, start, end, from, size, count);
+        }
+        return itemClient.searchItem(text, from, size, count);
+    }
+
+    @DeleteMapping("/{itemId}")
+    public Mono<ResponseEntity<byte[]>> deleteItem(
+            @RequestHeader(X_SHARED_USER_ID) Long userId,
+            @Positive @PathVariable Long itemId) {
+        log.info("Владелец {} удаляет предмет: {}", userId, itemId);
+        return itemClient.deleteItem(userId, itemId);
+    }
+
+    @PostMapping("/{itemId}/comment")
+    public Mono<ResponseEntity<byte[]>> addComment(
+            @RequestHeader(X_SHARED_USER_ID) Long userId,
+            @Valid @RequestBody CommentDto commentDto,
+            @Positive @PathVariable Long itemId) {
+        log.info("Пользователь с id: {} комментирует вещь с id: {}", userId, itemId);
+        return itemClient.addComment(userId, itemId, commentDto);
+    }
+
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Лимиты запросов по группам эндпоинтов: shareit-server.rate-limit.groups.&lt;группа&gt;.paths - шаблоны путей,
+ * methods - HTTP-методы (по умолчанию все), capacity - запас запросов подряд, refill-per-second - скорость
+ * его пополнения.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "shareit-server.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Сколько хранится корзина пользователя без запросов.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private long maxBuckets = 100_000;
+
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    @Data
+    public static class Group {
+
+        private List<String> paths = new ArrayList<>();
+
+        private List<String> methods = new ArrayList<>();
+
+        private long capacity = 100;
+
+        private double refillPerSecond = 50;
+
+    }
+
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Ограничивает частоту запросов каждого пользователя (X-Sharer-User-Id, без него - адреса клиента)
+ * отдельно в каждой группе эндпоинтов из {@link RateLimitProperties}. Запрос относится к группе
+ * с самым точным подходящим шаблоном пути; запросы вне групп не ограничиваются. Корзины, к которым долго
+ * не обращались, вытесняются, а их общее число ограничено.
+ */
+@Component
+public class RateLimiter {
+
+    private final RateLimitProperties properties;
+    private final LongSupplier clock;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<String, Counter> rejected;
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties, MeterRegistry registry) {
+        this(properties, registry, System::nanoTime);
+    }
+
+    /**
+     * @param clock время в наносекундах, как у {@link System#nanoTime()}; по нему пополняются корзины
+     *              и вытесняются неиспользуемые
+     */
+    RateLimiter(RateLimitProperties properties, MeterRegistry registry, LongSupplier clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .ticker(clock::getAsLong)
+                .expireAfterAccess(properties.getIdleTimeout())
+                .maximumSize(properties.getMaxBuckets())
+                .build();
+        this.rejected = properties.getGroups().keySet().stream()
+                .collect(Collectors.toMap(Function.identity(), group -> Counter
+                        .builder("shareit.gateway.rate.limit.rejected")
+                        .description("Запросы, отклоненные с 429 Too Many Requests")
+                        .tag("group", group)
+                        .register(registry)));
+        Gauge.builder("shareit.gateway.rate.limit.buckets", buckets, Cache::estimatedSize)
+                .description("Корзины токенов пользователей в памяти")
+                .register(registry);
+    }
+
+    /**
+     * @return 0, если запрос разрешен, иначе сколько наносекунд ждать до следующей попытки
+     */
+    public long tryAcquire(String method, String path, @Nullable String userId, @Nullable String clientAddress) {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        String group = findGroup(method, path);
+        if (group == null) {
+            return 0;
+        }
+        RateLimitProperties.Group limits = properties.getGroups().get(group);
+        String key = group + (userId != null ? ":user:" + userId : ":address:" + clientAddress);
+        long now = clock.getAsLong();
+        long wait = buckets.get(key, k -> new TokenBucket(limits.getCapacity(), limits.getRefillPerSecond(), now))
+                .tryAcquire(now);
+        if (wait > 0) {
+            rejected.get(group).increment();
+        }
+        return wait;
+    }
+
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    @Nullable
+    private String findGroup(String method, String path) {
+        Comparator<String> specificity = pathMatcher.getPatternComparator(path);
+        String bestGroup = null;
+        String bestPattern = null;
+        for (Map.Entry<String, RateLimitProperties.Group> group : properties.getGroups().entrySet()) {
+            List<String> methods = group.getValue().getMethods();
+            if (!methods.isEmpty() && methods.stream().noneMatch(method::equalsIgnoreCase)) {
+                continue;
+            }
+            for (String pattern : group.getValue().getPaths()) {
+                if (pathMatcher.match(pattern, path)
+                        && (bestPattern == null || specificity.compare(pattern, bestPattern) < 0)) {
+                    bestGroup = group.getKey();
+                    bestPattern = pattern;
+                }
+            }
+        }
+        return bestGroup;
+    }
+
+}
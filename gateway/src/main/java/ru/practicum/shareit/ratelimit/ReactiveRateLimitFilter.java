@@ -0,0 +1,65 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.exception.handler.ErrorResponse;
+
+import java.net.InetSocketAddress;
+
+import static ru.practicum.shareit.item.ItemController.X_SHARED_USER_ID;
+
+/**
+ * Вариант {@link RateLimitFilter} для профиля reactive.
+ */
+@Slf4j
+@Profile("reactive")
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class ReactiveRateLimitFilter implements WebFilter {
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String userId = request.getHeaders().getFirst(X_SHARED_USER_ID);
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        long wait = rateLimiter.tryAcquire(request.getMethodValue(), request.getPath().value(), userId,
+                remoteAddress != null ? remoteAddress.getHostString() : null);
+        if (wait == 0) {
+            return chain.filter(exchange);
+        }
+        long retryAfter = RateLimiter.retryAfterSeconds(wait);
+        log.debug("Запрос {} пользователя {} отклонен лимитом, повтор через {} с",
+                request.getPath(), userId, retryAfter);
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(new ErrorResponse(
+                    String.format("Превышен лимит запросов, повторите через %s с", retryAfter)));
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+
+}
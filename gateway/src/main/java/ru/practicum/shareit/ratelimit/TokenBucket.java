@@ -0,0 +1,40 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзина токенов без блокировок в форме GCRA: вместо числа токенов хранится одно время -
+ * когда корзина снова станет полной, и оно сдвигается на интервал одного токена на каждый запрос.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(long capacity, double refillPerSecond, long now) {
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000L / refillPerSecond));
+        this.burstNanos = capacity * intervalNanos;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Забирает токен, если он есть.
+     *
+     * @return 0, если запрос разрешен, иначе сколько наносекунд ждать следующего токена
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+}
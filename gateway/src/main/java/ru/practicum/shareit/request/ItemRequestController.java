@@ -2,6 +2,8 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -16,6 +18,7 @@ import static ru.practicum.shareit.item.ItemController.X_SHARED_USER_ID;
 
 @Slf4j
 @Validated
+@Profile("!reactive")
 @Controller
 @RequestMapping("/requests")
 @RequiredArgsConstructor
@@ -39,17 +42,19 @@ public class ItemRequestController {
     @GetMapping("/all")
     public ResponseEntity<Object> getAllRequests(@RequestHeader(X_SHARED_USER_ID) Long userId,
                                                   @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                                  @Positive @RequestParam(defaultValue = "10") Integer size) {
+                                                  @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                  @RequestParam(defaultValue = "false") Boolean count) {
         log.info("Пользователь с id {} запрашивает список всех бронирований", userId);
-        return itemRequestClient.getAllRequests(userId, from, size);
+        return itemRequestClient.getAllRequests(userId, from, size, count);
     }
 
     @GetMapping("/{requestId}")
     public ResponseEntity<Object> getRequest(@RequestHeader(X_SHARED_USER_ID) Long userId,
-                                        @Positive @PathVariable("requestId") Long requestId) {
+                                        @Positive @PathVariable("requestId") Long requestId,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Пользователь с id {} запрашивает запрос бронирования с id {}", userId, requestId);
         log.info("Пользователь с id {} просматривает запрос с id: {}", userId, requestId);
-        return itemRequestClient.getRequestById(userId, requestId);
+        return itemRequestClient.getRequestById(userId, requestId, ifNoneMatch);
     }
 
 }
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.util.Map;
+
+@Profile("reactive")
+@Service
+public class ReactiveItemRequestClient extends ReactiveBaseClient {
+
+    private static final String API_PREFIX = "/requests";
+
+    @Autowired
+    public ReactiveItemRequestClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                                     ReactorClientHttpConnector connector) {
+        super(
+                "requests",
+                builder.clone()
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(connector)
+                        .build()
+        );
+    }
+
+    public Mono<ResponseEntity<byte[]>> addRequest(Long userId, ItemRequestDto itemRequestDto) {
+        return post("", userId, itemRequestDto);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getRequests(Long userId) {
+        return get("", userId);
+    }
+
+
+    public Mono<ResponseEntity<byte[]>> getAllRequests(Long userId, Integer from, Integer size, Boolean count) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size,
+                "count", count
+        );
+        return get("/all?from={from}&size={size}&count={count}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getRequestById(Long userId, Long requestId, String ifNoneMatch) {
+        return conditionalGet("/" + requestId, userId, ifNoneMatch);
+    }
+
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+import static ru.practicum.shareit.item.ItemController.X_SHARED_USER_ID;
+
+@Slf4j
+@Validated
+@Profile("reactive")
+@Controller
+@RequestMapping("/requests")
+@RequiredArgsConstructor
+public class ReactiveItemRequestController {
+
+    private final ReactiveItemRequestClient itemRequestClient;
+
+    @PostMapping
+    public Mono<ResponseEntity<byte[]>> addRequest(@RequestHeader(X_SHARED_USER_ID) Long userId,
+                                             @Valid @RequestBody ItemRequestDto itemRequestDto) {
+        log.info("Пользователь с id {} добавил запрос бронирования", userId);
+        return itemRequestClient.addRequest(userId, itemRequestDto);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> getUserRequests(@RequestHeader(X_SHARED_USER_ID) Long userId) {
+        log.info("Пользователь с id {} запрашивает свои бронирования", userId);
+        return itemRequestClient.getRequests(userId);
+    }
+
+    @GetMapping("/all")
+    public Mono<ResponseEntity<byte[]>> getAllRequests(@RequestHeader(X_SHARED_USER_ID) Long userId,
+                                                  @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                  @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                  @RequestParam(defaultValue = "false") Boolean count) {
+        log.info("Пользователь с id {} запрашивает список всех бронирований", userId);
+        return itemRequestClient.getAllRequests(userId, from, size, count);
+    }
+
+    @GetMapping("/{requestId}")
+    public Mono<ResponseEntity<byte[]>> getRequest(@RequestHeader(X_SHARED_USER_ID) Long userId,
+                                        @Positive @PathVariable("requestId") Long requestId,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Пользователь с id {} запрашивает запрос бронирования с id {}", userId, requestId);
+        log.info("Пользователь с id {} просматривает запрос с id: {}", userId, requestId);
+        return itemRequestClient.getRequestById(userId, requestId, ifNoneMatch);
+    }
+
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+
+@Slf4j
+@Validated
+@Profile("reactive")
+@Controller
+@RequestMapping("/users")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+
+    private final ReactiveUserClient userClient;
+
+    @PostMapping
+    public Mono<ResponseEntity<byte[]>> addUser(@Valid @RequestBody UserDto userDto) {
+        log.info("Запрос на создание пользователя с id: {} ", userDto.getId());
+        return userClient.addUser(userDto);
+    }
+
+    @PatchMapping("/{userId}")
+    public Mono<ResponseEntity<byte[]>> updateUser(
+            @RequestBody UserDto userDto,
+            @Positive @PathVariable Long userId) {
+        log.info("Запрос на обновление пользователя: {} ", userId);
+        return userClient.updateUser(userId, userDto);
+    }
+
+    @DeleteMapping("/{userId}")
+    public Mono<ResponseEntity<byte[]>> deleteUser(@Positive @PathVariable Long userId) {
+        log.info("Запрос на удаление пользователя с id: {}", userId);
+        return userClient.deleteUser(userId);
+    }
+
+    @GetMapping("/{userId}")
+    public Mono<ResponseEntity<byte[]>> getUser(@Positive @PathVariable Long userId) {
+        log.info("Запрос на пользователя по id: {} ", userId);
+        return userClient.getUser(userId);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> getAllUsers() {
+        log.info("Запрос на всех пользователей");
+        return userClient.getAllUsers();
+    }
+
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareit;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный тест шлюза при медленном сервере: {@code concurrency} одновременных запросов, каждый из которых
+ * сервер-заглушка обрабатывает {@link #SERVER_DELAY_MILLIS} мс. Число потоков шлюза фиксировано ({@link #THREADS}):
+ * потоки Tomcat в servlet-варианте и потоки Reactor Netty в профиле reactive. Блокирующий шлюз обслуживает
+ * не больше {@link #THREADS} запросов одновременно, неблокирующий - все сразу. Запуск:
+ * mvn -pl gateway test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.practicum.shareit.GatewayConcurrencyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayConcurrencyBenchmark {
+
+    private static final int THREADS = 8;
+    private static final long SERVER_DELAY_MILLIS = 100;
+    private static final byte[] USER = "{\"id\":1,\"name\":\"Alex\",\"email\":\"alexFirst@yandex.ru\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"servlet", "reactive"})
+    private String runtime;
+
+    @Param({"8", "64"})
+    private int concurrency;
+
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI uri;
+
+    @Setup
+    public void setUp() throws Exception {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        System.setProperty("reactor.netty.ioWorkerCount", String.valueOf(THREADS));
+        serverExecutor = Executors.newFixedThreadPool(256);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 512);
+        server.setExecutor(serverExecutor);
+        server.createContext("/users", exchange -> {
+            try {
+                Thread.sleep(SERVER_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, USER.length);
+            exchange.getResponseBody().write(USER);
+            exchange.close();
+        });
+        server.start();
+
+        context = new SpringApplicationBuilder(ShareItGateway.class)
+                .profiles(runtime.equals("reactive") ? "reactive" : "default")
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=" + THREADS,
+                        "--server.tomcat.threads.min-spare=" + THREADS,
+                        "--shareit-server.url=http://localhost:" + server.getAddress().getPort(),
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.web.client.RestTemplate=WARN");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        uri = URI.create("http://localhost:" + port + "/users/1");
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(4))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int concurrentRequests() {
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> {
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("Статус ответа шлюза: " + response.statusCode());
+                        }
+                    });
+        }
+        CompletableFuture.allOf(responses).join();
+        return responses.length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GatewayConcurrencyBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+}
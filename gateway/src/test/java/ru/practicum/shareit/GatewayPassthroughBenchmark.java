@@ -0,0 +1,120 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Затраты шлюза на один запрос списка бронирований: разбор ответа сервера в Object и повторная
+ * сериализация против передачи байтов как есть. Сервер заменен заглушкой с заранее готовым телом,
+ * поэтому замер отражает работу шлюза. Для оценки аллокаций добавьте -prof gc. Запуск:
+ * mvn -pl gateway test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.practicum.shareit.GatewayPassthroughBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayPassthroughBenchmark {
+
+    @Param({"false", "true"})
+    private boolean passthrough;
+
+    @Param({"10", "500"})
+    private int bookings;
+
+    private HttpServer server;
+    private ConfigurableApplicationContext context;
+    private MockMvc mvc;
+
+    @Setup
+    public void setUp() throws Exception {
+        byte[] body = new ObjectMapper().writeValueAsBytes(bookingList(bookings));
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/bookings/owner", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("X-Total-Count", String.valueOf(bookings));
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        context = new SpringApplicationBuilder(ShareItGateway.class)
+                .run("--server.port=0",
+                        "--shareit-server.url=http://localhost:" + server.getAddress().getPort(),
+                        "--shareit-server.passthrough=" + passthrough,
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.web.client.RestTemplate=WARN");
+        mvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public int getOwnerBookings() throws Exception {
+        return mvc.perform(get("/bookings/owner")
+                        .param("size", String.valueOf(bookings))
+                        .header("X-Sharer-User-Id", 1L))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray()
+                .length;
+    }
+
+    private static List<Map<String, Object>> bookingList(int size) {
+        List<Map<String, Object>> list = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            Map<String, Object> booker = new LinkedHashMap<>();
+            booker.put("id", i);
+            booker.put("name", "booker " + i);
+            booker.put("email", "booker" + i + "@yandex.ru");
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", i);
+            item.put("name", "item " + i);
+            item.put("description", "item description " + i);
+            item.put("available", true);
+            Map<String, Object> booking = new LinkedHashMap<>();
+            booking.put("id", i);
+            booking.put("start", "2030-01-01T12:00:00");
+            booking.put("end", "2030-01-02T12:00:00");
+            booking.put("status", "APPROVED");
+            booking.put("booker", booker);
+            booking.put("item", item);
+            list.add(booking);
+        }
+        return list;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GatewayPassthroughBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+}
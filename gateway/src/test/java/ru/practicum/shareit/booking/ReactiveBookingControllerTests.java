@@ -0,0 +1,119 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingBulkDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.ratelimit.RateLimiter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static ru.practicum.shareit.item.ItemController.X_SHARED_USER_ID;
+
+@WebFluxTest(controllers = ReactiveBookingController.class)
+@ActiveProfiles("reactive")
+public class ReactiveBookingControllerTests {
+
+    @MockBean
+    private ReactiveBookingClient bookingClient;
+
+    @MockBean
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private WebTestClient webClient;
+
+    private BookingDto testBookingDto;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        testBookingDto = BookingDto.builder()
+                .itemId(1L)
+                .start(start)
+                .end(start.plusDays(1))
+                .build();
+    }
+
+    @Test
+    void addBookingShouldReturnServerResponse() {
+        when(bookingClient.addBooking(anyLong(), any(BookingDto.class)))
+                .thenReturn(Mono.just(ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body("{\"id\":1}".getBytes(StandardCharsets.UTF_8))));
+
+        webClient.post().uri("/bookings")
+                .header(X_SHARED_USER_ID, "2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(testBookingDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(1);
+
+        verify(bookingClient, times(1)).addBooking(2L, testBookingDto);
+    }
+
+    @Test
+    void addBookingWithPastEndShouldReturn400() {
+        testBookingDto.setEnd(LocalDateTime.now().minusDays(1));
+
+        webClient.post().uri("/bookings")
+                .header(X_SHARED_USER_ID, "2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(testBookingDto)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(bookingClient);
+    }
+
+    @Test
+    void addBookingWithoutStartShouldReturn400() {
+        testBookingDto.setStart(null);
+
+        webClient.post().uri("/bookings")
+                .header(X_SHARED_USER_ID, "2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(testBookingDto)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(bookingClient);
+    }
+
+    @Test
+    void decideBookingsWithoutTargetShouldReturn400() {
+        webClient.patch().uri("/bookings/bulk")
+                .header(X_SHARED_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(BookingBulkDecisionDto.builder().approved(true).build())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(bookingClient);
+    }
+
+    @Test
+    void getBookingsWithUnknownStateShouldReturn500() {
+        webClient.get().uri("/bookings?state=UNKNOWN")
+                .header(X_SHARED_USER_ID, "1")
+                .exchange()
+                .expectStatus().is5xxServerError()
+                .expectBody().jsonPath("$.error").exists();
+
+        verifyNoInteractions(bookingClient);
+    }
+
+}
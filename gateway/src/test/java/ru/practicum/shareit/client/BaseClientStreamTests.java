@@ -0,0 +1,101 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BaseClientStreamTests {
+
+    private static final String CLIENT = "bookings";
+    private static final String CSV = "id,start\n1,2030-01-01T10:00\n";
+
+    private ServerCallGuard guard;
+    private RestTemplate rest;
+    private TestClient client;
+    private MockClientHttpResponse serverResponse;
+
+    @BeforeEach
+    void setUp() {
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.getBulkhead().setMaxConcurrentCalls(1);
+        guard = new ServerCallGuard(properties, new SimpleMeterRegistry());
+        rest = new RestTemplate((uri, method) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            request.setResponse(serverResponse);
+            return request;
+        });
+        client = new TestClient(rest);
+        client.setServerCallGuard(guard);
+    }
+
+    @Test
+    void bodyIsCopiedOutsideServerCallGuard() throws IOException {
+        List<Object> callsDuringCopy = new ArrayList<>();
+        InputStream body = new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                try {
+                    callsDuringCopy.add(guard.execute(CLIENT, () -> "ok"));
+                } catch (BulkheadFullException e) {
+                    callsDuringCopy.add(e);
+                }
+                return super.read(b, off, len);
+            }
+        };
+        serverResponse = new MockClientHttpResponse(body, HttpStatus.OK);
+        serverResponse.getHeaders().setContentType(MediaType.valueOf("text/csv"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client.export(response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("text/csv", response.getContentType());
+        assertEquals(CSV, response.getContentAsString());
+        assertFalse(callsDuringCopy.isEmpty());
+        assertTrue(callsDuringCopy.stream().allMatch("ok"::equals), () -> "Вызовы во время копирования: "
+                + callsDuringCopy);
+    }
+
+    @Test
+    void errorResponseIsRelayed() throws IOException {
+        serverResponse = new MockClientHttpResponse(
+                "{\"error\":\"not found\"}".getBytes(StandardCharsets.UTF_8), HttpStatus.NOT_FOUND);
+        serverResponse.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client.export(response);
+
+        assertEquals(404, response.getStatus());
+        assertEquals("{\"error\":\"not found\"}", response.getContentAsString());
+        assertEquals("ok", guard.execute(CLIENT, () -> "ok"));
+    }
+
+    private static class TestClient extends BaseClient {
+
+        TestClient(RestTemplate rest) {
+            super(CLIENT, rest);
+        }
+
+        void export(MockHttpServletResponse response) throws IOException {
+            stream("/bookings/owner/export", 1L, "text/csv", response);
+        }
+
+    }
+
+}
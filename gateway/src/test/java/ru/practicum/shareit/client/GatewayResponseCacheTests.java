@@ -0,0 +1,262 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GatewayResponseCacheTests {
+
+    private static final long OWNER_ID = 1L;
+    private static final long USER_ID = 2L;
+    private static final String ETAG = "\"item-5-0\"";
+    private static final String AVAILABILITY_ETAG = "\"availability-5-0\"";
+
+    private GatewayResponseCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new GatewayResponseCache(true, Duration.ofMinutes(1), DataSize.ofMegabytes(1));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void itemIsLoadedOnceForOtherUsers() {
+        ResponseEntity<Object> first = cache.getItem(5L, USER_ID, null, itemLoader(5L));
+        ResponseEntity<Object> second = cache.getItem(5L, 3L, null, itemLoader(5L));
+
+        assertEquals(1, loads.get());
+        assertEquals(200, second.getStatusCodeValue());
+        assertArrayEquals(body("item 5"), (byte[]) second.getBody());
+        assertEquals(ETAG, second.getHeaders().getETag());
+        assertFalse(first.getHeaders().containsKey(GatewayResponseCache.X_ITEM_OWNER_ID));
+        assertFalse(second.getHeaders().containsKey(GatewayResponseCache.X_ITEM_OWNER_ID));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void ownerBypassesCache() {
+        cache.getItem(5L, OWNER_ID, null, itemLoader(5L));
+        assertEquals(0, cache.size());
+
+        cache.getItem(5L, USER_ID, null, itemLoader(5L));
+        ResponseEntity<Object> ownerResponse = cache.getItem(5L, OWNER_ID, null, itemLoader(5L));
+
+        assertEquals(3, loads.get());
+        assertFalse(ownerResponse.getHeaders().containsKey(GatewayResponseCache.X_ITEM_OWNER_ID));
+        cache.getItem(5L, USER_ID, null, itemLoader(5L));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void cachedEtagAnswersNotModified() {
+        cache.getItem(5L, USER_ID, null, itemLoader(5L));
+
+        ResponseEntity<Object> notModified = cache.getItem(5L, 3L, "\"other\", " + ETAG, itemLoader(5L));
+        ResponseEntity<Object> any = cache.getItem(5L, 3L, "*", itemLoader(5L));
+        ResponseEntity<Object> changed = cache.getItem(5L, 3L, "\"other\"", itemLoader(5L));
+
+        assertEquals(1, loads.get());
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertEquals(ETAG, notModified.getHeaders().getETag());
+        assertNull(notModified.getBody());
+        assertEquals(HttpStatus.NOT_MODIFIED, any.getStatusCode());
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertArrayEquals(body("item 5"), (byte[]) changed.getBody());
+    }
+
+    @Test
+    void errorsAreNotCached() {
+        Function<String, ResponseEntity<Object>> notFound = ifNoneMatch -> {
+            loads.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body("not found"));
+        };
+
+        cache.getItem(5L, USER_ID, null, notFound);
+        cache.getItem(5L, USER_ID, null, notFound);
+        cache.search(Map.of("text", "drill"), () -> {
+            loads.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        });
+
+        assertEquals(3, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void searchKeyIgnoresParameterOrderAndTextCase() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("text", "Drill");
+        first.put("from", 0);
+        first.put("size", 10);
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("size", 10);
+        second.put("from", 0);
+        second.put("text", "dRILL");
+
+        cache.search(first, searchLoader());
+        cache.search(second, searchLoader());
+        cache.search(Map.of("text", "drill", "from", 10, "size", 10), searchLoader());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void tagInvalidatesSingleEntryAndGroupTagInvalidatesGroup() {
+        cache.getItem(5L, USER_ID, null, itemLoader(5L));
+        cache.getItem(6L, USER_ID, null, itemLoader(6L));
+        cache.search(Map.of("text", "drill"), searchLoader());
+        cache.search(Map.of("text", "saw"), searchLoader());
+        assertEquals(4, loads.get());
+
+        cache.invalidate(List.of("item:5"));
+        cache.getItem(5L, USER_ID, null, itemLoader(5L));
+        cache.getItem(6L, USER_ID, null, itemLoader(6L));
+        assertEquals(5, loads.get());
+
+        cache.invalidate(List.of("search"));
+        cache.search(Map.of("text", "drill"), searchLoader());
+        cache.search(Map.of("text", "saw"), searchLoader());
+        cache.getItem(6L, USER_ID, null, itemLoader(6L));
+        assertEquals(7, loads.get());
+    }
+
+    @Test
+    void availabilityIsCachedPerPeriodAndInvalidatedForAllPeriodsOfItem() {
+        Map<String, Object> week = Map.of("from", "2030-01-01T00:00", "to", "2030-01-08T00:00");
+        Map<String, Object> month = Map.of("from", "2030-01-01T00:00", "to", "2030-02-01T00:00");
+        cache.availability(5L, week, null, availabilityLoader());
+        cache.availability(5L, month, null, availabilityLoader());
+        cache.availability(50L, week, null, availabilityLoader());
+        cache.availability(5L, week, null, availabilityLoader());
+        assertEquals(3, loads.get());
+
+        ResponseEntity<Object> notModified = cache.availability(5L, week, AVAILABILITY_ETAG, availabilityLoader());
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertEquals(AVAILABILITY_ETAG, notModified.getHeaders().getETag());
+        assertEquals(3, loads.get());
+
+        cache.applyInvalidation(ResponseEntity.ok()
+                .header(GatewayResponseCache.X_CACHE_INVALIDATE, "availability:5")
+                .build());
+        assertEquals(1, cache.size());
+        cache.availability(5L, week, null, availabilityLoader());
+        cache.availability(5L, month, null, availabilityLoader());
+        cache.availability(50L, week, null, availabilityLoader());
+        assertEquals(5, loads.get());
+
+        cache.invalidate(List.of("availability"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidationHeaderOfServerResponseIsAppliedAndRemoved() {
+        cache.getItem(5L, USER_ID, null, itemLoader(5L));
+        cache.search(Map.of("text", "drill"), searchLoader());
+
+        ResponseEntity<Object> response = cache.applyInvalidation(ResponseEntity.ok()
+                .header(GatewayResponseCache.X_CACHE_INVALIDATE, "item:5, search")
+                .body(body("updated")));
+
+        assertFalse(response.getHeaders().containsKey(GatewayResponseCache.X_CACHE_INVALIDATE));
+        assertArrayEquals(body("updated"), (byte[]) response.getBody());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void responseLoadedBeforeInvalidationIsNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ResponseEntity<Object>> staleRead = executor.submit(() -> cache.getItem(5L, USER_ID, null,
+                    ifNoneMatch -> {
+                        loading.countDown();
+                        await(invalidated);
+                        return itemLoader(5L).apply(ifNoneMatch);
+                    }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            cache.applyInvalidation(ResponseEntity.noContent()
+                    .header(GatewayResponseCache.X_CACHE_INVALIDATE, "item:5")
+                    .build());
+            invalidated.countDown();
+
+            assertEquals(200, staleRead.get(5, TimeUnit.SECONDS).getStatusCodeValue());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, cache.size());
+        cache.getItem(5L, USER_ID, null, itemLoader(5L));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void disabledCacheAlwaysLoadsAndHidesInternalHeaders() {
+        cache = new GatewayResponseCache(false, Duration.ofMinutes(1), DataSize.ofMegabytes(1));
+
+        ResponseEntity<Object> first = cache.getItem(5L, USER_ID, null, itemLoader(5L));
+        cache.getItem(5L, USER_ID, null, itemLoader(5L));
+
+        assertEquals(2, loads.get());
+        assertFalse(first.getHeaders().containsKey(GatewayResponseCache.X_ITEM_OWNER_ID));
+        assertEquals(0, cache.size());
+    }
+
+    private Function<String, ResponseEntity<Object>> itemLoader(long itemId) {
+        return ifNoneMatch -> {
+            loads.incrementAndGet();
+            return ResponseEntity.ok()
+                    .eTag(ETAG)
+                    .header(GatewayResponseCache.X_ITEM_OWNER_ID, String.valueOf(OWNER_ID))
+                    .body(body("item " + itemId));
+        };
+    }
+
+    private Supplier<ResponseEntity<Object>> searchLoader() {
+        return () -> {
+            loads.incrementAndGet();
+            return ResponseEntity.ok(body("[]"));
+        };
+    }
+
+    private Function<String, ResponseEntity<Object>> availabilityLoader() {
+        return ifNoneMatch -> {
+            loads.incrementAndGet();
+            return ResponseEntity.ok()
+                    .eTag(AVAILABILITY_ETAG)
+                    .body(body("[]"));
+        };
+    }
+
+    private static byte[] body(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.Configurable;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpClientConfigTests {
+
+    private static final String POOL_METER = "shareit.gateway.http.pool.connections";
+    private static final int MAX_TOTAL = 3;
+    private static final int MAX_PER_ROUTE = 2;
+    private static final HttpRoute SERVER = new HttpRoute(new HttpHost("server", 9090));
+    private static final HttpRoute OTHER_SERVER = new HttpRoute(new HttpHost("other-server", 9090));
+    private static final HttpRoute THIRD_SERVER = new HttpRoute(new HttpHost("third-server", 9090));
+
+    private final HttpClientConfig config = new HttpClientConfig();
+    private final List<HttpClientConnection> leased = new ArrayList<>();
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    @BeforeEach
+    void setUp() {
+        connectionManager = config.shareitServerConnectionManager(MAX_TOTAL, MAX_PER_ROUTE, Duration.ofSeconds(2));
+    }
+
+    @Test
+    void connectionManagerUsesConfiguredLimits() {
+        assertEquals(MAX_TOTAL, connectionManager.getMaxTotal());
+        assertEquals(MAX_PER_ROUTE, connectionManager.getDefaultMaxPerRoute());
+        assertEquals(2000, connectionManager.getValidateAfterInactivity());
+    }
+
+    @Test
+    void perRouteAndTotalLimitsAreEnforced() throws Exception {
+        lease(SERVER);
+        lease(SERVER);
+        assertThrows(ConnectionPoolTimeoutException.class, () -> lease(SERVER));
+
+        lease(OTHER_SERVER);
+        assertEquals(MAX_TOTAL, connectionManager.getTotalStats().getLeased());
+        assertThrows(ConnectionPoolTimeoutException.class, () -> lease(THIRD_SERVER));
+    }
+
+    @Test
+    void httpClientUsesConfiguredTimeoutsAndLeavesSharedPoolOpen() throws Exception {
+        try (CloseableHttpClient client = config.shareitServerHttpClient(connectionManager,
+                Duration.ofMillis(1500), Duration.ofSeconds(7), Duration.ofMillis(300),
+                Duration.ofSeconds(30), Duration.ofSeconds(30))) {
+            RequestConfig requestConfig = ((Configurable) client).getConfig();
+
+            assertEquals(1500, requestConfig.getConnectTimeout());
+            assertEquals(7000, requestConfig.getSocketTimeout());
+            assertEquals(300, requestConfig.getConnectionRequestTimeout());
+        }
+        lease(SERVER);
+    }
+
+    @Test
+    void poolMetersAreRegistered() throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        config.shareitServerConnectionPoolMetrics(connectionManager).bindTo(registry);
+
+        lease(SERVER);
+
+        assertEquals(1, poolGauge(registry, "leased"));
+        assertEquals(0, poolGauge(registry, "pending"));
+        assertEquals(0, poolGauge(registry, "available"));
+        assertEquals(MAX_TOTAL, poolGauge(registry, "max"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        leased.forEach(connection -> connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS));
+        connectionManager.close();
+    }
+
+    private void lease(HttpRoute route) throws Exception {
+        leased.add(connectionManager.requestConnection(route, null).get(100, TimeUnit.MILLISECONDS));
+    }
+
+    private static double poolGauge(MeterRegistry registry, String state) {
+        return registry.get(POOL_METER).tag("state", state).gauge().value();
+    }
+
+}
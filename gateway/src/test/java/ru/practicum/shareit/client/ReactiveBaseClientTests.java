@@ -0,0 +1,90 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.function.client.WebClientAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.practicum.shareit.ratelimit.RateLimiter;
+import ru.practicum.shareit.user.ReactiveUserClient;
+import ru.practicum.shareit.user.ReactiveUserController;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+/**
+ * Настоящий {@link ReactiveBaseClient} с предохранителем против порта, на котором никто не слушает.
+ */
+@WebFluxTest(controllers = ReactiveUserController.class, properties = {
+        "shareit-server.resilience.circuit-breaker.sliding-window-size=2",
+        "shareit-server.resilience.circuit-breaker.minimum-number-of-calls=2",
+        "shareit-server.resilience.circuit-breaker.wait-in-open-state=1m"
+})
+@ActiveProfiles("reactive")
+@Import({ReactiveUserClient.class, ReactiveClientConfig.class, ServerCallGuard.class})
+@ImportAutoConfiguration(WebClientAutoConfiguration.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ReactiveBaseClientTests {
+
+    private static final String UNAVAILABLE = "Сервер недоступен или не ответил вовремя";
+
+    @MockBean
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private WebTestClient webClient;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            String url = "http://localhost:" + socket.getLocalPort();
+            registry.add("shareit-server.url", () -> url);
+        }
+    }
+
+    @Test
+    void connectFailureShouldReturn503() {
+        webClient.get().uri("/users/1")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody().jsonPath("$.error").isEqualTo(UNAVAILABLE);
+    }
+
+    @Test
+    void openCircuitBreakerShouldReturn503() {
+        for (int i = 0; i < 2; i++) {
+            webClient.get().uri("/users")
+                    .exchange()
+                    .expectStatus().isEqualTo(503)
+                    .expectBody().jsonPath("$.error").isEqualTo(UNAVAILABLE);
+        }
+
+        webClient.get().uri("/users")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody().jsonPath("$.error").isEqualTo("Сервер не справляется с запросами (users), повторите позже");
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(ResilienceProperties.class)
+    static class MetricsConfig {
+
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+}
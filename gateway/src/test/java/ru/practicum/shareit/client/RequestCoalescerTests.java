@@ -0,0 +1,200 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestCoalescerTests {
+
+    private static final URI ITEM_URI = URI.create("http://localhost:9090/items/5");
+    private static final int FOLLOWERS = 7;
+
+    private MeterRegistry registry;
+    private RequestCoalescer coalescer;
+    private ExecutorService executor;
+    private AtomicInteger upstreamCalls;
+    private CountDownLatch leaderStarted;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        coalescer = new RequestCoalescer(true, List.of("/items/**"),
+                List.of("X-Sharer-User-Id", "If-None-Match", "Accept"), registry);
+        executor = Executors.newFixedThreadPool(FOLLOWERS + 1);
+        upstreamCalls = new AtomicInteger();
+        leaderStarted = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalRequestsShareOneUpstreamCall() throws Exception {
+        ResponseEntity<Object> serverResponse = ResponseEntity.ok("item 5");
+
+        Future<ResponseEntity<Object>> leader = submit(1L, blockingUpstream(() -> serverResponse));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        List<Future<ResponseEntity<Object>>> followers = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(submit(1L, blockingUpstream(() -> serverResponse)));
+        }
+        awaitCollapsed(FOLLOWERS);
+        assertEquals(1.0, inFlight());
+        release.countDown();
+
+        assertSame(serverResponse, leader.get(5, TimeUnit.SECONDS));
+        for (Future<ResponseEntity<Object>> follower : followers) {
+            assertSame(serverResponse, follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(FOLLOWERS, collapsed());
+        assertEquals(0.0, inFlight());
+    }
+
+    @Test
+    void upstreamExceptionIsRethrownToFollowers() throws Exception {
+        Future<ResponseEntity<Object>> leader = submit(1L, blockingUpstream(() -> {
+            throw new ResourceAccessException("timeout");
+        }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        List<Future<ResponseEntity<Object>>> followers = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(submit(1L, blockingUpstream(() -> ResponseEntity.ok("unused"))));
+        }
+        awaitCollapsed(FOLLOWERS);
+        release.countDown();
+
+        assertCause(ResourceAccessException.class, leader);
+        for (Future<ResponseEntity<Object>> follower : followers) {
+            assertCause(ResourceAccessException.class, follower);
+        }
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(0.0, inFlight());
+
+        assertEquals("next", coalescer.execute(ITEM_URI, userHeaders(1L), () -> ResponseEntity.ok("next"))
+                .getBody());
+    }
+
+    @Test
+    void upstreamErrorIsRethrownToFollowers() throws Exception {
+        Future<ResponseEntity<Object>> leader = submit(1L, blockingUpstream(() -> {
+            throw new OutOfMemoryError("test");
+        }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        Future<ResponseEntity<Object>> follower = submit(1L, blockingUpstream(() -> ResponseEntity.ok("unused")));
+        awaitCollapsed(1);
+        release.countDown();
+
+        assertCause(OutOfMemoryError.class, leader);
+        assertCause(OutOfMemoryError.class, follower);
+        assertEquals(0.0, inFlight());
+    }
+
+    @Test
+    void requestsOfDifferentUsersAreNotMerged() throws Exception {
+        Future<ResponseEntity<Object>> first = submit(1L, blockingUpstream(() -> ResponseEntity.ok("for 1")));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        ResponseEntity<Object> second = coalescer.execute(ITEM_URI, userHeaders(2L), () -> {
+            upstreamCalls.incrementAndGet();
+            return ResponseEntity.ok("for 2");
+        });
+        release.countDown();
+
+        assertEquals("for 2", second.getBody());
+        assertEquals("for 1", first.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(0, collapsed());
+    }
+
+    @Test
+    void requestsOutsideConfiguredPathsAreNotMerged() throws Exception {
+        URI usersUri = URI.create("http://localhost:9090/users/1");
+        Future<ResponseEntity<Object>> first = executor.submit(() -> coalescer.execute(usersUri, userHeaders(1L),
+                blockingUpstream(() -> ResponseEntity.ok("user"))));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        assertEquals(0.0, inFlight());
+
+        coalescer.execute(usersUri, userHeaders(1L), () -> {
+            upstreamCalls.incrementAndGet();
+            return ResponseEntity.ok("user");
+        });
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(0, collapsed());
+    }
+
+    private Future<ResponseEntity<Object>> submit(long userId, Supplier<ResponseEntity<Object>> upstream) {
+        return executor.submit(() -> coalescer.execute(ITEM_URI, userHeaders(userId), upstream));
+    }
+
+    /**
+     * Вызов сервера, который ждет {@link #release}; выполнение в нем отмечается {@link #leaderStarted}.
+     */
+    private Supplier<ResponseEntity<Object>> blockingUpstream(Supplier<ResponseEntity<Object>> response) {
+        return () -> {
+            upstreamCalls.incrementAndGet();
+            leaderStarted.countDown();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return response.get();
+        };
+    }
+
+    private void awaitCollapsed(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (collapsed() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, collapsed());
+    }
+
+    private long collapsed() {
+        return (long) registry.get("shareit.gateway.requests.collapsed").counter().count();
+    }
+
+    private double inFlight() {
+        return registry.get("shareit.gateway.requests.in.flight").gauge().value();
+    }
+
+    private static HttpHeaders userHeaders(long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        return headers;
+    }
+
+    private static void assertCause(Class<? extends Throwable> expected, Future<?> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(expected, e.getCause());
+    }
+
+}
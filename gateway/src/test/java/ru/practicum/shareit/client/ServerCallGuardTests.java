@@ -0,0 +1,209 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.shareit.exception.handler.ErrorHandler;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ServerCallGuardTests {
+
+    private static final String CLIENT = "items";
+    private static final int WINDOW = 4;
+
+    private ResilienceProperties properties;
+    private MeterRegistry registry;
+    private ServerCallGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResilienceProperties();
+        properties.getCircuitBreaker().setSlidingWindowSize(WINDOW);
+        properties.getCircuitBreaker().setMinimumNumberOfCalls(WINDOW);
+        properties.getCircuitBreaker().setWaitInOpenState(Duration.ofMillis(100));
+        properties.getCircuitBreaker().setPermittedCallsInHalfOpenState(1);
+        properties.getBulkhead().setMaxConcurrentCalls(1);
+        registry = new SimpleMeterRegistry();
+        guard = new ServerCallGuard(properties, registry);
+        guard.register(CLIENT);
+    }
+
+    @Test
+    void serverErrorResponsesOpenCircuitBreaker() {
+        for (int i = 0; i < WINDOW; i++) {
+            assertEquals(500, guard.execute(CLIENT, () -> ResponseEntity.status(500).build())
+                    .getStatusCodeValue());
+        }
+
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(CallNotPermittedException.class, () -> guard.execute(CLIENT, calls::incrementAndGet));
+        assertEquals(0, calls.get());
+        assertEquals(1.0, stateGauge("open"));
+    }
+
+    @Test
+    void clientErrorsDoNotOpenCircuitBreaker() {
+        for (int i = 0; i < WINDOW; i++) {
+            assertEquals(404, guard.execute(CLIENT, () -> ResponseEntity.status(404).build())
+                    .getStatusCodeValue());
+            assertThrows(HttpClientErrorException.class, () -> guard.execute(CLIENT, () -> {
+                throw HttpClientErrorException.create(HttpStatus.CONFLICT, "Conflict", null, null, null);
+            }));
+        }
+
+        assertEquals("ok", guard.execute(CLIENT, () -> "ok"));
+        assertEquals(1.0, stateGauge("closed"));
+    }
+
+    @Test
+    void fullBulkheadRejectsCallsWithoutOpeningCircuitBreaker() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> slowCall = executor.submit(() -> guard.execute(CLIENT, () -> {
+                started.countDown();
+                await(release);
+                return "slow";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            AtomicInteger calls = new AtomicInteger();
+            for (int i = 0; i < WINDOW * 3; i++) {
+                assertThrows(BulkheadFullException.class, () -> guard.execute(CLIENT, calls::incrementAndGet));
+            }
+            assertEquals(0, calls.get());
+
+            release.countDown();
+            assertEquals("slow", slowCall.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("ok", guard.execute(CLIENT, () -> "ok"));
+        assertEquals(1.0, stateGauge("closed"));
+        assertEquals(1.0, availableBulkheadCalls());
+    }
+
+    @Test
+    void fullBulkheadIsReportedAs503() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new GuardedController(guard))
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> guard.execute(CLIENT, () -> {
+                started.countDown();
+                await(release);
+                return null;
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            mvc.perform(get("/guarded"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.error").exists());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void permitsAreReleasedWhenCallThrows() {
+        assertThrows(ResourceAccessException.class, () -> guard.execute(CLIENT, () -> {
+            throw new ResourceAccessException("timeout");
+        }));
+        assertThrows(StackOverflowError.class, () -> guard.execute(CLIENT, () -> {
+            throw new StackOverflowError();
+        }));
+
+        assertEquals(1.0, availableBulkheadCalls());
+        assertEquals("ok", guard.execute(CLIENT, () -> "ok"));
+    }
+
+    @Test
+    void errorInHalfOpenStateReturnsPermission() throws Exception {
+        for (int i = 0; i < WINDOW; i++) {
+            assertThrows(ResourceAccessException.class, () -> guard.execute(CLIENT, () -> {
+                throw new ResourceAccessException("timeout");
+            }));
+        }
+        assertEquals(1.0, stateGauge("open"));
+
+        Thread.sleep(properties.getCircuitBreaker().getWaitInOpenState().toMillis() * 2);
+        assertThrows(AssertionError.class, () -> guard.execute(CLIENT, () -> {
+            throw new AssertionError("unexpected");
+        }));
+        assertEquals(1.0, stateGauge("open"));
+
+        Thread.sleep(properties.getCircuitBreaker().getWaitInOpenState().toMillis() * 2);
+        assertEquals("ok", guard.execute(CLIENT, () -> "ok"));
+        assertEquals(1.0, stateGauge("closed"));
+        assertEquals(1.0, availableBulkheadCalls());
+    }
+
+    private double stateGauge(String state) {
+        return registry.get("resilience4j.circuitbreaker.state")
+                .tag("name", CLIENT)
+                .tag("state", state)
+                .gauge()
+                .value();
+    }
+
+    private double availableBulkheadCalls() {
+        return registry.get("resilience4j.bulkhead.available.concurrent.calls")
+                .tag("name", CLIENT)
+                .gauge()
+                .value();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @RestController
+    static class GuardedController {
+
+        private final ServerCallGuard guard;
+
+        GuardedController(ServerCallGuard guard) {
+            this.guard = guard;
+        }
+
+        @GetMapping("/guarded")
+        String guarded() {
+            return guard.execute(CLIENT, () -> "ok");
+        }
+
+    }
+
+}
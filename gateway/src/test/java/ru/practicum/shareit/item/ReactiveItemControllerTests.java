@@ -0,0 +1,121 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.ratelimit.RateLimiter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static ru.practicum.shareit.item.ItemController.X_SHARED_USER_ID;
+
+@WebFluxTest(controllers = ReactiveItemController.class)
+@ActiveProfiles("reactive")
+public class ReactiveItemControllerTests {
+
+    @MockBean
+    private ReactiveItemClient itemClient;
+
+    @MockBean
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private WebTestClient webClient;
+
+    private ItemDto testItemDto;
+
+    @BeforeEach
+    void setUp() {
+        testItemDto = ItemDto.builder()
+                .name("drill")
+                .description("good drill")
+                .available(true)
+                .build();
+    }
+
+    @Test
+    void addItemShouldReturnServerResponse() {
+        when(itemClient.addItem(anyLong(), any(ItemDto.class)))
+                .thenReturn(Mono.just(ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body("{\"id\":1}".getBytes(StandardCharsets.UTF_8))));
+
+        webClient.post().uri("/items")
+                .header(X_SHARED_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(testItemDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(1);
+
+        verify(itemClient, times(1)).addItem(1L, testItemDto);
+    }
+
+    @Test
+    void addItemWithoutAvailableShouldReturn400() {
+        testItemDto.setAvailable(null);
+
+        webClient.post().uri("/items")
+                .header(X_SHARED_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(testItemDto)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(itemClient);
+    }
+
+    @Test
+    void addItemWithBlankNameShouldReturn400() {
+        testItemDto.setName("");
+
+        webClient.post().uri("/items")
+                .header(X_SHARED_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(testItemDto)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(itemClient);
+    }
+
+    @Test
+    void addItemsWithInvalidItemShouldReturn400() {
+        testItemDto.setDescription(" ");
+
+        webClient.post().uri("/items/batch")
+                .header(X_SHARED_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(testItemDto))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(itemClient);
+    }
+
+    @Test
+    void addCommentWithBlankTextShouldReturn400() {
+        webClient.post().uri("/items/{itemId}/comment", 1)
+                .header(X_SHARED_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CommentDto.builder().text(" ").build())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(itemClient);
+    }
+
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.practicum.shareit.item.ItemController.X_SHARED_USER_ID;
+
+public class RateLimitFilterTests {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1_000));
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getGroups().put("search", RateLimiterTests.group(List.of("/items/search"), List.of(), 1, 0.4));
+        filter = new RateLimitFilter(new RateLimiter(properties, new SimpleMeterRegistry(), clock::get),
+                objectMapper);
+    }
+
+    @Test
+    void requestAboveLimitGets429WithRetryAfter() throws Exception {
+        MockFilterChain allowedChain = new MockFilterChain();
+        MockHttpServletResponse allowed = new MockHttpServletResponse();
+        filter.doFilter(searchRequest(), allowed, allowedChain);
+
+        assertEquals(200, allowed.getStatus());
+        assertNotNull(allowedChain.getRequest());
+
+        MockFilterChain rejectedChain = new MockFilterChain();
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(searchRequest(), rejected, rejectedChain);
+
+        assertEquals(429, rejected.getStatus());
+        assertNull(rejectedChain.getRequest());
+        assertEquals("3", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.valueOf(rejected.getContentType())));
+        Map<?, ?> body = objectMapper.readValue(rejected.getContentAsByteArray(), Map.class);
+        assertTrue(body.get("error").toString().contains("3"));
+    }
+
+    @Test
+    void requestIsAllowedAgainAfterRetryAfter() throws Exception {
+        filter.doFilter(searchRequest(), new MockHttpServletResponse(), new MockFilterChain());
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(searchRequest(), rejected, new MockFilterChain());
+        assertEquals(429, rejected.getStatus());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(Long.parseLong(rejected.getHeader(HttpHeaders.RETRY_AFTER))));
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(searchRequest(), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    private static MockHttpServletRequest searchRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/search");
+        request.addHeader(X_SHARED_USER_ID, "1");
+        return request;
+    }
+
+}
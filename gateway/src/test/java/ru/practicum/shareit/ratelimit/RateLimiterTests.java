@@ -0,0 +1,121 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+    private RateLimitProperties properties;
+    private MeterRegistry registry;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setIdleTimeout(Duration.ofMinutes(10));
+        properties.getGroups().put("bookings", group(List.of("/bookings", "/bookings/owner"), List.of("GET"), 2, 1));
+        properties.getGroups().put("default", group(List.of("/bookings/**", "/items/**"), List.of(), 3, 1));
+        registry = new SimpleMeterRegistry();
+        rateLimiter = new RateLimiter(properties, registry, clock::get);
+    }
+
+    @Test
+    void burstAboveCapacityIsRejectedUntilRefill() {
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/bookings", "1", null));
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/bookings", "1", null));
+        assertEquals(SECOND, rateLimiter.tryAcquire("GET", "/bookings", "1", null));
+        assertEquals(1.0, rejected("bookings"));
+
+        clock.addAndGet(SECOND / 2);
+        assertEquals(SECOND / 2, rateLimiter.tryAcquire("GET", "/bookings", "1", null));
+
+        clock.addAndGet(SECOND / 2);
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/bookings", "1", null));
+        assertEquals(2.0, rejected("bookings"));
+    }
+
+    @Test
+    void exactPathGroupWinsOverWildcardGroup() {
+        rateLimiter.tryAcquire("GET", "/bookings", "1", null);
+        rateLimiter.tryAcquire("GET", "/bookings", "1", null);
+
+        assertTrue(rateLimiter.tryAcquire("GET", "/bookings", "1", null) > 0);
+        assertTrue(rateLimiter.tryAcquire("GET", "/bookings/owner", "1", null) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/bookings/5", "1", null));
+        assertEquals(0, rateLimiter.tryAcquire("POST", "/bookings", "1", null));
+        assertEquals(0, rateLimiter.tryAcquire("PATCH", "/bookings/5", "1", null));
+        assertTrue(rateLimiter.tryAcquire("GET", "/bookings/6", "1", null) > 0);
+        assertEquals(2.0, rejected("bookings"));
+        assertEquals(1.0, rejected("default"));
+    }
+
+    @Test
+    void usersAndAddressesHaveSeparateBuckets() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("GET", "/items/1", "1", "10.0.0.1");
+        }
+
+        assertTrue(rateLimiter.tryAcquire("GET", "/items/1", "1", "10.0.0.2") > 0);
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/items/1", "2", "10.0.0.1"));
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/items/1", null, "10.0.0.1"));
+    }
+
+    @Test
+    void requestsOutsideGroupsAndDisabledLimiterAreNotLimited() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("GET", "/users/1", "1", null));
+        }
+
+        properties.setEnabled(false);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("GET", "/bookings", "1", null));
+        }
+    }
+
+    @Test
+    void idleBucketIsEvictedAndStartsFull() {
+        rateLimiter.tryAcquire("GET", "/bookings", "1", null);
+        rateLimiter.tryAcquire("GET", "/bookings", "1", null);
+
+        clock.addAndGet(properties.getIdleTimeout().toNanos() + SECOND);
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/bookings", "1", null));
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/bookings", "1", null));
+        assertTrue(rateLimiter.tryAcquire("GET", "/bookings", "1", null) > 0);
+    }
+
+    @Test
+    void retryAfterIsRoundedUpToWholeSeconds() {
+        assertEquals(1, RateLimiter.retryAfterSeconds(1));
+        assertEquals(1, RateLimiter.retryAfterSeconds(SECOND / 2));
+        assertEquals(1, RateLimiter.retryAfterSeconds(SECOND));
+        assertEquals(2, RateLimiter.retryAfterSeconds(SECOND + 1));
+        assertEquals(3, RateLimiter.retryAfterSeconds(5 * SECOND / 2));
+    }
+
+    private double rejected(String group) {
+        return registry.get("shareit.gateway.rate.limit.rejected").tag("group", group).counter().count();
+    }
+
+    static RateLimitProperties.Group group(List<String> paths, List<String> methods, long capacity,
+                                           double refillPerSecond) {
+        RateLimitProperties.Group group = new RateLimitProperties.Group();
+        group.setPaths(paths);
+        group.setMethods(methods);
+        group.setCapacity(capacity);
+        group.setRefillPerSecond(refillPerSecond);
+        return group;
+    }
+
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long START = 1_000 * SECOND;
+
+    @Test
+    void fullBucketAllowsBurstOfCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 1, START);
+
+        assertEquals(0, bucket.tryAcquire(START));
+        assertEquals(0, bucket.tryAcquire(START));
+        assertEquals(0, bucket.tryAcquire(START));
+        assertEquals(SECOND, bucket.tryAcquire(START));
+        assertEquals(SECOND, bucket.tryAcquire(START));
+    }
+
+    @Test
+    void tokensAreRefilledAtConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(2, 4, START);
+        bucket.tryAcquire(START);
+        bucket.tryAcquire(START);
+
+        assertEquals(SECOND / 4, bucket.tryAcquire(START));
+        assertEquals(SECOND / 8, bucket.tryAcquire(START + SECOND / 8));
+        assertEquals(0, bucket.tryAcquire(START + SECOND / 4));
+        assertEquals(SECOND / 4, bucket.tryAcquire(START + SECOND / 4));
+        assertEquals(0, bucket.tryAcquire(START + SECOND / 2));
+    }
+
+    @Test
+    void idleTimeDoesNotAccumulateMoreThanCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 1, START);
+        long later = START + 60 * SECOND;
+
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(SECOND, bucket.tryAcquire(later));
+    }
+
+}
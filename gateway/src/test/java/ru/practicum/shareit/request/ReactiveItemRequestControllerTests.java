@@ -0,0 +1,76 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.ratelimit.RateLimiter;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static ru.practicum.shareit.item.ItemController.X_SHARED_USER_ID;
+
+@WebFluxTest(controllers = ReactiveItemRequestController.class)
+@ActiveProfiles("reactive")
+public class ReactiveItemRequestControllerTests {
+
+    @MockBean
+    private ReactiveItemRequestClient requestClient;
+
+    @MockBean
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private WebTestClient webClient;
+
+    @Test
+    void addRequestShouldReturnServerResponse() {
+        when(requestClient.addRequest(anyLong(), any(ItemRequestDto.class)))
+                .thenReturn(Mono.just(ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body("{\"id\":1}".getBytes(StandardCharsets.UTF_8))));
+
+        webClient.post().uri("/requests")
+                .header(X_SHARED_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ItemRequestDto.builder().description("need a drill").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(1);
+
+        verify(requestClient, times(1)).addRequest(eq(1L), any(ItemRequestDto.class));
+    }
+
+    @Test
+    void addRequestWithBlankDescriptionShouldReturn400() {
+        webClient.post().uri("/requests")
+                .header(X_SHARED_USER_ID, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ItemRequestDto.builder().description(" ").build())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(requestClient);
+    }
+
+    @Test
+    void getAllRequestsWithInvalidSizeShouldReturn400() {
+        webClient.get().uri("/requests/all?from=0&size=0")
+                .header(X_SHARED_USER_ID, "1")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").exists();
+
+        verifyNoInteractions(requestClient);
+    }
+
+}
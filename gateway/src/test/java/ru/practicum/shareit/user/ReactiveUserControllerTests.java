@@ -0,0 +1,97 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.ratelimit.RateLimiter;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(controllers = ReactiveUserController.class)
+@ActiveProfiles("reactive")
+public class ReactiveUserControllerTests {
+
+    @MockBean
+    private ReactiveUserClient userClient;
+
+    @MockBean
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private WebTestClient webClient;
+
+    private UserDto testUserDto;
+
+    @BeforeEach
+    void setUp() {
+        testUserDto = UserDto.builder()
+                .name("Alex")
+                .email("alexFirst@yandex.ru")
+                .build();
+    }
+
+    @Test
+    void addUserShouldReturnServerResponse() {
+        when(userClient.addUser(any(UserDto.class)))
+                .thenReturn(Mono.just(ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body("{\"id\":1}".getBytes(StandardCharsets.UTF_8))));
+
+        webClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(testUserDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(1);
+
+        verify(userClient, times(1)).addUser(testUserDto);
+    }
+
+    @Test
+    void addUserWithInvalidEmailShouldReturn400() {
+        testUserDto.setEmail("alexFirst.yandex.ru");
+
+        webClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(testUserDto)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(userClient);
+    }
+
+    @Test
+    void addUserWithBlankNameShouldReturn400() {
+        testUserDto.setName(" ");
+
+        webClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(testUserDto)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(userClient);
+    }
+
+    @Test
+    void getUserWithNegativeIdShouldReturn400() {
+        webClient.get().uri("/users/{userId}", -1)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").exists();
+
+        verifyNoInteractions(userClient);
+    }
+
+}
@@ -0,0 +1,113 @@
+-- Поиск свободных на период предметов: текстовый предикат + NOT EXISTS по бронированиям
+-- (idx_bookings_item_period) против поиска только по тексту.
+--
+-- Запуск на базе, схема которой уже создана сервером (schema.sql + schema-postgres.sql):
+--   psql -h localhost -p 6541 -U root -d shareit -f server/benchmark/item_search_period.sql
+--
+-- Скрипт создает отдельную схему bench с копиями таблиц items и bookings (включая индексы),
+-- наполняет их 1 000 000 предметов и 10 000 000 бронирований (по 10 на предмет, подтвержденные
+-- не пересекаются) и выполняет EXPLAIN ANALYZE для запросов каждого режима поиска.
+
+\timing on
+
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+CREATE TABLE bench.items (LIKE public.items INCLUDING ALL);
+CREATE TABLE bench.bookings (LIKE public.bookings INCLUDING ALL);
+
+-- Свои последовательности, чтобы не расходовать id рабочих таблиц
+CREATE SEQUENCE bench.items_seq;
+CREATE SEQUENCE bench.bookings_seq;
+ALTER TABLE bench.items ALTER COLUMN id SET DEFAULT nextval('bench.items_seq');
+ALTER TABLE bench.bookings ALTER COLUMN id SET DEFAULT nextval('bench.bookings_seq');
+
+INSERT INTO bench.items (name, description, is_available, owner_id)
+SELECT (ARRAY['Дрель', 'Отвертка', 'Шуруповерт', 'Перфоратор', 'Лобзик', 'Рубанок', 'Болгарка', 'Степлер',
+              'Пила', 'Молоток', 'Стремянка', 'Палатка', 'Велосипед', 'Самокат', 'Проектор'])
+           [1 + floor(random() * 15)::int] || ' ' || g,
+       (ARRAY['аккумуляторная', 'сетевой', 'ударная', 'строительный', 'садовая', 'туристическая', 'складная',
+              'профессиональный', 'компактный', 'бесщеточный'])[1 + floor(random() * 10)::int] || ' ' ||
+       (ARRAY['в отличном состоянии', 'с набором насадок', 'без зарядного устройства', 'с кейсом',
+              'почти новая', 'для дачи', 'для ремонта квартиры'])[1 + floor(random() * 7)::int],
+       random() < 0.9,
+       1
+FROM generate_series(1, 1000000) g;
+
+-- k-е бронирование предмета лежит в своем семидневном окне, поэтому подтвержденные не пересекаются
+INSERT INTO bench.bookings (start_date, end_date, item_id, booker_id, status)
+SELECT b.start_date,
+       b.start_date + (1 + floor(random() * 5)::int) * interval '1 day',
+       b.item_id,
+       1,
+       (ARRAY['APPROVED', 'APPROVED', 'APPROVED', 'APPROVED', 'APPROVED', 'APPROVED', 'APPROVED',
+              'WAITING', 'REJECTED', 'CANCELED'])[1 + floor(random() * 10)::int]
+FROM (SELECT i.id AS item_id,
+             timestamp '2030-01-01' + k * interval '7 days' + floor(random() * 24)::int * interval '1 hour'
+                 AS start_date
+      FROM bench.items i, generate_series(0, 9) k) b;
+
+ANALYZE bench.items;
+ANALYZE bench.bookings;
+
+-- public нужна для функций pg_trgm (similarity)
+SET search_path = bench, public;
+
+-- LIKE: только текст
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT i.* FROM items i
+WHERE i.is_available = true
+  AND (upper(i.name) LIKE upper('%дрел%') OR upper(i.description) LIKE upper('%дрел%'))
+LIMIT 10 OFFSET 0;
+
+-- LIKE: текст + свободные на выходные
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT i.* FROM items i
+WHERE i.is_available = true
+  AND (upper(i.name) LIKE upper('%дрел%') OR upper(i.description) LIKE upper('%дрел%'))
+  AND NOT EXISTS (SELECT 1 FROM bookings b
+                  WHERE b.item_id = i.id AND b.status = 'APPROVED'
+                    AND b.start_date < '2030-02-03 20:00' AND b.end_date > '2030-02-01 18:00')
+LIMIT 10 OFFSET 0;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM items i
+WHERE i.is_available = true
+  AND (upper(i.name) LIKE upper('%дрел%') OR upper(i.description) LIKE upper('%дрел%'))
+  AND NOT EXISTS (SELECT 1 FROM bookings b
+                  WHERE b.item_id = i.id AND b.status = 'APPROVED'
+                    AND b.start_date < '2030-02-03 20:00' AND b.end_date > '2030-02-01 18:00');
+
+-- FULL_TEXT: текст + период
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT i.* FROM items i, websearch_to_tsquery('russian', 'дрель') query
+WHERE i.is_available = true AND i.search_vector @@ query
+  AND NOT EXISTS (SELECT 1 FROM bookings b
+                  WHERE b.item_id = i.id AND b.status = 'APPROVED'
+                    AND b.start_date < '2030-02-03 20:00' AND b.end_date > '2030-02-01 18:00')
+ORDER BY ts_rank(i.search_vector, query) DESC, i.id
+LIMIT 10 OFFSET 0;
+
+-- TRIGRAM: текст + период
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT i.* FROM items i
+WHERE i.is_available = true
+  AND (i.name ILIKE '%дрел%' OR i.description ILIKE '%дрел%')
+  AND NOT EXISTS (SELECT 1 FROM bookings b
+                  WHERE b.item_id = i.id AND b.status = 'APPROVED'
+                    AND b.start_date < '2030-02-03 20:00' AND b.end_date > '2030-02-01 18:00')
+ORDER BY greatest(similarity(i.name, 'дрел'), similarity(i.description, 'дрел')) DESC, i.id
+LIMIT 10 OFFSET 0;
+
+-- Редкая подстрока: anti-join выполняется для единиц найденных предметов
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT i.* FROM items i
+WHERE i.is_available = true
+  AND (i.name ILIKE '%лобзик 4242%' OR i.description ILIKE '%лобзик 4242%')
+  AND NOT EXISTS (SELECT 1 FROM bookings b
+                  WHERE b.item_id = i.id AND b.status = 'APPROVED'
+                    AND b.start_date < '2030-02-03 20:00' AND b.end_date > '2030-02-01 18:00')
+ORDER BY greatest(similarity(i.name, 'лобзик 4242'), similarity(i.description, 'лобзик 4242')) DESC, i.id
+LIMIT 10 OFFSET 0;
+
+RESET search_path;
+DROP SCHEMA bench CASCADE;
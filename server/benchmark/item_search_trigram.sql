@@ -0,0 +1,75 @@
+-- Сравнение поиска предметов: текущий запрос LIKE против режима TRIGRAM (pg_trgm).
+--
+-- Запуск на базе, схема которой уже создана сервером (schema.sql + schema-postgres.sql):
+--   psql -h localhost -p 6541 -U root -d shareit -f server/benchmark/item_search_trigram.sql
+--
+-- Скрипт создает отдельную схему bench с копией таблицы items (включая индексы),
+-- наполняет ее 1 000 000 предметов и выполняет EXPLAIN ANALYZE для обоих запросов.
+
+\timing on
+
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+CREATE TABLE bench.items (LIKE public.items INCLUDING ALL);
+
+-- Свои последовательности, чтобы не расходовать id рабочих таблиц
+CREATE SEQUENCE bench.items_seq;
+ALTER TABLE bench.items ALTER COLUMN id SET DEFAULT nextval('bench.items_seq');
+
+INSERT INTO bench.items (name, description, is_available, owner_id)
+SELECT (ARRAY['Дрель', 'Отвертка', 'Шуруповерт', 'Перфоратор', 'Лобзик', 'Рубанок', 'Болгарка', 'Степлер',
+              'Пила', 'Молоток', 'Стремянка', 'Палатка', 'Велосипед', 'Самокат', 'Проектор'])
+           [1 + floor(random() * 15)::int] || ' ' || g,
+       (ARRAY['аккумуляторная', 'сетевой', 'ударная', 'строительный', 'садовая', 'туристическая', 'складная',
+              'профессиональный', 'компактный', 'бесщеточный'])[1 + floor(random() * 10)::int] || ' ' ||
+       (ARRAY['в отличном состоянии', 'с набором насадок', 'без зарядного устройства', 'с кейсом',
+              'почти новая', 'для дачи', 'для ремонта квартиры'])[1 + floor(random() * 7)::int],
+       random() < 0.9,
+       1
+FROM generate_series(1, 1000000) g;
+
+ANALYZE bench.items;
+
+-- public нужна для функций pg_trgm (similarity)
+SET search_path = bench, public;
+
+-- Частая подстрока внутри слова
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT i.* FROM items i
+WHERE i.is_available = true
+  AND (upper(i.name) LIKE upper('%дрел%') OR upper(i.description) LIKE upper('%дрел%'))
+LIMIT 10 OFFSET 0;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM items i
+WHERE i.is_available = true
+  AND (upper(i.name) LIKE upper('%дрел%') OR upper(i.description) LIKE upper('%дрел%'));
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT i.* FROM items i
+WHERE i.is_available = true
+  AND (i.name ILIKE '%дрел%' OR i.description ILIKE '%дрел%')
+ORDER BY greatest(similarity(i.name, 'дрел'), similarity(i.description, 'дрел')) DESC, i.id
+LIMIT 10 OFFSET 0;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM items i
+WHERE i.is_available = true
+  AND (i.name ILIKE '%дрел%' OR i.description ILIKE '%дрел%');
+
+-- Редкая подстрока (номер предмета в названии)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT i.* FROM items i
+WHERE i.is_available = true
+  AND (upper(i.name) LIKE upper('%лобзик 4242%') OR upper(i.description) LIKE upper('%лобзик 4242%'))
+LIMIT 10 OFFSET 0;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT i.* FROM items i
+WHERE i.is_available = true
+  AND (i.name ILIKE '%лобзик 4242%' OR i.description ILIKE '%лобзик 4242%')
+ORDER BY greatest(similarity(i.name, 'лобзик 4242'), similarity(i.description, 'лобзик 4242')) DESC, i.id
+LIMIT 10 OFFSET 0;
+
+RESET search_path;
+DROP SCHEMA bench CASCADE;
@@ -1,19 +1,36 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBulkDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingOutDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.user.service.UserService;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static ru.practicum.shareit.item.ItemController.AVAILABILITY_CACHE_TAG;
+import static ru.practicum.shareit.item.ItemController.TEXT_CSV_VALUE;
+import static ru.practicum.shareit.item.ItemController.X_CACHE_INVALIDATE;
 import static ru.practicum.shareit.item.ItemController.X_SHARED_USER_ID;
+import static ru.practicum.shareit.item.ItemController.X_TOTAL_COUNT;
+import static ru.practicum.shareit.item.ItemController.availabilityCacheTag;
 
 @Slf4j
 @RestController
@@ -21,7 +38,14 @@ import static ru.practicum.shareit.item.ItemController.X_SHARED_USER_ID;
 @RequestMapping(path = "/bookings")
 public class BookingController {
 
+    public static final String X_NEXT_CURSOR = "X-Next-Cursor";
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+    private static final String CSV_HEADER = "id,start,end,status,itemId,itemName,bookerId,bookerName";
+
     private final BookingService bookingService;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<BookingOutDto> addBooking(@RequestHeader(X_SHARED_USER_ID) Long userId,
@@ -38,7 +62,27 @@ public class BookingController {
                                         @RequestParam Boolean approved) {
         Booking booking = bookingService.approveBooking(ownerId, bookingId, approved);
         log.info("Пользователь {} реагирует на запрос вещи: {}", ownerId, bookingId);
-        return ResponseEntity.ok(BookingMapper.toBookingOutDto(booking));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (approved) {
+            response.header(X_CACHE_INVALIDATE, availabilityCacheTag(booking.getItem().getId()));
+        }
+        return response.body(BookingMapper.toBookingOutDto(booking));
+    }
+
+    @PatchMapping("/bulk")
+    public ResponseEntity<List<BookingDecisionDto>> decideBookings(@RequestHeader(X_SHARED_USER_ID) Long ownerId,
+                                                                   @RequestBody BookingBulkDecisionDto decisionDto) {
+        log.info("Пользователь {} реагирует на запросы вещей: {}, предмет: {}",
+                ownerId, decisionDto.getBookingIds(), decisionDto.getItemId());
+        List<BookingDecisionDto> decisions = bookingService.decideBookings(
+                ownerId, decisionDto.getBookingIds(), decisionDto.getItemId(), decisionDto.getApproved());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (Boolean.TRUE.equals(decisionDto.getApproved())) {
+            response.header(X_CACHE_INVALIDATE, decisionDto.getItemId() != null
+                    ? availabilityCacheTag(decisionDto.getItemId())
+                    : AVAILABILITY_CACHE_TAG);
+        }
+        return response.body(decisions);
     }
 
     @GetMapping("/{bookingId}")
@@ -53,20 +97,109 @@ public class BookingController {
     public ResponseEntity<List<BookingOutDto>> getAllUserBookings(@RequestHeader(X_SHARED_USER_ID) Long userId,
                                                   @RequestParam(defaultValue = "ALL") String state,
                                                   @RequestParam(defaultValue = "0") Integer from,
-                                                  @RequestParam(defaultValue = "10") Integer size) {
+                                                  @RequestParam(defaultValue = "10") Integer size,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "false") Boolean count) {
         log.info("Пользователь {} запросил список своих бронирований в статусе: {}", userId, state);
-        return ResponseEntity.ok(bookingService.getAllUserBookings(userId, state, from, size).stream()
-                .map(BookingMapper::toBookingOutDto)
-                .collect(Collectors.toList()));
+        List<Booking> bookings = cursor == null
+                ? bookingService.getAllUserBookings(userId, state, from, size + 1)
+                : bookingService.getUserBookingsAfter(userId, state, cursor, size + 1);
+        Long total = count ? bookingService.countUserBookings(userId, state) : null;
+        return toPageResponse(bookings, State.getEnumValue(state), size, total);
     }
 
     @GetMapping("/owner")
     public ResponseEntity<List<BookingOutDto>> getAllOwnerItemBookings(@RequestHeader(X_SHARED_USER_ID) Long userId,
                                                                        @RequestParam(defaultValue = "ALL") String state,
                                                                        @RequestParam(defaultValue = "0") Integer from,
-                                                                       @RequestParam(defaultValue = "10") Integer size) {
+                                                                       @RequestParam(defaultValue = "10") Integer size,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(defaultValue = "false") Boolean count) {
         log.info("Пользователь {} запросил список своих вещей в статусе бронирования: {}", userId, state);
-        return ResponseEntity.ok(bookingService.getAllOwnerItemBookings(userId, state, from, size).stream()
+        List<Booking> bookings = cursor == null
+                ? bookingService.getAllOwnerItemBookings(userId, state, from, size + 1)
+                : bookingService.getOwnerItemBookingsAfter(userId, state, cursor, size + 1);
+        Long total = count ? bookingService.countOwnerItemBookings(userId, state) : null;
+        return toPageResponse(bookings, State.getEnumValue(state), size, total);
+    }
+
+    @GetMapping(value = "/owner/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportOwnerItemBookings(
+            @RequestHeader(X_SHARED_USER_ID) Long userId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        userService.checkUser(userId);
+        boolean csv = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(TEXT_CSV::equalsTypeAndSubtype);
+        log.info("Пользователь {} выгружает историю бронирований своих вещей", userId);
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            if (csv) {
+                writeLine(writer, CSV_HEADER);
+            }
+            bookingService.exportOwnerItemBookings(userId, booking -> writeLine(writer, csv
+                    ? toCsvLine(booking)
+                    : toJsonLine(booking)));
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private String toJsonLine(Booking booking) {
+        try {
+            return objectMapper.writeValueAsString(BookingMapper.toBookingOutDto(booking));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toCsvLine(Booking booking) {
+        return String.join(",",
+                String.valueOf(booking.getId()),
+                booking.getStart().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                booking.getEnd().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                booking.getStatus().name(),
+                String.valueOf(booking.getItem().getId()),
+                toCsvField(booking.getItem().getName()),
+                String.valueOf(booking.getBooker().getId()),
+                toCsvField(booking.getBooker().getName()));
+    }
+
+    private static String toCsvField(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static void writeLine(Writer writer, String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Сервис запрашивается на одно бронирование больше страницы: курсор следующей страницы отдается,
+     * только если это лишнее бронирование нашлось, чтобы клиент не делал запрос за пустой страницей.
+     */
+    private ResponseEntity<List<BookingOutDto>> toPageResponse(List<Booking> bookings, State state,
+                                                               Integer size, Long total) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (total != null) {
+            response.header(X_TOTAL_COUNT, String.valueOf(total));
+        }
+        List<Booking> page = bookings;
+        if (bookings.size() > size) {
+            page = bookings.subList(0, size);
+        }
+        if (!page.isEmpty() && page.size() < bookings.size()) {
+            response.header(X_NEXT_CURSOR, BookingCursor.of(state, page.get(page.size() - 1)).encode());
+        }
+        return response.body(page.stream()
                 .map(BookingMapper::toBookingOutDto)
                 .collect(Collectors.toList()));
     }
@@ -0,0 +1,181 @@
+package ru.practicum.shareit.booking.availability;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Slf4j
+@Component
+public class BookingAvailabilityIndex {
+
+    private static final Set<Status> INDEXED_STATUSES = EnumSet.of(Status.APPROVED, Status.WAITING);
+    private static final Comparator<BookingRange> BY_START = Comparator.comparing(BookingRange::getStart)
+            .thenComparing(BookingRange::getId);
+
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+    private final Map<Long, ItemBookings> items;
+
+    private long modifications;
+
+    public BookingAvailabilityIndex(BookingRepository bookingRepository,
+                                    @Value("${shareit.booking.availability-index.enabled:false}") boolean enabled,
+                                    @Value("${shareit.booking.availability-index.max-items:10000}") int maxItems) {
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+        this.items = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ItemBookings> eldest) {
+                return size() > maxItems;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean hasApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemBookings bookings = getOrLoad(itemId);
+        synchronized (this) {
+            return bookings.hasApprovedOverlap(start, end);
+        }
+    }
+
+    public List<BookingRange> findOverlapping(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemBookings bookings = getOrLoad(itemId);
+        synchronized (this) {
+            return bookings.findOverlapping(start, end);
+        }
+    }
+
+    public void update(Booking booking) {
+        if (!enabled) {
+            return;
+        }
+        update(booking.getItem().getId(),
+                new BookingRange(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus()));
+    }
+
+    /**
+     * Вариант для массовых изменений, после которых сущности бронирований уже отсоединены.
+     */
+    public void update(Long itemId, BookingRange range) {
+        if (enabled) {
+            afterCommit(() -> apply(itemId, range));
+        }
+    }
+
+    /**
+     * Забывает бронирования предметов, удаленные в базе каскадом, например вместе с арендатором.
+     * Предметы будут загружены заново при следующем обращении.
+     */
+    public void evictAll(Collection<Long> itemIds) {
+        if (enabled && !itemIds.isEmpty()) {
+            afterCommit(() -> evict(itemIds));
+        }
+    }
+
+    private synchronized void apply(Long itemId, BookingRange range) {
+        modifications++;
+        ItemBookings bookings = items.get(itemId);
+        if (bookings != null) {
+            bookings.remove(range.getId());
+            bookings.add(range);
+        }
+    }
+
+    private synchronized void evict(Collection<Long> itemIds) {
+        modifications++;
+        itemIds.forEach(items::remove);
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private ItemBookings getOrLoad(Long itemId) {
+        long observedModifications;
+        synchronized (this) {
+            ItemBookings cached = items.get(itemId);
+            if (cached != null) {
+                return cached;
+            }
+            observedModifications = modifications;
+        }
+
+        ItemBookings loaded = new ItemBookings();
+        bookingRepository.findAllByItemIdAndStatusIn(itemId, INDEXED_STATUSES).forEach(booking -> loaded.add(
+                new BookingRange(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus())));
+
+        synchronized (this) {
+            if (modifications == observedModifications) {
+                items.put(itemId, loaded);
+            } else {
+                log.debug("Бронирования предмета {} изменились во время загрузки, индекс не обновлен", itemId);
+            }
+            return loaded;
+        }
+    }
+
+    private static final class ItemBookings {
+
+        private final IntervalTree approved = new IntervalTree(BY_START);
+        private final IntervalTree waiting = new IntervalTree(BY_START);
+        private final Map<Long, BookingRange> byId = new HashMap<>();
+
+        private void add(BookingRange range) {
+            if (!INDEXED_STATUSES.contains(range.getStatus())) {
+                return;
+            }
+            if (range.getStatus() == Status.APPROVED) {
+                approved.add(range);
+            } else {
+                waiting.add(range);
+            }
+            byId.put(range.getId(), range);
+        }
+
+        private void remove(Long bookingId) {
+            BookingRange range = byId.remove(bookingId);
+            if (range == null) {
+                return;
+            }
+            if (range.getStatus() == Status.APPROVED) {
+                approved.remove(range);
+            } else {
+                waiting.remove(range);
+            }
+        }
+
+        private boolean hasApprovedOverlap(LocalDateTime start, LocalDateTime end) {
+            return approved.hasOverlap(start, end);
+        }
+
+        private List<BookingRange> findOverlapping(LocalDateTime start, LocalDateTime end) {
+            List<BookingRange> result = new ArrayList<>();
+            approved.collectOverlapping(start, end, result);
+            waiting.collectOverlapping(start, end, result);
+            result.sort(BY_START);
+            return result;
+        }
+    }
+
+}
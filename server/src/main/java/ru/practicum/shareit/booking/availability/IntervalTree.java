@@ -0,0 +1,184 @@
+package ru.practicum.shareit.booking.availability;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Сбалансированное (AVL) дерево бронирований по началу, в каждом узле хранится наибольшее окончание в поддереве.
+ * Поиск любого пересечения - O(log n), поиск всех k пересечений - O((k + 1) log n), даже если периоды
+ * пересекаются между собой. Периоды полуоткрытые: [start, end).
+ */
+class IntervalTree {
+
+    private final Comparator<BookingRange> order;
+    private Node root;
+    private int size;
+
+    IntervalTree(Comparator<BookingRange> order) {
+        this.order = order;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(BookingRange range) {
+        root = insert(root, range);
+    }
+
+    void remove(BookingRange range) {
+        root = delete(root, range);
+    }
+
+    boolean hasOverlap(LocalDateTime start, LocalDateTime end) {
+        Node node = root;
+        while (node != null) {
+            if (node.range.overlaps(start, end)) {
+                return true;
+            }
+            if (node.left != null && node.left.maxEnd.isAfter(start)) {
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return false;
+    }
+
+    void collectOverlapping(LocalDateTime start, LocalDateTime end, List<BookingRange> result) {
+        collect(root, start, end, result);
+    }
+
+    private static void collect(Node node, LocalDateTime start, LocalDateTime end, List<BookingRange> result) {
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return;
+        }
+        collect(node.left, start, end, result);
+        if (!node.range.getStart().isBefore(end)) {
+            return;
+        }
+        if (node.range.overlaps(start, end)) {
+            result.add(node.range);
+        }
+        collect(node.right, start, end, result);
+    }
+
+    private Node insert(Node node, BookingRange range) {
+        if (node == null) {
+            size++;
+            return new Node(range);
+        }
+        int compared = order.compare(range, node.range);
+        if (compared < 0) {
+            node.left = insert(node.left, range);
+        } else if (compared > 0) {
+            node.right = insert(node.right, range);
+        } else {
+            node.range = range;
+        }
+        return balance(node);
+    }
+
+    private Node delete(Node node, BookingRange range) {
+        if (node == null) {
+            return null;
+        }
+        int compared = order.compare(range, node.range);
+        if (compared < 0) {
+            node.left = delete(node.left, range);
+        } else if (compared > 0) {
+            node.right = delete(node.right, range);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.range = successor.range;
+            node.right = deleteMin(node.right);
+        }
+        return balance(node);
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        LocalDateTime maxEnd = node.range.getEnd();
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static final class Node {
+
+        private BookingRange range;
+        private LocalDateTime maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        private Node(BookingRange range) {
+            this.range = range;
+            this.maxEnd = range.getEnd();
+        }
+    }
+
+}
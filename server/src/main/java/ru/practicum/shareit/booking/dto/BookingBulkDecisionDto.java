@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class BookingBulkDecisionDto {
+
+    private List<Long> bookingIds;
+
+    private Long itemId;
+
+    private Boolean approved;
+
+}
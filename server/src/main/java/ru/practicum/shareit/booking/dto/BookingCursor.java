@@ -0,0 +1,80 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Позиция в списке бронирований: start и id последнего выданного бронирования. Курсор помнит состояние
+ * и направление сортировки списка, для которого выдан, и не принимается для другого состояния.
+ */
+@Value
+public class BookingCursor {
+
+    /**
+     * Граничные даты первой страницы: позже и раньше любого бронирования и при этом
+     * представимы в БД (LocalDateTime.MAX/MIN выходят за пределы timestamp).
+     */
+    public static final LocalDateTime LATEST_START = LocalDateTime.of(9999, 12, 31, 0, 0);
+    public static final LocalDateTime EARLIEST_START = LocalDateTime.of(1, 1, 1, 0, 0);
+
+    private static final String SEPARATOR = "|";
+
+    private State state;
+
+    private Sort.Direction direction;
+
+    private LocalDateTime start;
+
+    private Long id;
+
+    /**
+     * Текущие бронирования идут по возрастанию начала, остальные - по убыванию.
+     */
+    public static Sort.Direction directionOf(State state) {
+        return state == State.CURRENT ? Sort.Direction.ASC : Sort.Direction.DESC;
+    }
+
+    public static BookingCursor first(State state) {
+        Sort.Direction direction = directionOf(state);
+        return direction.isAscending()
+                ? new BookingCursor(state, direction, EARLIEST_START, 0L)
+                : new BookingCursor(state, direction, LATEST_START, Long.MAX_VALUE);
+    }
+
+    public static BookingCursor of(State state, Booking booking) {
+        return new BookingCursor(state, directionOf(state), booking.getStart(), booking.getId());
+    }
+
+    public String encode() {
+        String value = String.join(SEPARATOR, state.name(), direction.name(), start.toString(), id.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookingCursor decode(String cursor, State state) {
+        BookingCursor decoded;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException();
+            }
+            decoded = new BookingCursor(State.valueOf(parts[0]), Sort.Direction.valueOf(parts[1]),
+                    LocalDateTime.parse(parts[2]), Long.parseLong(parts[3]));
+        } catch (RuntimeException e) {
+            throw new ValidationException("Некорректный курсор: " + cursor);
+        }
+        if (decoded.state != state || decoded.direction != directionOf(state)) {
+            throw new ValidationException(String.format("Курсор выдан для состояния %s, а запрошено %s",
+                    decoded.state, state));
+        }
+        return decoded;
+    }
+
+}
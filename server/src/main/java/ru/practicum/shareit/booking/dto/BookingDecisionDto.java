@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.model.DecisionOutcome;
+import ru.practicum.shareit.booking.model.Status;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class BookingDecisionDto {
+
+    private Long bookingId;
+
+    private DecisionOutcome outcome;
+
+    private Status status;
+
+}
@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy =  GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "start_date", nullable = false)
@@ -41,4 +42,8 @@ public class Booking {
     @Column(name = "status", nullable = false)
     private Status status;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
 }
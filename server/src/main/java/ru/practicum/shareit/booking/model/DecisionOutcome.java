@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.model;
+
+public enum DecisionOutcome {
+    UPDATED,
+    NOT_FOUND,
+    ALREADY_DECIDED,
+    OVERLAP
+}
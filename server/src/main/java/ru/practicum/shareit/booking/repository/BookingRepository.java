@@ -1,42 +1,224 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    Page<Booking> findAllByBookerIdOrderByStartDesc(Long bookerId, Pageable pageable);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Slice<Booking> findAllByBookerIdOrderByStartDescIdDesc(Long bookerId, Pageable pageable);
 
-    Page<Booking> findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartAsc(
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Slice<Booking> findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartAscIdAsc(
             Long bookerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
 
-    Page<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Slice<Booking> findAllByBookerIdAndEndBeforeOrderByStartDescIdDesc(
             Long bookerId, LocalDateTime dateTime, Pageable pageable);
 
-    Page<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Slice<Booking> findAllByBookerIdAndStartAfterOrderByStartDescIdDesc(
             Long bookerId, LocalDateTime dateTime, Pageable pageable);
 
-    Page<Booking> findAllByBookerIdAndStatusOrderByStartDesc(
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Slice<Booking> findAllByBookerIdAndStatusOrderByStartDescIdDesc(
             Long bookerId, Status status, Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerIdOrderByStartDesc(Long ownerId, Pageable pageable);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Slice<Booking> findAllByItemOwnerIdOrderByStartDescIdDesc(Long ownerId, Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartAsc(
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Slice<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartAscIdAsc(
             Long ownerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Slice<Booking> findAllByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(
             Long ownerId, LocalDateTime dateTime, Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerIdAndStartAfterOrderByStartDesc(
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Slice<Booking> findAllByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(
             Long ownerId, LocalDateTime dateTime, Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerIdAndStatusOrderByStartDesc(Long ownerId, Status status, Pageable pageable);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Slice<Booking> findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(Long ownerId, Status status, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    Stream<Booking> streamAllByItemOwnerIdOrderByStartDescIdDesc(Long ownerId);
+
+    @Query("select distinct b.item.id from Booking b where b.booker.id = ?1")
+    List<Long> findItemIdsByBookerId(Long bookerId);
+
+    long countByBookerId(Long bookerId);
+
+    long countByBookerIdAndStartBeforeAndEndAfter(Long bookerId, LocalDateTime start, LocalDateTime end);
+
+    long countByBookerIdAndEndBefore(Long bookerId, LocalDateTime dateTime);
+
+    long countByBookerIdAndStartAfter(Long bookerId, LocalDateTime dateTime);
+
+    long countByBookerIdAndStatus(Long bookerId, Status status);
+
+    long countByItemOwnerId(Long ownerId);
+
+    long countByItemOwnerIdAndStartBeforeAndEndAfter(Long ownerId, LocalDateTime start, LocalDateTime end);
+
+    long countByItemOwnerIdAndEndBefore(Long ownerId, LocalDateTime dateTime);
+
+    long countByItemOwnerIdAndStartAfter(Long ownerId, LocalDateTime dateTime);
+
+    long countByItemOwnerIdAndStatus(Long ownerId, Status status);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b " +
+            "where b.booker.id = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllByBookerIdAfterCursor(
+            Long bookerId, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b " +
+            "where b.booker.id = ?1 and b.start < ?2 and b.end > ?2 " +
+            "and (b.start > ?3 or (b.start = ?3 and b.id > ?4)) " +
+            "order by b.start asc, b.id asc")
+    List<Booking> findCurrentByBookerIdAfterCursor(
+            Long bookerId, LocalDateTime dateTime, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b " +
+            "where b.booker.id = ?1 and b.end < ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findPastByBookerIdAfterCursor(
+            Long bookerId, LocalDateTime dateTime, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b " +
+            "where b.booker.id = ?1 and b.start > ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findFutureByBookerIdAfterCursor(
+            Long bookerId, LocalDateTime dateTime, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b " +
+            "where b.booker.id = ?1 and b.status = ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllByBookerIdAndStatusAfterCursor(
+            Long bookerId, Status status, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b " +
+            "where b.item.owner.id = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllByItemOwnerIdAfterCursor(
+            Long ownerId, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b " +
+            "where b.item.owner.id = ?1 and b.start < ?2 and b.end > ?2 " +
+            "and (b.start > ?3 or (b.start = ?3 and b.id > ?4)) " +
+            "order by b.start asc, b.id asc")
+    List<Booking> findCurrentByItemOwnerIdAfterCursor(
+            Long ownerId, LocalDateTime dateTime, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b " +
+            "where b.item.owner.id = ?1 and b.end < ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findPastByItemOwnerIdAfterCursor(
+            Long ownerId, LocalDateTime dateTime, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b " +
+            "where b.item.owner.id = ?1 and b.start > ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findFutureByItemOwnerIdAfterCursor(
+            Long ownerId, LocalDateTime dateTime, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b " +
+            "where b.item.owner.id = ?1 and b.status = ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllByItemOwnerIdAndStatusAfterCursor(
+            Long ownerId, Status status, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findWithItemAndBookerById(Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b " +
+            "set b.status = ru.practicum.shareit.booking.model.Status.APPROVED, b.version = b.version + 1 " +
+            "where b.id = ?1 and b.status = ru.practicum.shareit.booking.model.Status.WAITING " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = ?2) " +
+            "and not exists (select ab.id from Booking ab " +
+            "where ab.item.id = b.item.id and ab.status = ru.practicum.shareit.booking.model.Status.APPROVED " +
+            "and ab.start < b.end and ab.end > b.start)")
+    int approveIfWaiting(Long bookingId, Long ownerId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b " +
+            "set b.status = ru.practicum.shareit.booking.model.Status.REJECTED, b.version = b.version + 1 " +
+            "where b.id = ?1 and b.status = ru.practicum.shareit.booking.model.Status.WAITING " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = ?2)")
+    int rejectIfWaiting(Long bookingId, Long ownerId);
+
+    @Query("select distinct b.item.id from Booking b where b.id in ?1 and b.item.owner.id = ?2")
+    List<Long> findItemIdsByIdInAndItemOwnerId(Collection<Long> ids, Long ownerId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b where b.id in ?1 and b.item.owner.id = ?2 order by b.id")
+    List<Booking> findAllByIdInAndItemOwnerIdForUpdate(Collection<Long> ids, Long ownerId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b where b.item.id = ?1 and b.status = ?2 order by b.id")
+    List<Booking> findAllByItemIdAndStatusForUpdate(Long itemId, Status status);
+
+    @Query("select b.id from Booking b " +
+            "where b.id in ?1 " +
+            "and exists (select ab.id from Booking ab " +
+            "where ab.item.id = b.item.id and ab.status = ru.practicum.shareit.booking.model.Status.APPROVED " +
+            "and ab.start < b.end and ab.end > b.start)")
+    List<Long> findIdsOverlappingApproved(Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b " +
+            "set b.status = ?2, b.version = b.version + 1 " +
+            "where b.id in ?1 and b.status = ru.practicum.shareit.booking.model.Status.WAITING")
+    int updateStatusIfWaiting(Collection<Long> ids, Status status);
+
+    List<Booking> findAllByItemIdAndStatusAndStartBeforeAndEndAfterOrderByStartAsc(
+            Long itemId, Status status, LocalDateTime end, LocalDateTime start);
+
+    List<Booking> findAllByItemIdAndStatusIn(Long itemId, Collection<Status> statuses);
+
+    boolean existsByItemIdAndStatusAndStartBeforeAndEndAfter(
+            Long itemId, Status status, LocalDateTime end, LocalDateTime start);
 
     Optional<Booking> findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(
             Long itemId,
@@ -48,6 +230,20 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             Status status,
             LocalDateTime dateTime);
 
+    long countByItemIdAndStatusAndStartBefore(Long itemId, Status status, LocalDateTime dateTime);
+
+    @Query("select b from Booking b " +
+            "where b.item.id in ?1 and b.status = ?2 and b.start < ?3 " +
+            "and b.start = (select max(lb.start) from Booking lb " +
+            "where lb.item.id = b.item.id and lb.status = ?2 and lb.start < ?3)")
+    List<Booking> findLastBookingsByItemIds(Collection<Long> itemIds, Status status, LocalDateTime dateTime);
+
+    @Query("select b from Booking b " +
+            "where b.item.id in ?1 and b.status = ?2 and b.start > ?3 " +
+            "and b.start = (select min(nb.start) from Booking nb " +
+            "where nb.item.id = b.item.id and nb.status = ?2 and nb.start > ?3)")
+    List<Booking> findNextBookingsByItemIds(Collection<Long> itemIds, Status status, LocalDateTime dateTime);
+
     Optional<Booking> findFirstByItemIdAndBookerIdAndStatusAndEndBefore(
             Long itemId,
             Long userId,
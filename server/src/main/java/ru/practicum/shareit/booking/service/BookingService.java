@@ -1,8 +1,10 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.model.Booking;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
 
@@ -10,12 +12,24 @@ public interface BookingService {
 
     Booking approveBooking(Long ownerId, Long bookingId, Boolean approved);
 
+    List<BookingDecisionDto> decideBookings(Long ownerId, List<Long> bookingIds, Long itemId, Boolean approved);
+
     Booking getBooking(Long userId, Long bookingId);
 
     List<Booking> getAllUserBookings(Long userId, String state, Integer from, Integer size);
 
     List<Booking> getAllOwnerItemBookings(Long userId, String state, Integer from, Integer size);
 
+    void exportOwnerItemBookings(Long userId, Consumer<Booking> consumer);
+
+    List<Booking> getUserBookingsAfter(Long userId, String state, String cursor, Integer size);
+
+    List<Booking> getOwnerItemBookingsAfter(Long userId, String state, String cursor, Integer size);
+
+    long countUserBookings(Long userId, String state);
+
+    long countOwnerItemBookings(Long userId, String state);
+
     Booking getById(Long id);
 
 }
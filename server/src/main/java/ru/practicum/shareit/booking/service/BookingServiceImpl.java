@@ -1,35 +1,59 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.availability.BookingRange;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.DecisionOutcome;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BookingOverlapException;
 import ru.practicum.shareit.exception.DataNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.OffsetBasedPageRequest;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.service.UserService;
 
+
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
 
+    private static final String EXCLUSION_VIOLATION_SQL_STATE = "23P01";
+    /**
+     * Выгрузка очищает контекст персистентности через столько строк: бронирования вместе с их предметами
+     * и арендаторами не должны копиться в нем до конца выгрузки.
+     */
+    private static final int EXPORT_CLEAR_INTERVAL = 500;
+
     private final BookingRepository bookingRepository;
     private final UserService userService;
     private final ItemService itemService;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final EntityManager entityManager;
 
     @Override
+    @Transactional
     public Booking addBooking(Long userId, Long itemId, Booking booking) {
-        Item item = itemService.getById(itemId);
+        Item item = itemService.getByIdForUpdate(itemId);
         User user = userService.getById(userId);
         if (!item.getAvailable()) {
             throw new ValidationException(String.format("Предмет %s сейчас недоступен для брони", item.getName()));
@@ -40,31 +64,106 @@ public class BookingServiceImpl implements BookingService {
         if (booking.getStart().isAfter(booking.getEnd()) || booking.getStart().isEqual(booking.getEnd())) {
             throw new ValidationException("Дата окончания брони не может быть раньше или совпадать с датой начала");
         }
+        if (hasApprovedOverlap(itemId, booking)) {
+            throw new BookingOverlapException(
+                    String.format("Предмет %s уже забронирован на пересекающийся период", item.getName()));
+        }
         booking.setItem(item);
         booking.setBooker(user);
-        return bookingRepository.save(booking);
+        Booking savedBooking = bookingRepository.save(booking);
+        availabilityIndex.update(savedBooking);
+        return savedBooking;
     }
 
     @Override
+    @Transactional
     public Booking approveBooking(Long ownerId, Long bookingId, Boolean approved) {
-        checkUser(ownerId);
-        Booking booking = getById(bookingId);
-        if (!Objects.equals(booking.getItem().getOwner().getId(), ownerId)) {
-            throw new DataNotFoundException(
-                    String.format("Пользователь %s не владелец предмета бронирования", ownerId));
-        }
-        if (booking.getStatus().equals(Status.APPROVED)) {
-            throw new ValidationException("Бронирование уже подтверждено");
-        }
+        int updated = 0;
         if (approved) {
-            booking.setStatus(Status.APPROVED);
+            if (itemService.lockForApproval(bookingId, ownerId)) {
+                updated = approveIfWaiting(ownerId, bookingId);
+            }
         } else {
-            booking.setStatus(Status.REJECTED);
+            updated = bookingRepository.rejectIfWaiting(bookingId, ownerId);
+        }
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId)
+                .orElseThrow(() -> new DataNotFoundException(
+                        String.format("Не найдено бронирование c id: %s", bookingId)));
+        if (updated == 0) {
+            throw approvalFailure(ownerId, booking);
         }
-        bookingRepository.save(booking);
+        availabilityIndex.update(booking);
         return booking;
     }
 
+    @Override
+    @Transactional
+    public List<BookingDecisionDto> decideBookings(Long ownerId, List<Long> bookingIds, Long itemId,
+                                                   Boolean approved) {
+        boolean byIds = bookingIds != null && !bookingIds.isEmpty();
+        if (byIds == (itemId != null) || approved == null) {
+            throw new ValidationException("Нужно указать решение и либо список бронирований, либо предмет");
+        }
+        List<Booking> bookings;
+        List<Long> requestedIds;
+        if (byIds) {
+            requestedIds = bookingIds.stream().distinct().collect(Collectors.toList());
+            itemService.getAllByIdsForUpdate(ownerId,
+                    bookingRepository.findItemIdsByIdInAndItemOwnerId(requestedIds, ownerId));
+            bookings = bookingRepository.findAllByIdInAndItemOwnerIdForUpdate(requestedIds, ownerId);
+        } else {
+            if (itemService.getAllByIdsForUpdate(ownerId, List.of(itemId)).isEmpty()) {
+                throw new DataNotFoundException(
+                        String.format("У пользователя %s не найден предмет c id: %s", ownerId, itemId));
+            }
+            bookings = bookingRepository.findAllByItemIdAndStatusForUpdate(itemId, Status.WAITING);
+            requestedIds = bookings.stream().map(Booking::getId).collect(Collectors.toList());
+        }
+
+        Map<Long, Booking> byId = bookings.stream()
+                .collect(Collectors.toMap(Booking::getId, booking -> booking));
+        Set<Long> overlapping = new HashSet<>();
+        if (approved && !byId.isEmpty()) {
+            overlapping.addAll(bookingRepository.findIdsOverlappingApproved(byId.keySet()));
+        }
+
+        Status newStatus = approved ? Status.APPROVED : Status.REJECTED;
+        List<BookingDecisionDto> decisions = new ArrayList<>();
+        List<Booking> accepted = new ArrayList<>();
+        for (Long id : requestedIds) {
+            Booking booking = byId.get(id);
+            if (booking == null) {
+                decisions.add(new BookingDecisionDto(id, DecisionOutcome.NOT_FOUND, null));
+            } else if (booking.getStatus() != Status.WAITING) {
+                decisions.add(new BookingDecisionDto(id, DecisionOutcome.ALREADY_DECIDED, booking.getStatus()));
+            } else if (approved && (overlapping.contains(id) || overlapsAny(booking, accepted))) {
+                decisions.add(new BookingDecisionDto(id, DecisionOutcome.OVERLAP, booking.getStatus()));
+            } else {
+                accepted.add(booking);
+                decisions.add(new BookingDecisionDto(id, DecisionOutcome.UPDATED, newStatus));
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            // updateStatusIfWaiting очищает контекст персистентности, поэтому все нужное для индекса
+            // и версий предметов берется из бронирований до запроса, а не из отсоединенных сущностей.
+            List<Long> acceptedIds = new ArrayList<>(accepted.size());
+            Set<Long> acceptedItemIds = new HashSet<>();
+            for (Booking booking : accepted) {
+                acceptedIds.add(booking.getId());
+                acceptedItemIds.add(booking.getItem().getId());
+                availabilityIndex.update(booking.getItem().getId(),
+                        new BookingRange(booking.getId(), booking.getStart(), booking.getEnd(), newStatus));
+            }
+            translateOverlap(() -> bookingRepository.updateStatusIfWaiting(acceptedIds, newStatus),
+                    "Подтверждаемые бронирования пересекаются с уже подтвержденными");
+            if (approved) {
+                itemService.incrementVersion(acceptedItemIds);
+            }
+        }
+        return decisions;
+    }
+
     @Override
     public Booking getBooking(Long userId, Long bookingId) {
         checkUser(userId);
@@ -86,39 +185,39 @@ public class BookingServiceImpl implements BookingService {
         State bookingState = State.getEnumValue(state);
         switch (bookingState) {
             case ALL:
-                bookings = bookingRepository.findAllByBookerIdOrderByStartDesc(
-                        userId, PageRequest.of(from / size, size)).toList();
+                bookings = bookingRepository.findAllByBookerIdOrderByStartDescIdDesc(
+                        userId, new OffsetBasedPageRequest(from, size)).getContent();
                 break;
             case CURRENT:
-                bookings = bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartAsc(
+                bookings = bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartAscIdAsc(
                         userId,
                         LocalDateTime.now(),
                         LocalDateTime.now(),
-                        PageRequest.of(from / size, size)).toList();
+                        new OffsetBasedPageRequest(from, size)).getContent();
                 break;
             case PAST:
-                bookings = bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(
+                bookings = bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDescIdDesc(
                         userId,
                         LocalDateTime.now(),
-                        PageRequest.of(from / size, size)).toList();
+                        new OffsetBasedPageRequest(from, size)).getContent();
                 break;
             case FUTURE:
-                bookings = bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(
+                bookings = bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDescIdDesc(
                         userId,
                         LocalDateTime.now(),
-                        PageRequest.of(from / size, size)).toList();
+                        new OffsetBasedPageRequest(from, size)).getContent();
                 break;
             case WAITING:
-                bookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(
+                bookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDescIdDesc(
                         userId,
                         Status.WAITING,
-                        PageRequest.of(from / size, size)).toList();
+                        new OffsetBasedPageRequest(from, size)).getContent();
                 break;
             case REJECTED:
-                bookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(
+                bookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDescIdDesc(
                         userId,
                         Status.REJECTED,
-                        PageRequest.of(from / size, size)).toList();
+                        new OffsetBasedPageRequest(from, size)).getContent();
                 break;
 
         }
@@ -127,55 +226,197 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<Booking> getAllOwnerItemBookings(Long userId, String state, Integer from, Integer size) {
-        checkUser(userId);
-        int fromForOwnerItemsCheck = 0;
-        if (itemService.getOwnerItems(userId, fromForOwnerItemsCheck, size).isEmpty()) {
-            throw new ValidationException(
-                    String.format("Не найдены предметы для бронирования у пользователя c id: %s", userId));
-        }
+        checkOwnerHasItems(userId, size);
         List<Booking> bookings = new ArrayList<>();
 
         State bookingState = State.getEnumValue(state);
         switch (bookingState) {
             case ALL:
-                bookings = bookingRepository.findAllByItemOwnerIdOrderByStartDesc(
-                        userId, PageRequest.of(from / size, size)).toList();
+                bookings = bookingRepository.findAllByItemOwnerIdOrderByStartDescIdDesc(
+                        userId, new OffsetBasedPageRequest(from, size)).getContent();
                 break;
             case CURRENT:
-                bookings = bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartAsc(
+                bookings = bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartAscIdAsc(
                         userId,
                         LocalDateTime.now(),
                         LocalDateTime.now(),
-                        PageRequest.of(from / size, size)).toList();
+                        new OffsetBasedPageRequest(from, size)).getContent();
                 break;
             case PAST:
-                bookings = bookingRepository.findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(
+                bookings = bookingRepository.findAllByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(
                         userId,
                         LocalDateTime.now(),
-                        PageRequest.of(from / size, size)).toList();
+                        new OffsetBasedPageRequest(from, size)).getContent();
                 break;
             case FUTURE:
-                bookings = bookingRepository.findAllByItemOwnerIdAndStartAfterOrderByStartDesc(
+                bookings = bookingRepository.findAllByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(
                         userId,
                         LocalDateTime.now(),
-                        PageRequest.of(from / size, size)).toList();
+                        new OffsetBasedPageRequest(from, size)).getContent();
                 break;
             case WAITING:
-                bookings = bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(
+                bookings = bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(
                         userId,
                         Status.WAITING,
-                        PageRequest.of(from / size, size)).toList();
+                        new OffsetBasedPageRequest(from, size)).getContent();
                 break;
             case REJECTED:
-                bookings = bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(
+                bookings = bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(
                         userId,
                         Status.REJECTED,
-                        PageRequest.of(from / size, size)).toList();
+                        new OffsetBasedPageRequest(from, size)).getContent();
+                break;
+        }
+        return bookings;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOwnerItemBookings(Long userId, Consumer<Booking> consumer) {
+        checkUser(userId);
+        try (Stream<Booking> bookings = bookingRepository.streamAllByItemOwnerIdOrderByStartDescIdDesc(userId)) {
+            Iterator<Booking> iterator = bookings.iterator();
+            for (long exported = 1; iterator.hasNext(); exported++) {
+                consumer.accept(iterator.next());
+                if (exported % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Booking> getUserBookingsAfter(Long userId, String state, String cursor, Integer size) {
+        checkUser(userId);
+        List<Booking> bookings = new ArrayList<>();
+
+        State bookingState = State.getEnumValue(state);
+        BookingCursor after = getCursor(cursor, bookingState);
+        PageRequest page = PageRequest.of(0, size);
+        switch (bookingState) {
+            case ALL:
+                bookings = bookingRepository.findAllByBookerIdAfterCursor(
+                        userId, after.getStart(), after.getId(), page);
+                break;
+            case CURRENT:
+                bookings = bookingRepository.findCurrentByBookerIdAfterCursor(
+                        userId, LocalDateTime.now(), after.getStart(), after.getId(), page);
+                break;
+            case PAST:
+                bookings = bookingRepository.findPastByBookerIdAfterCursor(
+                        userId, LocalDateTime.now(), after.getStart(), after.getId(), page);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findFutureByBookerIdAfterCursor(
+                        userId, LocalDateTime.now(), after.getStart(), after.getId(), page);
+                break;
+            case WAITING:
+                bookings = bookingRepository.findAllByBookerIdAndStatusAfterCursor(
+                        userId, Status.WAITING, after.getStart(), after.getId(), page);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.findAllByBookerIdAndStatusAfterCursor(
+                        userId, Status.REJECTED, after.getStart(), after.getId(), page);
+                break;
+        }
+        return bookings;
+    }
+
+    @Override
+    public List<Booking> getOwnerItemBookingsAfter(Long userId, String state, String cursor, Integer size) {
+        checkOwnerHasItems(userId, size);
+        List<Booking> bookings = new ArrayList<>();
+
+        State bookingState = State.getEnumValue(state);
+        BookingCursor after = getCursor(cursor, bookingState);
+        PageRequest page = PageRequest.of(0, size);
+        switch (bookingState) {
+            case ALL:
+                bookings = bookingRepository.findAllByItemOwnerIdAfterCursor(
+                        userId, after.getStart(), after.getId(), page);
+                break;
+            case CURRENT:
+                bookings = bookingRepository.findCurrentByItemOwnerIdAfterCursor(
+                        userId, LocalDateTime.now(), after.getStart(), after.getId(), page);
+                break;
+            case PAST:
+                bookings = bookingRepository.findPastByItemOwnerIdAfterCursor(
+                        userId, LocalDateTime.now(), after.getStart(), after.getId(), page);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findFutureByItemOwnerIdAfterCursor(
+                        userId, LocalDateTime.now(), after.getStart(), after.getId(), page);
+                break;
+            case WAITING:
+                bookings = bookingRepository.findAllByItemOwnerIdAndStatusAfterCursor(
+                        userId, Status.WAITING, after.getStart(), after.getId(), page);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.findAllByItemOwnerIdAndStatusAfterCursor(
+                        userId, Status.REJECTED, after.getStart(), after.getId(), page);
                 break;
         }
         return bookings;
     }
 
+    @Override
+    public long countUserBookings(Long userId, String state) {
+        long count = 0;
+
+        State bookingState = State.getEnumValue(state);
+        switch (bookingState) {
+            case ALL:
+                count = bookingRepository.countByBookerId(userId);
+                break;
+            case CURRENT:
+                count = bookingRepository.countByBookerIdAndStartBeforeAndEndAfter(
+                        userId, LocalDateTime.now(), LocalDateTime.now());
+                break;
+            case PAST:
+                count = bookingRepository.countByBookerIdAndEndBefore(userId, LocalDateTime.now());
+                break;
+            case FUTURE:
+                count = bookingRepository.countByBookerIdAndStartAfter(userId, LocalDateTime.now());
+                break;
+            case WAITING:
+                count = bookingRepository.countByBookerIdAndStatus(userId, Status.WAITING);
+                break;
+            case REJECTED:
+                count = bookingRepository.countByBookerIdAndStatus(userId, Status.REJECTED);
+                break;
+        }
+        return count;
+    }
+
+    @Override
+    public long countOwnerItemBookings(Long userId, String state) {
+        long count = 0;
+
+        State bookingState = State.getEnumValue(state);
+        switch (bookingState) {
+            case ALL:
+                count = bookingRepository.countByItemOwnerId(userId);
+                break;
+            case CURRENT:
+                count = bookingRepository.countByItemOwnerIdAndStartBeforeAndEndAfter(
+                        userId, LocalDateTime.now(), LocalDateTime.now());
+                break;
+            case PAST:
+                count = bookingRepository.countByItemOwnerIdAndEndBefore(userId, LocalDateTime.now());
+                break;
+            case FUTURE:
+                count = bookingRepository.countByItemOwnerIdAndStartAfter(userId, LocalDateTime.now());
+                break;
+            case WAITING:
+                count = bookingRepository.countByItemOwnerIdAndStatus(userId, Status.WAITING);
+                break;
+            case REJECTED:
+                count = bookingRepository.countByItemOwnerIdAndStatus(userId, Status.REJECTED);
+                break;
+        }
+        return count;
+    }
+
     @Override
     public Booking getById(Long id) {
         return bookingRepository.findById(id)
@@ -186,4 +427,78 @@ public class BookingServiceImpl implements BookingService {
         userService.checkUser(id);
     }
 
+    private void checkOwnerHasItems(Long userId, Integer size) {
+        checkUser(userId);
+        int fromForOwnerItemsCheck = 0;
+        if (itemService.getOwnerItems(userId, fromForOwnerItemsCheck, size).isEmpty()) {
+            throw new ValidationException(
+                    String.format("Не найдены предметы для бронирования у пользователя c id: %s", userId));
+        }
+    }
+
+    private boolean hasApprovedOverlap(Long itemId, Booking booking) {
+        if (availabilityIndex.isEnabled()) {
+            return availabilityIndex.hasApprovedOverlap(itemId, booking.getStart(), booking.getEnd());
+        }
+        return bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(
+                itemId, Status.APPROVED, booking.getEnd(), booking.getStart());
+    }
+
+    private int approveIfWaiting(Long ownerId, Long bookingId) {
+        return translateOverlap(() -> bookingRepository.approveIfWaiting(bookingId, ownerId), String.format(
+                "Бронирование %s пересекается с уже подтвержденным бронированием", bookingId));
+    }
+
+    private int translateOverlap(IntSupplier update, String message) {
+        try {
+            return update.getAsInt();
+        } catch (DataIntegrityViolationException e) {
+            if (isExclusionViolation(e)) {
+                throw new BookingOverlapException(message);
+            }
+            throw e;
+        }
+    }
+
+    private boolean overlapsAny(Booking booking, List<Booking> others) {
+        return others.stream().anyMatch(other -> Objects.equals(other.getItem().getId(), booking.getItem().getId())
+                && other.getStart().isBefore(booking.getEnd())
+                && other.getEnd().isAfter(booking.getStart()));
+    }
+
+    private RuntimeException approvalFailure(Long ownerId, Booking booking) {
+        if (!Objects.equals(booking.getItem().getOwner().getId(), ownerId)) {
+            return new DataNotFoundException(
+                    String.format("Пользователь %s не владелец предмета бронирования", ownerId));
+        }
+        if (booking.getStatus() == Status.APPROVED) {
+            return new ValidationException("Бронирование уже подтверждено");
+        }
+        if (booking.getStatus() != Status.WAITING) {
+            return new ValidationException(
+                    String.format("Бронирование %s уже рассмотрено, статус: %s", booking.getId(), booking.getStatus()));
+        }
+        return new BookingOverlapException(String.format(
+                "Бронирование %s пересекается с уже подтвержденным бронированием", booking.getId()));
+    }
+
+    private boolean isExclusionViolation(DataIntegrityViolationException e) {
+        Throwable cause = e;
+        while (cause != null) {
+            if (cause instanceof SQLException
+                    && EXCLUSION_VIOLATION_SQL_STATE.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    private BookingCursor getCursor(String cursor, State state) {
+        if (cursor == null || cursor.isBlank()) {
+            return BookingCursor.first(state);
+        }
+        return BookingCursor.decode(cursor, state);
+    }
+
 }
@@ -2,13 +2,26 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.importer.ItemImporter;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemImportFormat;
 import ru.practicum.shareit.item.service.ItemService;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -19,8 +32,17 @@ import java.util.stream.Collectors;
 public class ItemController {
 
     public static final String X_SHARED_USER_ID = "X-Sharer-User-Id";
+    public static final String X_TOTAL_COUNT = "X-Total-Count";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final String X_ITEM_OWNER_ID = "X-Item-Owner-Id";
+    public static final String X_CACHE_INVALIDATE = "X-Cache-Invalidate";
+    public static final String ITEM_CACHE_TAG = "item";
+    public static final String SEARCH_CACHE_TAG = "search";
+    public static final String AVAILABILITY_CACHE_TAG = "availability";
 
     private final ItemService itemService;
+    private final ItemImporter itemImporter;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<ItemDto> addItem(
@@ -28,7 +50,38 @@ public class ItemController {
             @RequestBody ItemDto itemDto) {
         Item item = itemService.create(userId, ItemMapper.toItem(itemDto), itemDto.getRequestId());
         log.info("Пользователь {} добавил предмет: {}", userId, item.getName());
-        return ResponseEntity.ok(ItemMapper.toItemDto(item));
+        return ResponseEntity.ok()
+                .header(X_CACHE_INVALIDATE, SEARCH_CACHE_TAG)
+                .body(ItemMapper.toItemDto(item));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<ItemDto>> addItems(
+            @RequestHeader(X_SHARED_USER_ID) Long userId,
+            @RequestBody List<ItemDto> itemDtos) {
+        List<Item> items = itemService.createAll(userId, itemDtos);
+        log.info("Пользователь {} добавил предметов: {}", userId, items.size());
+        return ResponseEntity.ok()
+                .header(X_CACHE_INVALIDATE, SEARCH_CACHE_TAG)
+                .body(items.stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList()));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importItemsNdjson(
+            @RequestHeader(X_SHARED_USER_ID) Long userId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        importItems(userId, ItemImportFormat.NDJSON, request, response);
+    }
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    public void importItemsCsv(
+            @RequestHeader(X_SHARED_USER_ID) Long userId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        importItems(userId, ItemImportFormat.CSV, request, response);
     }
 
     @PatchMapping("/{itemId}")
@@ -38,34 +91,68 @@ public class ItemController {
             @PathVariable Long itemId) {
         Item updateItem = itemService.update(ItemMapper.toItem(itemDto), itemId, userId);
         log.info("Владелец {} обновил предмет: {}", userId, updateItem.getName());
-        return ResponseEntity.ok(ItemMapper.toItemDto(updateItem));
+        return ResponseEntity.ok()
+                .header(X_CACHE_INVALIDATE, itemCacheTag(itemId), SEARCH_CACHE_TAG)
+                .body(ItemMapper.toItemDto(updateItem));
     }
 
     @GetMapping("/{itemId}")
     public ResponseEntity<ItemOutDto> getItem(
             @RequestHeader(X_SHARED_USER_ID) Long userId,
-            @PathVariable Long itemId) {
+            @PathVariable Long itemId,
+            WebRequest webRequest) {
         Item item = itemService.getById(itemId);
-        return ResponseEntity.ok(itemService.addBookingAndComments(item, userId));
+        if (webRequest.checkNotModified(itemService.getETag(item, userId))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .header(X_ITEM_OWNER_ID, String.valueOf(item.getOwner().getId()))
+                .body(itemService.addBookingAndComments(item, userId));
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<List<TimeSlotDto>> getAvailability(
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            WebRequest webRequest) {
+        log.info("Запрошены свободные периоды предмета {} с {} по {}", itemId, from, to);
+        if (webRequest.checkNotModified(itemService.getAvailabilityETag(itemId, from, to))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(itemService.getAvailability(itemId, from, to));
     }
 
     @GetMapping
     public ResponseEntity<List<ItemOutDto>> getAllOwnerItems(
             @RequestHeader(X_SHARED_USER_ID) Long userId,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "10") Integer size) {
-        return ResponseEntity.ok(itemService.getOwnerItems(userId, from, size).stream()
-                .map(item -> itemService.addBookingAndComments(item, userId))
-                .collect(Collectors.toList()));
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "false") Boolean count) {
+        List<Item> items = itemService.getOwnerItems(userId, from, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (count) {
+            response.header(X_TOTAL_COUNT, String.valueOf(itemService.countOwnerItems(userId)));
+        }
+        return response.body(itemService.addBookingsAndComments(items, userId));
     }
 
     @GetMapping("/search")
     public ResponseEntity<List<ItemDto>> searchItems(
             @RequestParam(defaultValue = "") String text,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Запущен поиск по тексту: {}", text);
-        return ResponseEntity.ok(itemService.searchItems(text, from, size).stream()
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "false") Boolean count) {
+        log.info("Запущен поиск по тексту: {}, период: {} - {}", text, start, end);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (count) {
+            response.header(X_TOTAL_COUNT, String.valueOf(itemService.countSearchItems(text, start, end)));
+        }
+        return response.body(itemService.searchItems(text, start, end, from, size).stream()
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList()));
     }
@@ -76,7 +163,9 @@ public class ItemController {
             @PathVariable Long itemId) {
         itemService.delete(userId, itemId);
         log.info("Предмет с id: {} удален владельцем", itemId);
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok()
+                .header(X_CACHE_INVALIDATE, itemCacheTag(itemId), SEARCH_CACHE_TAG)
+                .build();
     }
 
     @PostMapping("/{itemId}/comment")
@@ -86,7 +175,49 @@ public class ItemController {
             @PathVariable Long itemId) {
         log.info("Пользователь с id: {} комментирует вещь с id: {}", userId, itemId);
         Comment comment = itemService.addComment(userId, CommentMapper.toComment(commentDto), itemId);
-        return ResponseEntity.ok(CommentMapper.toCommentOutDto(comment));
+        return ResponseEntity.ok()
+                .header(X_CACHE_INVALIDATE, itemCacheTag(itemId))
+                .body(CommentMapper.toCommentOutDto(comment));
+    }
+
+    private void importItems(Long userId, ItemImportFormat format,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.info("Пользователь {} запустил импорт предметов в формате {}", userId, format);
+        Charset charset = request.getCharacterEncoding() == null
+                ? StandardCharsets.UTF_8
+                : Charset.forName(request.getCharacterEncoding());
+        Reader reader = new InputStreamReader(request.getInputStream(), charset);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(X_CACHE_INVALIDATE, SEARCH_CACHE_TAG);
+        Writer writer = response.getWriter();
+        ItemImportResultDto result = itemImporter.importItems(userId, reader, format,
+                error -> writeLine(writer, error));
+        writeLine(writer, result);
+        writer.flush();
+    }
+
+    /**
+     * Тег для сброса закэшированного шлюзом ответа GET /items/{itemId}.
+     */
+    public static String itemCacheTag(Long itemId) {
+        return ITEM_CACHE_TAG + ":" + itemId;
+    }
+
+    /**
+     * Тег для сброса закэшированных шлюзом ответов GET /items/{itemId}/availability за любые периоды.
+     */
+    public static String availabilityCacheTag(Long itemId) {
+        return AVAILABILITY_CACHE_TAG + ":" + itemId;
+    }
+
+    private void writeLine(Writer writer, Object value) {
+        try {
+            writer.write(objectMapper.writeValueAsString(value));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
 }
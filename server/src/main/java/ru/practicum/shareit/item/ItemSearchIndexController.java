@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemSearchIndexStatsDto;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+@Slf4j
+@RestController
+@RequestMapping("/items/search/index")
+@RequiredArgsConstructor
+public class ItemSearchIndexController {
+
+    private final ItemSearchIndex searchIndex;
+
+    @GetMapping
+    public ResponseEntity<ItemSearchIndexStatsDto> getStats() {
+        return ResponseEntity.ok(searchIndex.getStats());
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<ItemSearchIndexStatsDto> rebuild() {
+        if (!searchIndex.isEnabled()) {
+            throw new ValidationException("Поисковый индекс отключен");
+        }
+        log.info("Запущено перестроение поискового индекса");
+        return ResponseEntity.ok(searchIndex.rebuild());
+    }
+
+}
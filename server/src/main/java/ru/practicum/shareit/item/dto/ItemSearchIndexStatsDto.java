@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ItemSearchIndexStatsDto {
+
+    private Boolean enabled;
+
+    private Integer items;
+
+    private Integer tokens;
+
+    private Long postings;
+
+    private Long estimatedBytes;
+
+}
@@ -0,0 +1,353 @@
+package ru.practicum.shareit.item.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemImportFormat;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Потоковый импорт предметов из NDJSON или CSV. Строки читаются по одной и сохраняются
+ * пакетами по {@code shareit.items.import.batch-size}, каждый пакет в своей транзакции,
+ * поэтому потребление памяти не зависит от размера файла.
+ */
+@Slf4j
+@Component
+public class ItemImporter {
+
+    private static final String NEXT_ITEM_ID = "SELECT nextval('items_seq')";
+    private static final String INSERT_ITEM = "INSERT INTO items (id, name, description, is_available, owner_id, request_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_REQUEST_IDS = "SELECT id FROM requests WHERE id IN (:ids)";
+    private static final String INCREMENT_REQUEST_VERSION = "UPDATE requests SET version = version + 1 WHERE id IN (:ids)";
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("name", "description", "available");
+    private static final int NAME_MAX_LENGTH = 127;
+    private static final int DESCRIPTION_MAX_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final UserService userService;
+    private final ItemSearchIndex searchIndex;
+    private final int batchSize;
+
+    public ItemImporter(JdbcTemplate jdbcTemplate,
+                        NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                        TransactionTemplate transactionTemplate,
+                        ObjectMapper objectMapper,
+                        UserService userService,
+                        ItemSearchIndex searchIndex,
+                        @Value("${shareit.items.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.userService = userService;
+        this.searchIndex = searchIndex;
+        this.batchSize = batchSize;
+    }
+
+    public ItemImportResultDto importItems(Long ownerId, Reader reader, ItemImportFormat format,
+                                           Consumer<ItemImportErrorDto> errorConsumer) throws IOException {
+        userService.getById(ownerId);
+        BufferedReader lines = new BufferedReader(reader);
+        long lineNumber = 0;
+        Map<String, Integer> csvColumns = null;
+        if (format == ItemImportFormat.CSV) {
+            csvColumns = parseCsvHeader(lines.readLine());
+            lineNumber++;
+        }
+
+        long imported = 0;
+        long failed = 0;
+        List<ImportRow> chunk = new ArrayList<>(batchSize);
+        IdAllocator ids = new IdAllocator();
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                ItemDto itemDto = format == ItemImportFormat.CSV
+                        ? parseCsvRow(line, csvColumns)
+                        : objectMapper.readValue(line, ItemDto.class);
+                validate(itemDto);
+                chunk.add(new ImportRow(lineNumber, itemDto));
+            } catch (JsonProcessingException e) {
+                failed++;
+                errorConsumer.accept(new ItemImportErrorDto(lineNumber, e.getOriginalMessage()));
+            } catch (ValidationException e) {
+                failed++;
+                errorConsumer.accept(new ItemImportErrorDto(lineNumber, e.getMessage()));
+            }
+            if (chunk.size() == batchSize) {
+                int saved = saveChunk(ownerId, chunk, ids, errorConsumer);
+                imported += saved;
+                failed += chunk.size() - saved;
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            int saved = saveChunk(ownerId, chunk, ids, errorConsumer);
+            imported += saved;
+            failed += chunk.size() - saved;
+        }
+
+        log.info("Пользователь {} импортировал предметов: {}, ошибок: {}", ownerId, imported, failed);
+        return new ItemImportResultDto(imported, failed);
+    }
+
+    private int saveChunk(Long ownerId, List<ImportRow> chunk, IdAllocator idAllocator,
+                          Consumer<ItemImportErrorDto> errorConsumer) {
+        Set<Long> requestIds = chunk.stream()
+                .map(row -> row.item.getRequestId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existingRequestIds = requestIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                        SELECT_REQUEST_IDS, Map.of("ids", requestIds), Long.class));
+
+        List<ImportRow> rows = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            Long requestId = row.item.getRequestId();
+            if (requestId != null && !existingRequestIds.contains(requestId)) {
+                errorConsumer.accept(new ItemImportErrorDto(row.line,
+                        String.format("Не найден запрос c id: %s", requestId)));
+            } else {
+                rows.add(row);
+            }
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> answeredRequestIds = rows.stream()
+                .map(row -> row.item.getRequestId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> ids = idAllocator.next(rows.size());
+                jdbcTemplate.batchUpdate(INSERT_ITEM, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setInsertParameters(ps, ids.get(i), ownerId, rows.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                });
+                if (searchIndex.isEnabled()) {
+                    searchIndex.indexAll(toItems(ids, rows));
+                }
+                if (!answeredRequestIds.isEmpty()) {
+                    namedParameterJdbcTemplate.update(INCREMENT_REQUEST_VERSION, Map.of("ids", answeredRequestIds));
+                }
+            });
+            return rows.size();
+        } catch (DataAccessException e) {
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Пакет импорта предметов не сохранен: {}", message);
+            rows.forEach(row -> errorConsumer.accept(new ItemImportErrorDto(row.line,
+                    "Пакет не сохранен: " + message)));
+            return 0;
+        }
+    }
+
+    /**
+     * Предметы пакета для поискового индекса, который применит их после фиксации транзакции пакета.
+     */
+    private static List<Item> toItems(List<Long> ids, List<ImportRow> rows) {
+        List<Item> items = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            Item item = ItemMapper.toItem(row.item);
+            item.setId(ids.get(i));
+            if (row.item.getRequestId() != null) {
+                item.setRequest(ItemRequest.builder().id(row.item.getRequestId()).build());
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static void setInsertParameters(PreparedStatement ps, Long id, Long ownerId, ImportRow row)
+            throws SQLException {
+        ps.setLong(1, id);
+        ps.setString(2, row.item.getName());
+        ps.setString(3, row.item.getDescription());
+        ps.setBoolean(4, row.item.getAvailable());
+        ps.setLong(5, ownerId);
+        if (row.item.getRequestId() == null) {
+            ps.setNull(6, Types.BIGINT);
+        } else {
+            ps.setLong(6, row.item.getRequestId());
+        }
+    }
+
+    private void validate(ItemDto itemDto) {
+        if (itemDto == null) {
+            throw new ValidationException("Строка не содержит предмет");
+        }
+        if (itemDto.getName() == null || itemDto.getName().isBlank()) {
+            throw new ValidationException("Название предмета не может быть пустым");
+        }
+        if (itemDto.getName().length() > NAME_MAX_LENGTH) {
+            throw new ValidationException(String.format("Название предмета длиннее %s символов", NAME_MAX_LENGTH));
+        }
+        if (itemDto.getDescription() == null || itemDto.getDescription().isBlank()) {
+            throw new ValidationException("Описание предмета не может быть пустым");
+        }
+        if (itemDto.getDescription().length() > DESCRIPTION_MAX_LENGTH) {
+            throw new ValidationException(String.format("Описание предмета длиннее %s символов",
+                    DESCRIPTION_MAX_LENGTH));
+        }
+        if (itemDto.getAvailable() == null) {
+            throw new ValidationException("Не указана доступность предмета");
+        }
+        if (itemDto.getRequestId() != null && itemDto.getRequestId() <= 0) {
+            throw new ValidationException("Id запроса должен быть положительным");
+        }
+    }
+
+    private static Map<String, Integer> parseCsvHeader(String header) {
+        if (header == null) {
+            throw new ValidationException("Файл CSV не содержит заголовка");
+        }
+        List<String> names = parseCsvLine(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).strip(), i);
+        }
+        List<String> missing = REQUIRED_CSV_COLUMNS.stream()
+                .filter(column -> !columns.containsKey(column))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new ValidationException(String.format("В заголовке CSV нет колонок: %s", missing));
+        }
+        return columns;
+    }
+
+    private static ItemDto parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> fields = parseCsvLine(line);
+        if (fields.size() != columns.size()) {
+            throw new ValidationException(String.format("Ожидалось колонок: %s, получено: %s",
+                    columns.size(), fields.size()));
+        }
+        String available = fields.get(columns.get("available")).strip();
+        if (!available.equalsIgnoreCase("true") && !available.equalsIgnoreCase("false")) {
+            throw new ValidationException(String.format("Неверное значение доступности: %s", available));
+        }
+        Integer requestIdColumn = columns.get("requestId");
+        String requestId = requestIdColumn == null ? "" : fields.get(requestIdColumn).strip();
+        try {
+            return ItemDto.builder()
+                    .name(fields.get(columns.get("name")))
+                    .description(fields.get(columns.get("description")))
+                    .available(Boolean.valueOf(available))
+                    .requestId(requestId.isEmpty() ? null : Long.valueOf(requestId))
+                    .build();
+        } catch (NumberFormatException e) {
+            throw new ValidationException(String.format("Неверный id запроса: %s", requestId));
+        }
+    }
+
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new ValidationException("Незакрытая кавычка в строке CSV");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Выдает id так же, как Hibernate с оптимизатором pooled-lo: каждый nextval последовательности items_seq
+     * (шаг {@link Item#ID_ALLOCATION_SIZE}) резервирует блок из ID_ALLOCATION_SIZE id, остаток блока переходит
+     * в следующий пакет. Вставка без id брала бы DEFAULT nextval и тратила целый блок на каждую строку.
+     */
+    private final class IdAllocator {
+
+        private long next;
+        private long limit;
+
+        private List<Long> next(int count) {
+            List<Long> ids = new ArrayList<>(count);
+            while (ids.size() < count) {
+                if (next == limit) {
+                    next = Objects.requireNonNull(jdbcTemplate.queryForObject(NEXT_ITEM_ID, Long.class));
+                    limit = next + Item.ID_ALLOCATION_SIZE;
+                }
+                ids.add(next++);
+            }
+            return ids;
+        }
+
+    }
+
+    private static final class ImportRow {
+
+        private final long line;
+        private final ItemDto item;
+
+        private ImportRow(long line, ItemDto item) {
+            this.line = line;
+            this.item = item;
+        }
+
+    }
+
+}
@@ -14,8 +14,11 @@ import javax.persistence.*;
 @Table(name = "items")
 public class Item {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy =  GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 127)
@@ -39,4 +42,11 @@ public class Item {
     @EqualsAndHashCode.Exclude
     private ItemRequest request;
 
+    /**
+     * Версия предмета вместе с его подтвержденными бронированиями и отзывами, из нее строится ETag.
+     * Увеличивается только запросами {@code incrementVersion*} репозитория.
+     */
+    @Column(name = "version", nullable = false, insertable = false, updatable = false)
+    private Long version;
+
 }
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.item.model;
+
+public enum ItemImportFormat {
+    NDJSON,
+    CSV
+}
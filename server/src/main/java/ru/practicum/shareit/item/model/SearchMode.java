@@ -0,0 +1,8 @@
+package ru.practicum.shareit.item.model;
+
+public enum SearchMode {
+    LIKE,
+    FULL_TEXT,
+    TRIGRAM,
+    INDEX
+}
@@ -1,23 +1,141 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
-    Page<Item> findByOwnerIdOrderById(Long userId, Pageable pageable);
+    Slice<Item> findByOwnerIdOrderById(Long userId, Pageable pageable);
+
+    long countByOwnerId(Long userId);
+
+    @Query("select i.id from Item i where i.owner.id = ?1")
+    List<Long> findIdsByOwnerId(Long userId);
+
+    @Query("select i from Item i " +
+            "where i.available = true " +
+            "and (upper(i.name) like upper(concat('%', ?1, '%')) " +
+            "or upper(i.description) like upper(concat('%', ?1, '%')))")
+    Slice<Item> search(String text, Pageable pageable);
+
+    @Query("select count(i) from Item i " +
+            "where i.available = true " +
+            "and (upper(i.name) like upper(concat('%', ?1, '%')) " +
+            "or upper(i.description) like upper(concat('%', ?1, '%')))")
+    long countSearch(String text);
 
     @Query("select i from Item i " +
-            "where upper(i.name) like upper(concat('%', ?1, '%')) " +
-            "or upper(i.description) like upper(concat('%', ?1, '%')) " +
-            "and i.available = true")
-    Page<Item> search(String text, Pageable pageable);
+            "where i.available = true " +
+            "and (upper(i.name) like upper(concat('%', ?1, '%')) " +
+            "or upper(i.description) like upper(concat('%', ?1, '%'))) " +
+            "and not exists (select b.id from Booking b " +
+            "where b.item.id = i.id and b.status = ru.practicum.shareit.booking.model.Status.APPROVED " +
+            "and b.start < ?3 and b.end > ?2)")
+    Slice<Item> searchAvailable(String text, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    @Query("select count(i) from Item i " +
+            "where i.available = true " +
+            "and (upper(i.name) like upper(concat('%', ?1, '%')) " +
+            "or upper(i.description) like upper(concat('%', ?1, '%'))) " +
+            "and not exists (select b.id from Booking b " +
+            "where b.item.id = i.id and b.status = ru.practicum.shareit.booking.model.Status.APPROVED " +
+            "and b.start < ?3 and b.end > ?2)")
+    long countSearchAvailable(String text, LocalDateTime start, LocalDateTime end);
+
+    @Query(value = "select i.* from items i, websearch_to_tsquery('russian', ?1) query " +
+            "where i.is_available = true and i.search_vector @@ query " +
+            "order by ts_rank(i.search_vector, query) desc, i.id",
+            nativeQuery = true)
+    Slice<Item> searchFullText(String text, Pageable pageable);
+
+    @Query(value = "select count(*) from items i " +
+            "where i.is_available = true and i.search_vector @@ websearch_to_tsquery('russian', ?1)",
+            nativeQuery = true)
+    long countSearchFullText(String text);
+
+    @Query(value = "select i.* from items i, websearch_to_tsquery('russian', ?1) query " +
+            "where i.is_available = true and i.search_vector @@ query " +
+            "and not exists (select 1 from bookings b " +
+            "where b.item_id = i.id and b.status = 'APPROVED' and b.start_date < ?3 and b.end_date > ?2) " +
+            "order by ts_rank(i.search_vector, query) desc, i.id",
+            nativeQuery = true)
+    Slice<Item> searchAvailableFullText(String text, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    @Query(value = "select count(*) from items i " +
+            "where i.is_available = true and i.search_vector @@ websearch_to_tsquery('russian', ?1) " +
+            "and not exists (select 1 from bookings b " +
+            "where b.item_id = i.id and b.status = 'APPROVED' and b.start_date < ?3 and b.end_date > ?2)",
+            nativeQuery = true)
+    long countSearchAvailableFullText(String text, LocalDateTime start, LocalDateTime end);
+
+    @Query(value = "select i.* from items i " +
+            "where i.is_available = true " +
+            "and (i.name ilike concat('%', ?1, '%') or i.description ilike concat('%', ?1, '%')) " +
+            "order by greatest(similarity(i.name, ?1), similarity(i.description, ?1)) desc, i.id",
+            nativeQuery = true)
+    Slice<Item> searchTrigram(String text, Pageable pageable);
+
+    @Query(value = "select count(*) from items i " +
+            "where i.is_available = true " +
+            "and (i.name ilike concat('%', ?1, '%') or i.description ilike concat('%', ?1, '%'))",
+            nativeQuery = true)
+    long countSearchTrigram(String text);
+
+    @Query(value = "select i.* from items i " +
+            "where i.is_available = true " +
+            "and (i.name ilike concat('%', ?1, '%') or i.description ilike concat('%', ?1, '%')) " +
+            "and not exists (select 1 from bookings b " +
+            "where b.item_id = i.id and b.status = 'APPROVED' and b.start_date < ?3 and b.end_date > ?2) " +
+            "order by greatest(similarity(i.name, ?1), similarity(i.description, ?1)) desc, i.id",
+            nativeQuery = true)
+    Slice<Item> searchAvailableTrigram(String text, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    @Query(value = "select count(*) from items i " +
+            "where i.is_available = true " +
+            "and (i.name ilike concat('%', ?1, '%') or i.description ilike concat('%', ?1, '%')) " +
+            "and not exists (select 1 from bookings b " +
+            "where b.item_id = i.id and b.status = 'APPROVED' and b.start_date < ?3 and b.end_date > ?2)",
+            nativeQuery = true)
+    long countSearchAvailableTrigram(String text, LocalDateTime start, LocalDateTime end);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = ?1")
+    Optional<Item> findByIdForUpdate(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in ?1 and i.owner.id = ?2 order by i.id")
+    List<Item> findAllByIdInAndOwnerIdForUpdate(Collection<Long> ids, Long ownerId);
 
     List<Item> findAllByRequestId(Long requestId);
 
+    List<Item> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Item i set i.version = i.version + 1 where i.id in ?1")
+    int incrementVersion(Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Item i set i.version = i.version + 1 " +
+            "where i.owner.id = ?2 and i.id = (select b.item.id from Booking b " +
+            "where b.id = ?1 and b.status = ru.practicum.shareit.booking.model.Status.WAITING)")
+    int incrementVersionByWaitingBooking(Long bookingId, Long ownerId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Item i set i.version = i.version + 1 " +
+            "where i.id in (select c.item.id from Comment c where c.author.id = ?1) " +
+            "or i.id in (select b.item.id from Booking b where b.booker.id = ?1)")
+    int incrementVersionByCommentAuthorOrBooker(Long userId);
+
 }
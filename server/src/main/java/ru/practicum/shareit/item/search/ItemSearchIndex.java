@@ -0,0 +1,387 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemSearchIndexStatsDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.SearchMode;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Инвертированный индекс по словам названия и описания. Слово запроса ищется как подстрока слов предмета,
+ * как в режиме LIKE ("рель" находит "Дрель"): для этого каждый суффикс слова ссылается на само слово,
+ * и подстрока находится как префикс суффикса. В отличие от LIKE, слова запроса ищутся по отдельности
+ * и должны найтись все.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex implements MeterBinder {
+
+    private static final long OBJECT_HEADER_BYTES = 16;
+    private static final long REFERENCE_BYTES = 8;
+    private static final long MAP_ENTRY_BYTES = 40;
+    private static final long STRING_BYTES = 40;
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final int loadBatchSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Перестроения идут по одному: все они пишут в общий {@link #pendingChanges}.
+     */
+    private final Lock rebuildLock = new ReentrantLock();
+
+    private NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private NavigableMap<String, Set<String>> suffixes = new TreeMap<>();
+    private Map<Long, IndexedItem> documents = new HashMap<>();
+    private Map<Long, Item> pendingChanges;
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.search.mode:LIKE}") SearchMode searchMode,
+                           @Value("${shareit.search.index.load-batch-size:1000}") int loadBatchSize) {
+        this.itemRepository = itemRepository;
+        this.enabled = searchMode == SearchMode.INDEX;
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public ItemSearchIndexStatsDto rebuild() {
+        rebuildLock.lock();
+        try {
+            return rebuildExclusively();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Изменения предметов применяются к индексу после фиксации транзакции, в которой они сделаны,
+     * а при откате не применяются. Вне транзакции - сразу.
+     */
+    public void index(Item item) {
+        indexAll(List.of(item));
+    }
+
+    public void indexAll(Collection<Item> items) {
+        if (enabled) {
+            afterCommit(() -> applyIndex(items));
+        }
+    }
+
+    public void remove(Long itemId) {
+        removeAll(List.of(itemId));
+    }
+
+    public void removeAll(Collection<Long> itemIds) {
+        if (enabled && !itemIds.isEmpty()) {
+            afterCommit(() -> applyRemove(itemIds));
+        }
+    }
+
+    private ItemSearchIndexStatsDto rebuildExclusively() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        NavigableMap<String, PostingList> newPostings = new TreeMap<>();
+        NavigableMap<String, Set<String>> newSuffixes = new TreeMap<>();
+        Map<Long, IndexedItem> newDocuments = new HashMap<>();
+        long lastId = 0;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findByIdGreaterThanOrderById(lastId, PageRequest.of(0, loadBatchSize));
+            for (Item item : batch) {
+                add(newPostings, newSuffixes, newDocuments, item);
+                lastId = item.getId();
+            }
+        } while (batch.size() == loadBatchSize);
+
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            suffixes = newSuffixes;
+            documents = newDocuments;
+            pendingChanges.forEach((itemId, item) -> {
+                remove(postings, suffixes, documents, itemId);
+                if (item != null) {
+                    add(postings, suffixes, documents, item);
+                }
+            });
+            pendingChanges = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ItemSearchIndexStatsDto stats = getStats();
+        log.info("Поисковый индекс перестроен: {}", stats);
+        return stats;
+    }
+
+    private void applyIndex(Collection<Item> items) {
+        lock.writeLock().lock();
+        try {
+            for (Item item : items) {
+                remove(postings, suffixes, documents, item.getId());
+                add(postings, suffixes, documents, item);
+                if (pendingChanges != null) {
+                    pendingChanges.put(item.getId(), item);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyRemove(Collection<Long> itemIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long itemId : itemIds) {
+                remove(postings, suffixes, documents, itemId);
+                if (pendingChanges != null) {
+                    pendingChanges.put(itemId, null);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    public List<Item> search(String text, Integer from, Integer size) {
+        lock.readLock().lock();
+        try {
+            List<Item> result = new ArrayList<>();
+            int skipped = 0;
+            for (long itemId : match(text)) {
+                IndexedItem document = documents.get(itemId);
+                if (!document.available) {
+                    continue;
+                }
+                if (skipped < from) {
+                    skipped++;
+                    continue;
+                }
+                result.add(document.toItem());
+                if (result.size() == size) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long count(String text) {
+        lock.readLock().lock();
+        try {
+            long count = 0;
+            for (long itemId : match(text)) {
+                if (documents.get(itemId).available) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ItemSearchIndexStatsDto getStats() {
+        lock.readLock().lock();
+        try {
+            long postingsCount = 0;
+            long estimatedBytes = 0;
+            for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                postingsCount += entry.getValue().size();
+                estimatedBytes += MAP_ENTRY_BYTES + stringBytes(entry.getKey())
+                        + OBJECT_HEADER_BYTES + OBJECT_HEADER_BYTES + (long) entry.getValue().capacity() * Long.BYTES;
+            }
+            for (Map.Entry<String, Set<String>> entry : suffixes.entrySet()) {
+                estimatedBytes += MAP_ENTRY_BYTES + stringBytes(entry.getKey())
+                        + OBJECT_HEADER_BYTES + entry.getValue().size() * MAP_ENTRY_BYTES;
+            }
+            for (IndexedItem document : documents.values()) {
+                estimatedBytes += MAP_ENTRY_BYTES + OBJECT_HEADER_BYTES + document.tokens.size() * REFERENCE_BYTES
+                        + stringBytes(document.name) + stringBytes(document.description);
+            }
+            return ItemSearchIndexStatsDto.builder()
+                    .enabled(enabled)
+                    .items(documents.size())
+                    .tokens(postings.size())
+                    .postings(postingsCount)
+                    .estimatedBytes(estimatedBytes)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Метрики читают те же значения, что и {@link #getStats()}; каждый опрос проходит индекс целиком.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge(registry, "shareit.search.index.items", "Предметы в поисковом индексе",
+                null, ItemSearchIndexStatsDto::getItems);
+        gauge(registry, "shareit.search.index.tokens", "Различные слова в поисковом индексе",
+                null, ItemSearchIndexStatsDto::getTokens);
+        gauge(registry, "shareit.search.index.postings", "Пары слово-предмет в поисковом индексе",
+                null, ItemSearchIndexStatsDto::getPostings);
+        gauge(registry, "shareit.search.index.memory", "Оценка памяти, занятой поисковым индексом",
+                "bytes", ItemSearchIndexStatsDto::getEstimatedBytes);
+    }
+
+    private void gauge(MeterRegistry registry, String name, String description, String baseUnit,
+                       ToDoubleFunction<ItemSearchIndexStatsDto> value) {
+        Gauge.builder(name, this, index -> value.applyAsDouble(index.getStats()))
+                .description(description)
+                .baseUnit(baseUnit)
+                .register(registry);
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).replace('ё', 'е').split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private long[] match(String text) {
+        Set<String> queryTokens = tokenize(text);
+        if (queryTokens.isEmpty()) {
+            return new long[0];
+        }
+        long[] matches = null;
+        for (String token : queryTokens) {
+            Set<String> containing = new HashSet<>();
+            suffixes.subMap(token, true, token + Character.MAX_VALUE, true).values().forEach(containing::addAll);
+            List<PostingList> lists = new ArrayList<>(containing.size());
+            for (String indexed : containing) {
+                lists.add(postings.get(indexed));
+            }
+            long[] tokenMatches = PostingList.union(lists);
+            matches = matches == null ? tokenMatches : PostingList.intersect(matches, tokenMatches);
+            if (matches.length == 0) {
+                break;
+            }
+        }
+        return matches;
+    }
+
+    private static void add(NavigableMap<String, PostingList> postings, NavigableMap<String, Set<String>> suffixes,
+                            Map<Long, IndexedItem> documents, Item item) {
+        Set<String> tokens = tokenize(item.getName());
+        tokens.addAll(tokenize(item.getDescription()));
+        for (String token : tokens) {
+            PostingList list = postings.get(token);
+            if (list == null) {
+                list = new PostingList();
+                postings.put(token, list);
+                for (int i = 0; i < token.length(); i++) {
+                    suffixes.computeIfAbsent(token.substring(i), key -> new HashSet<>()).add(token);
+                }
+            }
+            list.add(item.getId());
+        }
+        Long requestId = item.getRequest() == null ? null : item.getRequest().getId();
+        documents.put(item.getId(), new IndexedItem(item.getName(), item.getDescription(),
+                Boolean.TRUE.equals(item.getAvailable()), requestId, item.getId(), tokens));
+    }
+
+    private static void remove(NavigableMap<String, PostingList> postings, NavigableMap<String, Set<String>> suffixes,
+                               Map<Long, IndexedItem> documents, Long itemId) {
+        IndexedItem document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        for (String token : document.tokens) {
+            PostingList list = postings.get(token);
+            if (list != null && list.remove(itemId) && list.isEmpty()) {
+                postings.remove(token);
+                for (int i = 0; i < token.length(); i++) {
+                    String suffix = token.substring(i);
+                    Set<String> containing = suffixes.get(suffix);
+                    containing.remove(token);
+                    if (containing.isEmpty()) {
+                        suffixes.remove(suffix);
+                    }
+                }
+            }
+        }
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : STRING_BYTES + 2L * value.length();
+    }
+
+    @AllArgsConstructor
+    private static final class IndexedItem {
+
+        private final String name;
+        private final String description;
+        private final boolean available;
+        private final Long requestId;
+        private final Long id;
+        private final Set<String> tokens;
+
+        private Item toItem() {
+            return Item.builder()
+                    .id(id)
+                    .name(name)
+                    .description(description)
+                    .available(available)
+                    .request(requestId == null ? null : ItemRequest.builder().id(requestId).build())
+                    .build();
+        }
+    }
+
+}
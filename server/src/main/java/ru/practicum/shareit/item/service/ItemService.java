@@ -1,22 +1,50 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOutDto;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemService {
 
     Item create(Long ownerId, Item item, Long requestId);
 
+    List<Item> createAll(Long ownerId, List<ItemDto> itemDtos);
+
     Item update(Item item, Long itemId, Long userId);
 
     Item getById(Long itemId);
 
+    /**
+     * Как {@link #getById(Long)}, но строка предмета остается заблокированной до конца транзакции:
+     * новое бронирование не разминется с одновременным подтверждением другого бронирования предмета.
+     */
+    Item getByIdForUpdate(Long itemId);
+
+    /**
+     * Увеличивает версию предмета ожидающего бронирования, если предмет принадлежит владельцу. Строка предмета
+     * остается заблокированной до конца транзакции, поэтому подтверждения бронирований предмета идут по очереди.
+     *
+     * @return false, если бронирование не найдено, уже рассмотрено или предмет чужой
+     */
+    boolean lockForApproval(Long bookingId, Long ownerId);
+
+    List<Item> getAllByIdsForUpdate(Long ownerId, Collection<Long> itemIds);
+
+    List<TimeSlotDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
     List<Item> getOwnerItems(Long userId, Integer from, Integer size);
 
-    List<Item> searchItems(String text, Integer from, Integer size);
+    long countOwnerItems(Long userId);
+
+    List<Item> searchItems(String text, LocalDateTime start, LocalDateTime end, Integer from, Integer size);
+
+    long countSearchItems(String text, LocalDateTime start, LocalDateTime end);
 
     void delete(Long ownerId, Long itemId);
 
@@ -26,6 +54,14 @@ public interface ItemService {
 
     ItemOutDto addBookingAndComments(Item item, Long userId);
 
+    List<ItemOutDto> addBookingsAndComments(List<Item> items, Long userId);
+
     List<Item> getByRequestId(Long requestId);
 
+    String getETag(Item item, Long userId);
+
+    String getAvailabilityETag(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    void incrementVersion(Collection<Long> itemIds);
+
 }
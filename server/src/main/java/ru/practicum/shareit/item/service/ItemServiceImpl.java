@@ -2,8 +2,11 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
@@ -11,12 +14,16 @@ import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.DataNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemOutDto;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.SearchMode;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
@@ -24,6 +31,8 @@ import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
@@ -35,8 +44,14 @@ public class ItemServiceImpl implements ItemService {
     private final CommentRepository commentRepository;
     private final ItemRequestRepository requestRepository;
     private final UserService userService;
+    private final ItemSearchIndex searchIndex;
+    private final BookingAvailabilityIndex availabilityIndex;
+
+    @Value("${shareit.search.mode:LIKE}")
+    private SearchMode searchMode;
 
     @Override
+    @Transactional
     public Item create(Long ownerId, Item item, Long requestId) {
         User owner = userService.getById(ownerId);
         item.setOwner(owner);
@@ -45,11 +60,55 @@ public class ItemServiceImpl implements ItemService {
                     .orElseThrow(() -> new DataNotFoundException(String.format("Не найден запрос c id: %s", requestId)));
             item.setRequest(request);
         }
-        log.info("Добавлен предмет: {}", item);
-        return itemRepository.save(item);
+        Item savedItem = itemRepository.save(item);
+        if (requestId != null) {
+            requestRepository.incrementVersion(List.of(requestId));
+        }
+        searchIndex.index(savedItem);
+        log.info("Добавлен предмет: {}", savedItem);
+        return savedItem;
+    }
+
+    @Override
+    @Transactional
+    public List<Item> createAll(Long ownerId, List<ItemDto> itemDtos) {
+        if (itemDtos.isEmpty()) {
+            throw new ValidationException("Список предметов для добавления пуст");
+        }
+        User owner = userService.getById(ownerId);
+        Set<Long> requestIds = itemDtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = requestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        requestIds.stream()
+                .filter(requestId -> !requests.containsKey(requestId))
+                .findFirst()
+                .ifPresent(requestId -> {
+                    throw new DataNotFoundException(String.format("Не найден запрос c id: %s", requestId));
+                });
+
+        List<Item> items = itemDtos.stream()
+                .map(itemDto -> {
+                    Item item = ItemMapper.toItem(itemDto);
+                    item.setId(null);
+                    item.setOwner(owner);
+                    item.setRequest(requests.get(itemDto.getRequestId()));
+                    return item;
+                })
+                .collect(Collectors.toList());
+        List<Item> savedItems = itemRepository.saveAll(items);
+        if (!requestIds.isEmpty()) {
+            requestRepository.incrementVersion(requestIds);
+        }
+        searchIndex.indexAll(savedItems);
+        log.info("Пользователь {} добавил предметов: {}", ownerId, savedItems.size());
+        return savedItems;
     }
 
     @Override
+    @Transactional
     public Item update(Item item, Long itemId, Long userId) {
         checkUser(userId);
         Item newItem = getById(itemId);
@@ -61,6 +120,9 @@ public class ItemServiceImpl implements ItemService {
         Optional.ofNullable(item.getDescription()).ifPresent(newItem::setDescription);
         Optional.ofNullable(item.getAvailable()).ifPresent(newItem::setAvailable);
         itemRepository.save(newItem);
+        itemRepository.incrementVersion(List.of(itemId));
+        incrementRequestVersion(newItem);
+        searchIndex.index(newItem);
         log.info("Обновлен предмет: {}", newItem);
         return newItem;
     }
@@ -71,21 +133,122 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new DataNotFoundException(String.format("Не найден предмет c id: %s", itemId)));
     }
 
+    @Override
+    public Item getByIdForUpdate(Long itemId) {
+        return itemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new DataNotFoundException(String.format("Не найден предмет c id: %s", itemId)));
+    }
+
+    @Override
+    public boolean lockForApproval(Long bookingId, Long ownerId) {
+        return itemRepository.incrementVersionByWaitingBooking(bookingId, ownerId) > 0;
+    }
+
+    @Override
+    public List<Item> getAllByIdsForUpdate(Long ownerId, Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return itemRepository.findAllByIdInAndOwnerIdForUpdate(itemIds, ownerId);
+    }
+
+    @Override
+    public List<TimeSlotDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        checkPeriod(from, to);
+        checkItem(itemId);
+        List<TimeSlotDto> busy;
+        if (availabilityIndex.isEnabled()) {
+            busy = availabilityIndex.findOverlapping(itemId, from, to).stream()
+                    .filter(range -> range.getStatus() == Status.APPROVED)
+                    .map(range -> new TimeSlotDto(range.getStart(), range.getEnd()))
+                    .collect(Collectors.toList());
+        } else {
+            busy = bookingRepository.findAllByItemIdAndStatusAndStartBeforeAndEndAfterOrderByStartAsc(
+                            itemId, Status.APPROVED, to, from).stream()
+                    .map(booking -> new TimeSlotDto(booking.getStart(), booking.getEnd()))
+                    .collect(Collectors.toList());
+        }
+        return toFreeSlots(busy, from, to);
+    }
+
     @Override
     public List<Item> getOwnerItems(Long userId, Integer from, Integer size) {
         checkUser(userId);
-        return itemRepository.findByOwnerIdOrderById(userId, PageRequest.of(from / size, size)).toList();
+        return itemRepository.findByOwnerIdOrderById(userId, PageRequest.of(from / size, size)).getContent();
     }
 
     @Override
-    public List<Item> searchItems(String text, Integer from, Integer size) {
+    public long countOwnerItems(Long userId) {
+        return itemRepository.countByOwnerId(userId);
+    }
+
+    @Override
+    public List<Item> searchItems(String text, LocalDateTime start, LocalDateTime end, Integer from, Integer size) {
         if (text.isBlank()) {
             return Collections.emptyList();
         }
-        return itemRepository.search(text, PageRequest.of(from / size, size)).toList();
+        boolean byPeriod = checkSearchPeriod(start, end);
+        PageRequest page = PageRequest.of(from / size, size);
+        List<Item> items = Collections.emptyList();
+        switch (searchMode) {
+            case LIKE:
+                items = byPeriod
+                        ? itemRepository.searchAvailable(text, start, end, page).getContent()
+                        : itemRepository.search(text, page).getContent();
+                break;
+            case FULL_TEXT:
+                items = byPeriod
+                        ? itemRepository.searchAvailableFullText(text, start, end, page).getContent()
+                        : itemRepository.searchFullText(text, page).getContent();
+                break;
+            case TRIGRAM:
+                items = byPeriod
+                        ? itemRepository.searchAvailableTrigram(text, start, end, page).getContent()
+                        : itemRepository.searchTrigram(text, page).getContent();
+                break;
+            case INDEX:
+                items = byPeriod
+                        ? itemRepository.searchAvailable(text, start, end, page).getContent()
+                        : searchIndex.search(text, from, size);
+                break;
+        }
+        return items;
+    }
+
+    @Override
+    public long countSearchItems(String text, LocalDateTime start, LocalDateTime end) {
+        if (text.isBlank()) {
+            return 0;
+        }
+        boolean byPeriod = checkSearchPeriod(start, end);
+        long count = 0;
+        switch (searchMode) {
+            case LIKE:
+                count = byPeriod
+                        ? itemRepository.countSearchAvailable(text, start, end)
+                        : itemRepository.countSearch(text);
+                break;
+            case FULL_TEXT:
+                count = byPeriod
+                        ? itemRepository.countSearchAvailableFullText(text, start, end)
+                        : itemRepository.countSearchFullText(text);
+                break;
+            case TRIGRAM:
+                count = byPeriod
+                        ? itemRepository.countSearchAvailableTrigram(text, start, end)
+                        : itemRepository.countSearchTrigram(text);
+                break;
+            case INDEX:
+                count = byPeriod
+                        ? itemRepository.countSearchAvailable(text, start, end)
+                        : searchIndex.count(text);
+                break;
+        }
+        return count;
     }
 
     @Override
+    @Transactional
     public void delete(Long ownerId, Long itemId) {
         checkUser(ownerId);
         Item item = getById(itemId);
@@ -95,10 +258,13 @@ public class ItemServiceImpl implements ItemService {
             );
         }
         itemRepository.deleteById(itemId);
+        incrementRequestVersion(item);
+        searchIndex.remove(itemId);
         log.info("Удален предмет с id: {} у пользователя с id: {}", itemId, ownerId);
     }
 
     @Override
+    @Transactional
     public Comment addComment(Long userId, Comment comment, Long itemId) {
         checkUser(userId);
         checkItem(itemId);
@@ -115,7 +281,9 @@ public class ItemServiceImpl implements ItemService {
         comment.setItem(item);
         comment.setAuthor(user);
         log.info("Добавлен комментарий: {}", comment);
-        return commentRepository.save(comment);
+        Comment savedComment = commentRepository.save(comment);
+        itemRepository.incrementVersion(List.of(itemId));
+        return savedComment;
     }
 
     @Override
@@ -141,6 +309,45 @@ public class ItemServiceImpl implements ItemService {
         return dto;
     }
 
+    @Override
+    public List<ItemOutDto> addBookingsAndComments(List<Item> items, Long userId) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        LocalDateTime workTime = LocalDateTime.now();
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        List<Long> ownerItemIds = items.stream()
+                .filter(item -> Objects.equals(item.getOwner().getId(), userId))
+                .map(Item::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, Booking> lastBookings = Collections.emptyMap();
+        Map<Long, Booking> nextBookings = Collections.emptyMap();
+        if (!ownerItemIds.isEmpty()) {
+            lastBookings = groupByItemId(bookingRepository
+                    .findLastBookingsByItemIds(ownerItemIds, Status.APPROVED, workTime));
+            nextBookings = groupByItemId(bookingRepository
+                    .findNextBookingsByItemIds(ownerItemIds, Status.APPROVED, workTime));
+        }
+        Map<Long, List<Comment>> comments = commentRepository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+
+        List<ItemOutDto> result = new ArrayList<>();
+        for (Item item : items) {
+            ItemOutDto dto = ItemMapper.toItemOutDto(item);
+            Optional.ofNullable(lastBookings.get(item.getId()))
+                    .ifPresent(booking -> dto.setLastBooking(BookingMapper.toBookingShortDto(booking)));
+            Optional.ofNullable(nextBookings.get(item.getId()))
+                    .ifPresent(booking -> dto.setNextBooking(BookingMapper.toBookingShortDto(booking)));
+            dto.setComments(CommentMapper.toCommentOutDtoList(
+                    comments.getOrDefault(item.getId(), Collections.emptyList())));
+            result.add(dto);
+        }
+        return result;
+    }
+
     @Override
     public void checkItem(Long id) {
         if (!itemRepository.existsById(id)) {
@@ -157,8 +364,86 @@ public class ItemServiceImpl implements ItemService {
         return result;
     }
 
+    /**
+     * Владелец видит еще последнее и следующее бронирование, которые сменяются и без записи в базу,
+     * когда наступает начало подтвержденного бронирования, поэтому в его ETag входит число уже начавшихся.
+     */
+    @Override
+    public String getETag(Item item, Long userId) {
+        if (!Objects.equals(item.getOwner().getId(), userId)) {
+            return String.format("\"item-%s-%s\"", item.getId(), item.getVersion());
+        }
+        long started = bookingRepository.countByItemIdAndStatusAndStartBefore(
+                item.getId(), Status.APPROVED, LocalDateTime.now());
+        return String.format("\"item-%s-%s-%s\"", item.getId(), item.getVersion(), started);
+    }
+
+    /**
+     * Свободные периоды зависят только от подтвержденных бронирований предмета, а каждое подтверждение
+     * и удаление арендатора увеличивает версию предмета. Период и предмет проверяются до сравнения с
+     * If-None-Match, чтобы неверный запрос получил ошибку, а не 304.
+     */
+    @Override
+    public String getAvailabilityETag(Long itemId, LocalDateTime from, LocalDateTime to) {
+        checkPeriod(from, to);
+        return String.format("\"availability-%s-%s\"", itemId, getById(itemId).getVersion());
+    }
+
+    @Override
+    public void incrementVersion(Collection<Long> itemIds) {
+        if (!itemIds.isEmpty()) {
+            itemRepository.incrementVersion(itemIds);
+        }
+    }
+
+    private void incrementRequestVersion(Item item) {
+        if (item.getRequest() != null) {
+            requestRepository.incrementVersion(List.of(item.getRequest().getId()));
+        }
+    }
+
     private void checkUser(Long id) {
         userService.checkUser(id);
     }
 
+    private void checkPeriod(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания");
+        }
+    }
+
+    private boolean checkSearchPeriod(LocalDateTime start, LocalDateTime end) {
+        if (start == null && end == null) {
+            return false;
+        }
+        if (start == null || end == null) {
+            throw new ValidationException("Для поиска по датам нужно указать начало и окончание периода");
+        }
+        checkPeriod(start, end);
+        return true;
+    }
+
+    private Map<Long, Booking> groupByItemId(List<Booking> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(),
+                        (first, second) -> first.getId() < second.getId() ? first : second));
+    }
+
+    private List<TimeSlotDto> toFreeSlots(List<TimeSlotDto> busy, LocalDateTime from, LocalDateTime to) {
+        List<TimeSlotDto> free = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+        for (TimeSlotDto period : busy) {
+            if (period.getStart().isAfter(freeFrom)) {
+                free.add(new TimeSlotDto(freeFrom, period.getStart()));
+            }
+            if (period.getEnd().isAfter(freeFrom)) {
+                freeFrom = period.getEnd();
+            }
+        }
+        if (freeFrom.isBefore(to)) {
+            free.add(new TimeSlotDto(freeFrom, to));
+        }
+        return free;
+    }
+
 }
@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 public class ItemRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "description", nullable = false, length = 1023)
@@ -30,4 +31,10 @@ public class ItemRequest {
     @Column(name = "created", nullable = false)
     private LocalDateTime created;
 
+    /**
+     * Версия запроса вместе с предметами, добавленными в ответ на него, из нее строится ETag.
+     */
+    @Column(name = "version", nullable = false, insertable = false, updatable = false)
+    private Long version;
+
 }
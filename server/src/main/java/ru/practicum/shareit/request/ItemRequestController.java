@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
 import ru.practicum.shareit.request.dto.ItemRequestOutDto;
@@ -13,6 +14,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.item.ItemController.X_SHARED_USER_ID;
+import static ru.practicum.shareit.item.ItemController.X_TOTAL_COUNT;
 
 @Slf4j
 @RestController
@@ -40,17 +42,26 @@ public class ItemRequestController {
     @GetMapping("/all")
     public ResponseEntity<List<ItemRequestOutDto>> getAllRequests(@RequestHeader(X_SHARED_USER_ID) Long userId,
                                                   @RequestParam(defaultValue = "0") Integer from,
-                                                  @RequestParam(defaultValue = "10") Integer size) {
-        return ResponseEntity.ok(requestService.getAllRequests(userId, from, size).stream()
+                                                  @RequestParam(defaultValue = "10") Integer size,
+                                                  @RequestParam(defaultValue = "false") Boolean count) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (count) {
+            response.header(X_TOTAL_COUNT, String.valueOf(requestService.countAllRequests(userId)));
+        }
+        return response.body(requestService.getAllRequests(userId, from, size).stream()
                 .map(requestService::addItems)
                 .collect(Collectors.toList()));
     }
 
     @GetMapping("/{requestId}")
     public ResponseEntity<ItemRequestOutDto> getRequest(@RequestHeader(X_SHARED_USER_ID) Long userId,
-                                        @PathVariable("requestId") Long requestId) {
+                                        @PathVariable("requestId") Long requestId,
+                                        WebRequest webRequest) {
         ItemRequest request = requestService.getRequest(userId, requestId);
         log.info("Пользователь с id {} просматривает запрос с id: {}", userId, requestId);
+        if (webRequest.checkNotModified(requestService.getETag(request))) {
+            return null;
+        }
         return ResponseEntity.ok(requestService.addItems(request));
     }
 
@@ -1,16 +1,30 @@
 package ru.practicum.shareit.request.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.ItemRequest;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
     List<ItemRequest> findByRequesterIdOrderByCreatedAsc(Long requesterId);
 
-    Page<ItemRequest> findByIdIsNotOrderByCreatedAsc(Long userId, Pageable pageable);
+    Slice<ItemRequest> findByIdIsNotOrderByCreatedAsc(Long userId, Pageable pageable);
+
+    long countByIdIsNot(Long userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update ItemRequest r set r.version = r.version + 1 where r.id in ?1")
+    int incrementVersion(Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update ItemRequest r set r.version = r.version + 1 " +
+            "where r.id in (select i.request.id from Item i where i.owner.id = ?1)")
+    int incrementVersionByItemOwner(Long ownerId);
 
 }
@@ -13,8 +13,12 @@ public interface ItemRequestService {
 
     List<ItemRequest> getAllRequests(Long userId, Integer from, Integer size);
 
+    long countAllRequests(Long userId);
+
     ItemRequest getRequest(Long userId, Long requestId);
 
     ItemRequestOutDto addItems(ItemRequest itemRequest);
 
+    String getETag(ItemRequest itemRequest);
+
 }
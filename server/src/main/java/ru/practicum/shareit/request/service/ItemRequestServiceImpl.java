@@ -43,7 +43,12 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Override
     public List<ItemRequest> getAllRequests(Long userId, Integer from, Integer size) {
         checkUser(userId);
-        return requestRepository.findByIdIsNotOrderByCreatedAsc(userId, PageRequest.of(from / size, size)).toList();
+        return requestRepository.findByIdIsNotOrderByCreatedAsc(userId, PageRequest.of(from / size, size)).getContent();
+    }
+
+    @Override
+    public long countAllRequests(Long userId) {
+        return requestRepository.countByIdIsNot(userId);
     }
 
     @Override
@@ -63,6 +68,11 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return dto;
     }
 
+    @Override
+    public String getETag(ItemRequest itemRequest) {
+        return String.format("\"request-%s-%s\"", itemRequest.getId(), itemRequest.getVersion());
+    }
+
     private void checkUser(Long id) {
         userService.checkUser(id);
     }
@@ -11,6 +11,11 @@ import ru.practicum.shareit.user.service.UserService;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static ru.practicum.shareit.item.ItemController.AVAILABILITY_CACHE_TAG;
+import static ru.practicum.shareit.item.ItemController.ITEM_CACHE_TAG;
+import static ru.practicum.shareit.item.ItemController.SEARCH_CACHE_TAG;
+import static ru.practicum.shareit.item.ItemController.X_CACHE_INVALIDATE;
+
 @Slf4j
 @RestController
 @RequestMapping("/users")
@@ -32,14 +37,18 @@ public class UserController {
             @PathVariable Long userId) {
         User updatedUser = userService.update(UserMapper.toUser(userDto), userId);
         log.info("Обновлен пользователь: {} ", updatedUser);
-        return ResponseEntity.ok(UserMapper.toUserDto(updatedUser));
+        return ResponseEntity.ok()
+                .header(X_CACHE_INVALIDATE, ITEM_CACHE_TAG)
+                .body(UserMapper.toUserDto(updatedUser));
     }
 
     @DeleteMapping("/{userId}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long userId) {
         userService.delete(userId);
         log.info("Пользователь с id: {} удален", userId);
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok()
+                .header(X_CACHE_INVALIDATE, ITEM_CACHE_TAG, SEARCH_CACHE_TAG, AVAILABILITY_CACHE_TAG)
+                .build();
     }
 
     @GetMapping("/{userId}")
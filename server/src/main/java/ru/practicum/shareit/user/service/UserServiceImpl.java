@@ -2,8 +2,14 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.DataNotFoundException;
 import ru.practicum.shareit.exception.EmailAlreadyExistException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -16,6 +22,11 @@ import java.util.Optional;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository repository;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository requestRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemSearchIndex searchIndex;
+    private final BookingAvailabilityIndex availabilityIndex;
 
     @Override
     public List<User> getAll() {
@@ -28,21 +39,36 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public User update(User user, Long userId) {
         User newUser = getById(userId);
+        boolean renamed = user.getName() != null && !user.getName().equals(newUser.getName());
         Optional.ofNullable(user.getName()).ifPresent(newUser::setName);
         if (user.getEmail() != null) {
             isEmailUnique(user.getEmail(), userId);
             newUser.setEmail(user.getEmail());
         }
         repository.save(newUser);
+        if (renamed) {
+            itemRepository.incrementVersionByCommentAuthorOrBooker(userId);
+        }
         return newUser;
     }
 
     @Override
+    @Transactional
     public void delete(Long userId) {
         checkUser(userId);
+        List<Long> ownerItemIds = itemRepository.findIdsByOwnerId(userId);
+        List<Long> bookedItemIds = availabilityIndex.isEnabled()
+                ? bookingRepository.findItemIdsByBookerId(userId)
+                : List.of();
+        itemRepository.incrementVersionByCommentAuthorOrBooker(userId);
+        requestRepository.incrementVersionByItemOwner(userId);
         repository.deleteById(userId);
+        searchIndex.removeAll(ownerItemIds);
+        availabilityIndex.evictAll(ownerItemIds);
+        availabilityIndex.evictAll(bookedItemIds);
     }
 
     @Override
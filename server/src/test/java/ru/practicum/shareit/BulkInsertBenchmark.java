@@ -0,0 +1,123 @@
+package ru.practicum.shareit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Скорость массовой вставки предметов и бронирований с пакетной отправкой JDBC и без нее.
+ * По умолчанию работает на H2 (профиль test); для замера на PostgreSQL передайте
+ * -Dspring.profiles.active=default -Dspring.datasource.url=jdbc:postgresql://...?reWriteBatchedInserts=true
+ * через -jvmArgs. Запуск:
+ * mvn -pl server test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.practicum.shareit.BulkInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    @Param({"1000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private BookingRepository bookingRepository;
+    private TransactionTemplate transactionTemplate;
+    private User owner;
+    private User booker;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .profiles(System.getProperty("spring.profiles.active", "test"))
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize, "--logging.level.root=WARN");
+        itemRepository = context.getBean(ItemRepository.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+
+        owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("owner@yandex.ru")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("booker")
+                .email("booker@yandex.ru")
+                .build());
+    }
+
+    @TearDown(Level.Iteration)
+    public void cleanUp() {
+        bookingRepository.deleteAllInBatch();
+        itemRepository.deleteAllInBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int insertItemsAndBookings() {
+        return transactionTemplate.execute(status -> {
+            List<Item> items = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                items.add(Item.builder()
+                        .name("item " + i)
+                        .description("item description " + i)
+                        .available(true)
+                        .owner(owner)
+                        .build());
+            }
+            itemRepository.saveAll(items);
+
+            List<Booking> bookings = new ArrayList<>(rows);
+            for (Item item : items) {
+                bookings.add(Booking.builder()
+                        .start(START)
+                        .end(START.plusDays(1))
+                        .item(item)
+                        .booker(booker)
+                        .status(Status.WAITING)
+                        .build());
+            }
+            bookingRepository.saveAll(bookings);
+            return items.size() + bookings.size();
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BulkInsertBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+}
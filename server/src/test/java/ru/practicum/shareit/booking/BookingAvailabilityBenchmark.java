@@ -0,0 +1,130 @@
+package ru.practicum.shareit.booking;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение проверки пересечения бронирований запросом к БД и через BookingAvailabilityIndex.
+ * Запуск:
+ * mvn -pl server test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.practicum.shareit.booking.BookingAvailabilityBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingAvailabilityBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final int PROBES = 1024;
+
+    @Param({"100", "1000"})
+    private int bookingsPerItem;
+
+    private ConfigurableApplicationContext context;
+    private BookingRepository bookingRepository;
+    private BookingAvailabilityIndex availabilityIndex;
+    private Long itemId;
+    private LocalDateTime[] probeStarts;
+    private int probe;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .properties("shareit.booking.availability-index.enabled=true", "logging.level.root=WARN")
+                .run();
+        bookingRepository = context.getBean(BookingRepository.class);
+        availabilityIndex = context.getBean(BookingAvailabilityIndex.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+
+        User owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("owner@yandex.ru")
+                .build());
+        User booker = userRepository.save(User.builder()
+                .name("booker")
+                .email("booker@yandex.ru")
+                .build());
+        Item item = itemRepository.save(Item.builder()
+                .name("item")
+                .description("item description")
+                .available(true)
+                .owner(owner)
+                .build());
+        itemId = item.getId();
+
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < bookingsPerItem; i++) {
+            bookings.add(Booking.builder()
+                    .start(START.plusDays(2L * i))
+                    .end(START.plusDays(2L * i + 1))
+                    .item(item)
+                    .booker(booker)
+                    .status(Status.APPROVED)
+                    .build());
+        }
+        bookingRepository.saveAll(bookings);
+
+        Random random = new Random(42);
+        probeStarts = new LocalDateTime[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probeStarts[i] = START.plusHours(random.nextInt(bookingsPerItem * 48));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean sqlOverlapCheck() {
+        LocalDateTime start = nextProbe();
+        return bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(
+                itemId, Status.APPROVED, start.plusHours(6), start);
+    }
+
+    @Benchmark
+    public boolean indexOverlapCheck() {
+        LocalDateTime start = nextProbe();
+        return availabilityIndex.hasApprovedOverlap(itemId, start, start.plusHours(6));
+    }
+
+    private LocalDateTime nextProbe() {
+        probe = (probe + 1) & (PROBES - 1);
+        return probeStarts[probe];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookingAvailabilityBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+}
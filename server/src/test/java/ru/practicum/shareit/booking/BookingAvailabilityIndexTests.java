@@ -0,0 +1,195 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.availability.BookingRange;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class BookingAvailabilityIndexTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    private BookingRepository bookingRepository;
+    private BookingAvailabilityIndex availabilityIndex;
+
+    private Item item;
+    private Booking approved;
+    private Booking waiting;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        availabilityIndex = new BookingAvailabilityIndex(bookingRepository, true, 2);
+
+        item = Item.builder()
+                .id(1L)
+                .build();
+        approved = booking(1L, item, START, START.plusDays(2), Status.APPROVED);
+        waiting = booking(2L, item, START.plusDays(3), START.plusDays(4), Status.WAITING);
+
+        when(bookingRepository.findAllByItemIdAndStatusIn(eq(1L), anyCollection()))
+                .thenReturn(List.of(approved, waiting));
+    }
+
+    @Test
+    void overlapCheckUsesHalfOpenRangesAndLoadsItemOnce() {
+        assertTrue(availabilityIndex.hasApprovedOverlap(1L, START.plusDays(1), START.plusDays(3)));
+        assertTrue(availabilityIndex.hasApprovedOverlap(1L, START.minusDays(1), START.plusHours(1)));
+        assertFalse(availabilityIndex.hasApprovedOverlap(1L, START.plusDays(2), START.plusDays(3)));
+        assertFalse(availabilityIndex.hasApprovedOverlap(1L, START.minusDays(1), START));
+        assertFalse(availabilityIndex.hasApprovedOverlap(1L, START.plusDays(3), START.plusDays(4)));
+
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusIn(eq(1L), anyCollection());
+    }
+
+    @Test
+    void findOverlappingReturnsApprovedAndWaitingRanges() {
+        List<Long> ids = availabilityIndex.findOverlapping(1L, START.plusDays(1), START.plusDays(5)).stream()
+                .map(BookingRange::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of(1L, 2L), ids);
+    }
+
+    @Test
+    void updateMovesBookingBetweenStatuses() {
+        assertFalse(availabilityIndex.hasApprovedOverlap(1L, START.plusDays(3), START.plusDays(4)));
+
+        waiting.setStatus(Status.APPROVED);
+        availabilityIndex.update(waiting);
+        assertTrue(availabilityIndex.hasApprovedOverlap(1L, START.plusDays(3), START.plusDays(4)));
+
+        approved.setStatus(Status.REJECTED);
+        availabilityIndex.update(approved);
+        assertFalse(availabilityIndex.hasApprovedOverlap(1L, START, START.plusDays(1)));
+        assertEquals(1, availabilityIndex.findOverlapping(1L, START, START.plusDays(5)).size());
+
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusIn(eq(1L), anyCollection());
+    }
+
+    @Test
+    void overlappingApprovedRangesAreFound() {
+        Booking longBooking = booking(3L, item, START.minusDays(10), START.plusDays(10), Status.APPROVED);
+        when(bookingRepository.findAllByItemIdAndStatusIn(eq(1L), anyCollection()))
+                .thenReturn(List.of(longBooking, approved));
+
+        assertTrue(availabilityIndex.hasApprovedOverlap(1L, START.plusDays(5), START.plusDays(6)));
+    }
+
+    @Test
+    void overlapQueriesMatchFullScanOnRandomRanges() {
+        Random random = new Random(42);
+        List<Booking> bookings = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            LocalDateTime start = START.plusHours(random.nextInt(2000));
+            Status status = random.nextBoolean() ? Status.APPROVED : Status.WAITING;
+            bookings.add(booking(id, item, start, start.plusHours(1 + random.nextInt(200)), status));
+        }
+        when(bookingRepository.findAllByItemIdAndStatusIn(eq(1L), anyCollection())).thenReturn(bookings);
+        availabilityIndex.hasApprovedOverlap(1L, START, START.plusHours(1));
+
+        for (int i = 0; i < 200; i++) {
+            Booking changed = bookings.get(random.nextInt(bookings.size()));
+            changed.setStatus(random.nextInt(3) == 0 ? Status.REJECTED
+                    : random.nextBoolean() ? Status.APPROVED : Status.WAITING);
+            availabilityIndex.update(changed);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            LocalDateTime start = START.plusHours(random.nextInt(2300) - 100);
+            LocalDateTime end = start.plusHours(1 + random.nextInt(100));
+            List<Long> expected = bookings.stream()
+                    .filter(booking -> booking.getStatus() != Status.REJECTED)
+                    .filter(booking -> booking.getStart().isBefore(end) && booking.getEnd().isAfter(start))
+                    .sorted(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId))
+                    .map(Booking::getId)
+                    .collect(Collectors.toList());
+            boolean expectedApproved = bookings.stream()
+                    .filter(booking -> booking.getStatus() == Status.APPROVED)
+                    .anyMatch(booking -> booking.getStart().isBefore(end) && booking.getEnd().isAfter(start));
+
+            assertEquals(expected, availabilityIndex.findOverlapping(1L, start, end).stream()
+                    .map(BookingRange::getId)
+                    .collect(Collectors.toList()));
+            assertEquals(expectedApproved, availabilityIndex.hasApprovedOverlap(1L, start, end));
+        }
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusIn(eq(1L), anyCollection());
+    }
+
+    @Test
+    void leastRecentlyUsedItemsAreEvicted() {
+        when(bookingRepository.findAllByItemIdAndStatusIn(eq(2L), anyCollection())).thenReturn(List.of());
+        when(bookingRepository.findAllByItemIdAndStatusIn(eq(3L), anyCollection())).thenReturn(List.of());
+
+        availabilityIndex.hasApprovedOverlap(1L, START, START.plusDays(1));
+        availabilityIndex.hasApprovedOverlap(2L, START, START.plusDays(1));
+        availabilityIndex.hasApprovedOverlap(1L, START, START.plusDays(1));
+        availabilityIndex.hasApprovedOverlap(3L, START, START.plusDays(1));
+        availabilityIndex.hasApprovedOverlap(1L, START, START.plusDays(1));
+        availabilityIndex.hasApprovedOverlap(2L, START, START.plusDays(1));
+
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusIn(eq(1L), anyCollection());
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusIn(eq(2L), anyCollection());
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusIn(eq(3L), anyCollection());
+    }
+
+    @Test
+    void evictedItemsAreReloadedOnlyAfterCommit() {
+        assertTrue(availabilityIndex.hasApprovedOverlap(1L, START, START.plusDays(1)));
+        when(bookingRepository.findAllByItemIdAndStatusIn(eq(1L), anyCollection())).thenReturn(List.of(waiting));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            availabilityIndex.evictAll(List.of(1L));
+            assertTrue(availabilityIndex.hasApprovedOverlap(1L, START, START.plusDays(1)));
+
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(availabilityIndex.hasApprovedOverlap(1L, START, START.plusDays(1)));
+        assertEquals(List.of(2L), availabilityIndex.findOverlapping(1L, START, START.plusDays(5)).stream()
+                .map(BookingRange::getId)
+                .collect(Collectors.toList()));
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusIn(eq(1L), anyCollection());
+    }
+
+    @Test
+    void disabledIndexIgnoresUpdates() {
+        BookingAvailabilityIndex disabledIndex = new BookingAvailabilityIndex(bookingRepository, false, 2);
+        disabledIndex.update(approved);
+
+        assertFalse(disabledIndex.isEnabled());
+        verify(bookingRepository, never()).findAllByItemIdAndStatusIn(eq(1L), anyCollection());
+    }
+
+    private Booking booking(Long id, Item item, LocalDateTime start, LocalDateTime end, Status status) {
+        return Booking.builder()
+                .id(id)
+                .item(item)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build();
+    }
+
+}
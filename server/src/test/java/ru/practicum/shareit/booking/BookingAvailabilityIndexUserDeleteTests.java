@@ -0,0 +1,106 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "shareit.booking.availability-index.enabled=true")
+public class BookingAvailabilityIndexUserDeleteTests {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private User booker;
+    private User otherBooker;
+    private Item item;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("Alex")
+                .email("alexFirst@yandex.ru")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("Boris")
+                .email("boris@yandex.ru")
+                .build());
+        otherBooker = userRepository.save(User.builder()
+                .name("Vera")
+                .email("vera@yandex.ru")
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("itemName")
+                .description("item description")
+                .available(true)
+                .owner(owner)
+                .build());
+        start = LocalDateTime.now().plusDays(1).withNano(0);
+    }
+
+    @Test
+    void deletedBookerRangesDoNotBlockItem() {
+        Booking booking = bookingService.addBooking(booker.getId(), item.getId(), Booking.builder()
+                .start(start)
+                .end(start.plusDays(2))
+                .status(Status.WAITING)
+                .build());
+        bookingService.approveBooking(owner.getId(), booking.getId(), true);
+        assertEquals(List.of(new TimeSlotDto(start.plusDays(2), start.plusDays(3))),
+                itemService.getAvailability(item.getId(), start, start.plusDays(3)));
+
+        userService.delete(booker.getId());
+
+        assertEquals(List.of(new TimeSlotDto(start, start.plusDays(3))),
+                itemService.getAvailability(item.getId(), start, start.plusDays(3)));
+        Booking otherBooking = bookingService.addBooking(otherBooker.getId(), item.getId(), Booking.builder()
+                .start(start.plusDays(1))
+                .end(start.plusDays(3))
+                .status(Status.WAITING)
+                .build());
+        assertEquals(Status.APPROVED,
+                bookingService.approveBooking(owner.getId(), otherBooking.getId(), true).getStatus());
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+}
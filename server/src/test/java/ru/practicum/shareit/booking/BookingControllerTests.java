@@ -6,31 +6,46 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dto.BookingBulkDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingOutDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.DecisionOutcome;
+import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.BookingOverlapException;
+import ru.practicum.shareit.exception.DataNotFoundException;
 import ru.practicum.shareit.exception.UnknownEnumValueException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.ItemOutDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static ru.practicum.shareit.item.ItemController.TEXT_CSV_VALUE;
+import static ru.practicum.shareit.item.ItemController.X_CACHE_INVALIDATE;
 import static ru.practicum.shareit.item.ItemController.X_SHARED_USER_ID;
+import static ru.practicum.shareit.item.ItemController.X_TOTAL_COUNT;
 
 @WebMvcTest(controllers = BookingController.class)
 public class BookingControllerTests {
@@ -38,6 +53,9 @@ public class BookingControllerTests {
     @MockBean
     private BookingService bookingService;
 
+    @MockBean
+    private UserService userService;
+
     @Autowired
     private ObjectMapper mapper;
 
@@ -147,7 +165,8 @@ public class BookingControllerTests {
                 .andExpect(jsonPath("$.id", is(bookingOutDto.getId()), Long.class))
                 .andExpect(jsonPath("$.status", is(bookingOutDto.getStatus().toString()), Status.class))
                 .andExpect(jsonPath("$.booker.id", is(bookingOutDto.getBooker().getId()), Long.class))
-                .andExpect(jsonPath("$.item.id", is(bookingOutDto.getItem().getId()), Long.class));
+                .andExpect(jsonPath("$.item.id", is(bookingOutDto.getItem().getId()), Long.class))
+                .andExpect(header().string(X_CACHE_INVALIDATE, "availability:" + booking.getItem().getId()));
 
         verify(bookingService, times(1)).approveBooking(1L, bookingId, true);
     }
@@ -186,7 +205,7 @@ public class BookingControllerTests {
                 .andExpect(content().json(mapper.writeValueAsString(List.of(BookingMapper.toBookingOutDto(booking)))));
 
         verify(bookingService, times(1))
-                .getAllUserBookings(1L, "ALL", 0, 10);
+                .getAllUserBookings(1L, "ALL", 0, 11);
     }
 
     @Test
@@ -204,7 +223,86 @@ public class BookingControllerTests {
                 .andExpect(content().json(mapper.writeValueAsString(List.of(BookingMapper.toBookingOutDto(booking)))));
 
         verify(bookingService, times(1))
-                .getAllOwnerItemBookings(1L, "ALL", 0, 10);
+                .getAllOwnerItemBookings(1L, "ALL", 0, 11);
+    }
+
+    @Test
+    void getUserBookingsWithCursorShouldReturnNextCursorHeader() throws Exception {
+        String cursor = BookingCursor.of(State.ALL, booking).encode();
+        Booking next = Booking.builder()
+                .id(booking.getId() + 1)
+                .start(BOOKING_START.minusDays(1))
+                .end(BOOKING_END.minusDays(1))
+                .item(booking.getItem())
+                .booker(booking.getBooker())
+                .status(booking.getStatus())
+                .build();
+        when(bookingService.getUserBookingsAfter(anyLong(), anyString(), anyString(), anyInt()))
+                .thenReturn(List.of(booking, next));
+
+        mvc.perform(get("/bookings")
+                        .param("state", "ALL")
+                        .param("cursor", cursor)
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(X_SHARED_USER_ID, 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.X_NEXT_CURSOR, BookingCursor.of(State.ALL, booking).encode()))
+                .andExpect(content().json(mapper.writeValueAsString(List.of(BookingMapper.toBookingOutDto(booking))), true));
+
+        verify(bookingService, times(1)).getUserBookingsAfter(1L, "ALL", cursor, 2);
+        verify(bookingService, times(0)).getAllUserBookings(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void getUserBookingsShouldOmitNextCursorOnExactlyFullLastPage() throws Exception {
+        when(bookingService.getAllUserBookings(anyLong(), anyString(), anyInt(), anyInt()))
+                .thenReturn(List.of(booking));
+
+        mvc.perform(get("/bookings")
+                        .param("state", "PAST")
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(X_SHARED_USER_ID, 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BookingController.X_NEXT_CURSOR))
+                .andExpect(content().json(mapper.writeValueAsString(List.of(BookingMapper.toBookingOutDto(booking)))));
+
+        verify(bookingService, times(1)).getAllUserBookings(1L, "PAST", 0, 2);
+    }
+
+    @Test
+    void getOwnerItemBookingsWithCountShouldReturnTotalCountHeader() throws Exception {
+        when(bookingService.getAllOwnerItemBookings(anyLong(), anyString(), anyInt(), anyInt()))
+                .thenReturn(List.of(booking));
+        when(bookingService.countOwnerItemBookings(anyLong(), anyString()))
+                .thenReturn(7L);
+
+        mvc.perform(get("/bookings/owner")
+                        .param("state", "WAITING")
+                        .param("count", "true")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(X_SHARED_USER_ID, 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(X_TOTAL_COUNT, "7"));
+
+        verify(bookingService, times(1)).countOwnerItemBookings(1L, "WAITING");
+    }
+
+    @Test
+    void getOwnerItemBookingsWithCursorShouldOmitNextCursorOnLastPage() throws Exception {
+        when(bookingService.getOwnerItemBookingsAfter(anyLong(), anyString(), anyString(), anyInt()))
+                .thenReturn(List.of(booking));
+
+        mvc.perform(get("/bookings/owner")
+                        .param("state", "ALL")
+                        .param("cursor", "")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(X_SHARED_USER_ID, 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BookingController.X_NEXT_CURSOR));
+
+        verify(bookingService, times(1)).getOwnerItemBookingsAfter(1L, "ALL", "", 11);
     }
 
     @Test
@@ -235,4 +333,119 @@ public class BookingControllerTests {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void approveOverlappingBookingShouldReturn409() throws Exception {
+        when(bookingService.approveBooking(anyLong(), anyLong(), anyBoolean()))
+                .thenThrow(new BookingOverlapException("Бронирование 1 пересекается с уже подтвержденным бронированием"));
+
+        mvc.perform(patch("/bookings/1")
+                        .param("approved", "true")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(X_SHARED_USER_ID, 1L))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("Бронирование 1 пересекается с уже подтвержденным бронированием")));
+    }
+
+    @Test
+    void approveConcurrentlyModifiedBookingShouldReturn409() throws Exception {
+        when(bookingService.approveBooking(anyLong(), anyLong(), anyBoolean()))
+                .thenThrow(new OptimisticLockingFailureException("Row was updated or deleted by another transaction"));
+
+        mvc.perform(patch("/bookings/1")
+                        .param("approved", "true")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(X_SHARED_USER_ID, 1L))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("Данные были изменены другим запросом, повторите операцию")));
+    }
+
+    @Test
+    void decideBookingsShouldReturn200AndOutcomes() throws Exception {
+        BookingBulkDecisionDto decisionDto = BookingBulkDecisionDto.builder()
+                .bookingIds(List.of(1L, 2L))
+                .approved(true)
+                .build();
+        when(bookingService.decideBookings(anyLong(), anyList(), any(), anyBoolean()))
+                .thenReturn(List.of(
+                        new BookingDecisionDto(1L, DecisionOutcome.UPDATED, Status.APPROVED),
+                        new BookingDecisionDto(2L, DecisionOutcome.OVERLAP, Status.WAITING)));
+
+        mvc.perform(patch("/bookings/bulk")
+                        .content(mapper.writeValueAsString(decisionDto))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(X_SHARED_USER_ID, 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookingId", is(1)))
+                .andExpect(jsonPath("$[0].outcome", is("UPDATED")))
+                .andExpect(jsonPath("$[0].status", is("APPROVED")))
+                .andExpect(jsonPath("$[1].outcome", is("OVERLAP")))
+                .andExpect(header().string(X_CACHE_INVALIDATE, "availability"));
+
+        verify(bookingService, times(1)).decideBookings(1L, List.of(1L, 2L), null, true);
+        verify(bookingService, times(0)).approveBooking(anyLong(), anyLong(), anyBoolean());
+    }
+
+    @Test
+    void exportOwnerItemBookingsShouldStreamNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Booking> consumer = invocation.getArgument(1);
+            consumer.accept(booking);
+            consumer.accept(booking);
+            return null;
+        }).when(bookingService).exportOwnerItemBookings(eq(1L), any());
+
+        MvcResult result = mvc.perform(get("/bookings/owner/export")
+                        .header(X_SHARED_USER_ID, 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(bookingOutDto.getId(), mapper.readValue(lines[0], BookingOutDto.class).getId());
+        verify(userService, times(1)).checkUser(1L);
+    }
+
+    @Test
+    void exportOwnerItemBookingsShouldStreamCsv() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Booking> consumer = invocation.getArgument(1);
+            consumer.accept(booking);
+            return null;
+        }).when(bookingService).exportOwnerItemBookings(eq(1L), any());
+
+        MvcResult result = mvc.perform(get("/bookings/owner/export")
+                        .accept(TEXT_CSV_VALUE)
+                        .header(X_SHARED_USER_ID, 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(TEXT_CSV_VALUE))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals("id,start,end,status,itemId,itemName,bookerId,bookerName\n"
+                + "1,2024-03-02T02:02:00,2024-03-03T03:03:00,APPROVED,2,itemName,1,Alex\n", body);
+    }
+
+    @Test
+    void exportOwnerItemBookingsOfUnknownUserShouldReturn404() throws Exception {
+        doThrow(new DataNotFoundException("Не найден пользователь c id: 1")).when(userService).checkUser(1L);
+
+        mvc.perform(get("/bookings/owner/export")
+                        .header(X_SHARED_USER_ID, 1L))
+                .andExpect(status().isNotFound());
+
+        verify(bookingService, never()).exportOwnerItemBookings(anyLong(), any());
+    }
+
 }
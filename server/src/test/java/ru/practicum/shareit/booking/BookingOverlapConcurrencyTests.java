@@ -0,0 +1,254 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.BookingOverlapException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class BookingOverlapConcurrencyTests {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User owner;
+    private Item item;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("Alex")
+                .email("alexFirst@yandex.ru")
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("itemName")
+                .description("item description")
+                .available(true)
+                .owner(owner)
+                .build());
+        start = LocalDateTime.now().plusDays(1).withNano(0);
+    }
+
+    @Test
+    void concurrentApprovalsOfOverlappingBookingsApproveOnlyOne() throws Exception {
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            User booker = userRepository.save(User.builder()
+                    .name("Booker " + i)
+                    .email("booker" + i + "@yandex.ru")
+                    .build());
+            bookings.add(bookingService.addBooking(booker.getId(), item.getId(), Booking.builder()
+                    .start(start.plusHours(i))
+                    .end(start.plusHours(i).plusDays(1))
+                    .status(Status.WAITING)
+                    .build()));
+        }
+
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        runConcurrently(bookings.size(), index -> {
+            try {
+                bookingService.approveBooking(owner.getId(), bookings.get(index).getId(), true);
+                approved.incrementAndGet();
+            } catch (BookingOverlapException e) {
+                conflicts.incrementAndGet();
+            } catch (Throwable e) {
+                unexpected.add(e);
+            }
+        });
+
+        assertTrue(unexpected.isEmpty(), () -> "Непредвиденные ошибки: " + unexpected);
+        assertEquals(1, approved.get());
+        assertEquals(THREADS - 1, conflicts.get());
+        assertEquals(1, bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == Status.APPROVED)
+                .count());
+    }
+
+    @Test
+    void concurrentRequestsOverlappingApprovedBookingAreRejected() throws Exception {
+        User firstBooker = userRepository.save(User.builder()
+                .name("Boris")
+                .email("Boris@yandex.ru")
+                .build());
+        Booking approvedBooking = bookingService.addBooking(firstBooker.getId(), item.getId(), Booking.builder()
+                .start(start)
+                .end(start.plusDays(2))
+                .status(Status.WAITING)
+                .build());
+        bookingService.approveBooking(owner.getId(), approvedBooking.getId(), true);
+
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(userRepository.save(User.builder()
+                    .name("Booker " + i)
+                    .email("booker" + i + "@yandex.ru")
+                    .build()));
+        }
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        runConcurrently(THREADS, index -> {
+            boolean overlapping = index % 2 == 0;
+            LocalDateTime bookingStart = overlapping ? start.plusDays(1) : start.plusDays(2);
+            try {
+                bookingService.addBooking(bookers.get(index).getId(), item.getId(), Booking.builder()
+                        .start(bookingStart)
+                        .end(bookingStart.plusDays(1))
+                        .status(Status.WAITING)
+                        .build());
+                created.incrementAndGet();
+            } catch (BookingOverlapException e) {
+                conflicts.incrementAndGet();
+            }
+        });
+
+        assertEquals(THREADS / 2, created.get());
+        assertEquals(THREADS / 2, conflicts.get());
+    }
+
+    @Test
+    void requestWaitsForUncommittedApprovalOfOverlappingBooking() throws Exception {
+        User firstBooker = userRepository.save(User.builder()
+                .name("Boris")
+                .email("Boris@yandex.ru")
+                .build());
+        User secondBooker = userRepository.save(User.builder()
+                .name("Ivan")
+                .email("Ivan@yandex.ru")
+                .build());
+        Booking waiting = bookingService.addBooking(firstBooker.getId(), item.getId(), Booking.builder()
+                .start(start)
+                .end(start.plusDays(2))
+                .status(Status.WAITING)
+                .build());
+
+        CountDownLatch approvedInTransaction = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> approval = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                bookingService.approveBooking(owner.getId(), waiting.getId(), true);
+                approvedInTransaction.countDown();
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(approvedInTransaction.await(30, TimeUnit.SECONDS));
+
+            assertThrows(BookingOverlapException.class,
+                    () -> bookingService.addBooking(secondBooker.getId(), item.getId(), Booking.builder()
+                            .start(start.plusDays(1))
+                            .end(start.plusDays(3))
+                            .status(Status.WAITING)
+                            .build()));
+            approval.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    void concurrentDecisionsOnSameBookingApplyOnlyOne() throws Exception {
+        User booker = userRepository.save(User.builder()
+                .name("Boris")
+                .email("Boris@yandex.ru")
+                .build());
+        Booking booking = bookingService.addBooking(booker.getId(), item.getId(), Booking.builder()
+                .start(start)
+                .end(start.plusDays(1))
+                .status(Status.WAITING)
+                .build());
+
+        AtomicInteger decided = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        runConcurrently(THREADS, index -> {
+            try {
+                bookingService.approveBooking(owner.getId(), booking.getId(), index % 2 == 0);
+                decided.incrementAndGet();
+            } catch (ValidationException e) {
+                rejected.incrementAndGet();
+            } catch (Throwable e) {
+                unexpected.add(e);
+            }
+        });
+
+        assertTrue(unexpected.isEmpty(), () -> "Непредвиденные ошибки: " + unexpected);
+        assertEquals(1, decided.get());
+        assertEquals(THREADS - 1, rejected.get());
+        assertEquals(1L, bookingRepository.findById(booking.getId()).orElseThrow().getVersion());
+    }
+
+    private void runConcurrently(int tasks, IntConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks);
+        CountDownLatch ready = new CountDownLatch(tasks);
+        CountDownLatch go = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    go.await();
+                    task.accept(index);
+                    return null;
+                }));
+            }
+            ready.await();
+            go.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+}
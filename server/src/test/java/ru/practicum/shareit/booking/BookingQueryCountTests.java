@@ -0,0 +1,195 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingOutDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class BookingQueryCountTests {
+
+    private static final int ITEMS_COUNT = 3;
+    private static final int EXPORT_BOOKERS_COUNT = 1200;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("Alex")
+                .email("alexFirst@yandex.ru")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("Boris")
+                .email("Boris@yandex.ru")
+                .build());
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ITEMS_COUNT; i++) {
+            Item item = itemRepository.save(Item.builder()
+                    .name("item " + i)
+                    .description("item description " + i)
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            saveBooking(item, now.minusDays(3), now.minusDays(2), Status.APPROVED);
+            saveBooking(item, now.minusDays(1), now.plusDays(1), Status.APPROVED);
+            saveBooking(item, now.plusDays(2), now.plusDays(3), Status.APPROVED);
+            saveBooking(item, now.plusDays(4), now.plusDays(5), Status.WAITING);
+            saveBooking(item, now.plusDays(6), now.plusDays(7), Status.REJECTED);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(State.class)
+    void userBookingsQueryCountDoesNotDependOnPageSize(State state) {
+        long smallPageQueries = countQueries(
+                () -> bookingService.getAllUserBookings(booker.getId(), state.name(), 0, 1));
+        long largePageQueries = countQueries(
+                () -> bookingService.getAllUserBookings(booker.getId(), state.name(), 0, 20));
+
+        assertEquals(smallPageQueries, largePageQueries);
+    }
+
+    @ParameterizedTest
+    @EnumSource(State.class)
+    void ownerItemBookingsQueryCountDoesNotDependOnPageSize(State state) {
+        long smallPageQueries = countQueries(
+                () -> bookingService.getAllOwnerItemBookings(owner.getId(), state.name(), 0, 1));
+        long largePageQueries = countQueries(
+                () -> bookingService.getAllOwnerItemBookings(owner.getId(), state.name(), 0, 20));
+
+        assertEquals(smallPageQueries, largePageQueries);
+    }
+
+    @ParameterizedTest
+    @EnumSource(State.class)
+    void cursorBookingsQueryCountDoesNotDependOnPageSize(State state) {
+        long smallPageQueries = countQueries(
+                () -> bookingService.getOwnerItemBookingsAfter(owner.getId(), state.name(), null, 1));
+        long largePageQueries = countQueries(
+                () -> bookingService.getOwnerItemBookingsAfter(owner.getId(), state.name(), null, 20));
+
+        assertEquals(smallPageQueries, largePageQueries);
+    }
+
+    @Test
+    void exportDoesNotKeepEveryBookingInPersistenceContext() {
+        Item item = itemRepository.findAll().get(0);
+        LocalDateTime start = LocalDateTime.now().plusDays(10);
+        List<User> bookers = userRepository.saveAll(IntStream.range(0, EXPORT_BOOKERS_COUNT)
+                .mapToObj(i -> User.builder()
+                        .name("Booker " + i)
+                        .email("booker" + i + "@yandex.ru")
+                        .build())
+                .collect(Collectors.toList()));
+        bookingRepository.saveAll(bookers.stream()
+                .map(user -> Booking.builder()
+                        .start(start)
+                        .end(start.plusDays(1))
+                        .item(item)
+                        .booker(user)
+                        .status(Status.WAITING)
+                        .build())
+                .collect(Collectors.toList()));
+
+        AtomicInteger exported = new AtomicInteger();
+        AtomicInteger maxManaged = new AtomicInteger();
+        bookingService.exportOwnerItemBookings(owner.getId(), booking -> {
+            assertNotNull(booking.getBooker().getName());
+            exported.incrementAndGet();
+            maxManaged.accumulateAndGet(
+                    entityManager.unwrap(Session.class).getStatistics().getEntityCount(), Math::max);
+        });
+
+        assertEquals(EXPORT_BOOKERS_COUNT + ITEMS_COUNT * 5, exported.get());
+        assertTrue(maxManaged.get() < EXPORT_BOOKERS_COUNT,
+                () -> "В контексте персистентности накопилось сущностей: " + maxManaged.get());
+    }
+
+    private long countQueries(Supplier<List<Booking>> query) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return transactionTemplate.execute(status -> {
+            statistics.clear();
+            List<BookingOutDto> result = query.get().stream()
+                    .map(BookingMapper::toBookingOutDto)
+                    .collect(Collectors.toList());
+
+            assertFalse(result.isEmpty());
+            result.forEach(dto -> {
+                assertEquals(booker.getName(), dto.getBooker().getName());
+                assertNotNull(dto.getItem().getName());
+            });
+            return statistics.getPrepareStatementCount();
+        });
+    }
+
+    private void saveBooking(Item item, LocalDateTime start, LocalDateTime end, Status status) {
+        bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+}
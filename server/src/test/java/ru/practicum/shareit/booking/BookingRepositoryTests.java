@@ -0,0 +1,224 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.OffsetBasedPageRequest;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class BookingRepositoryTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    User owner;
+    User booker;
+    List<Booking> bookings;
+    List<Long> expectedIds;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("Alex")
+                .email("alexFirst@yandex.ru")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("Boris")
+                .email("Boris@yandex.ru")
+                .build());
+        Item item = itemRepository.save(Item.builder()
+                .name("itemName")
+                .description("item description")
+                .available(true)
+                .owner(owner)
+                .build());
+
+        bookings = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            LocalDateTime start = i < 3 ? START : START.plusDays(i);
+            bookings.add(bookingRepository.save(Booking.builder()
+                    .start(start)
+                    .end(start.plusHours(1))
+                    .item(item)
+                    .booker(booker)
+                    .status(Status.WAITING)
+                    .build()));
+        }
+        expectedIds = List.of(bookings.get(4).getId(), bookings.get(3).getId(),
+                bookings.get(2).getId(), bookings.get(1).getId(), bookings.get(0).getId());
+    }
+
+    @Test
+    void keysetPagesCoverAllBookingsWithoutDuplicates() {
+        List<Long> bookerIds = new ArrayList<>();
+        List<Long> ownerIds = new ArrayList<>();
+        BookingCursor bookerCursor = BookingCursor.first(State.ALL);
+        BookingCursor ownerCursor = BookingCursor.first(State.WAITING);
+        List<Booking> page;
+        do {
+            page = bookingRepository.findAllByBookerIdAfterCursor(booker.getId(),
+                    bookerCursor.getStart(), bookerCursor.getId(), PageRequest.of(0, 2));
+            page.forEach(booking -> bookerIds.add(booking.getId()));
+            if (!page.isEmpty()) {
+                bookerCursor = BookingCursor.of(State.ALL, page.get(page.size() - 1));
+            }
+        } while (page.size() == 2);
+        do {
+            page = bookingRepository.findAllByItemOwnerIdAndStatusAfterCursor(owner.getId(), Status.WAITING,
+                    ownerCursor.getStart(), ownerCursor.getId(), PageRequest.of(0, 2));
+            page.forEach(booking -> ownerIds.add(booking.getId()));
+            if (!page.isEmpty()) {
+                ownerCursor = BookingCursor.of(State.WAITING, page.get(page.size() - 1));
+            }
+        } while (page.size() == 2);
+
+        assertEquals(expectedIds, bookerIds);
+        assertEquals(expectedIds, ownerIds);
+    }
+
+    @Test
+    void cursorFromOffsetPageContinuesWithoutGapsOnEqualStart() {
+        List<Booking> firstPage = bookingRepository.findAllByBookerIdOrderByStartDescIdDesc(
+                booker.getId(), PageRequest.of(0, 3)).getContent();
+        BookingCursor cursor = BookingCursor.of(State.ALL, firstPage.get(firstPage.size() - 1));
+        List<Booking> nextPage = bookingRepository.findAllByBookerIdAfterCursor(booker.getId(),
+                cursor.getStart(), cursor.getId(), PageRequest.of(0, 3));
+
+        List<Long> ids = Stream.concat(firstPage.stream(), nextPage.stream())
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+        assertEquals(expectedIds, ids);
+    }
+
+    @Test
+    void offsetPageStartsAtRowNotAlignedToPageSize() {
+        List<Long> ids = bookingRepository.findAllByBookerIdOrderByStartDescIdDesc(
+                        booker.getId(), new OffsetBasedPageRequest(1, 3)).stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(expectedIds.subList(1, 4), ids);
+    }
+
+    @Test
+    void ownerBookingsStreamIsOrderedLikeKeysetPages() {
+        try (Stream<Booking> stream = bookingRepository.streamAllByItemOwnerIdOrderByStartDescIdDesc(owner.getId())) {
+            assertEquals(expectedIds, stream.map(Booking::getId).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void currentBookingsAreReturnedInAscendingOrder() {
+        BookingCursor first = BookingCursor.first(State.CURRENT);
+        List<Booking> page = bookingRepository.findCurrentByBookerIdAfterCursor(booker.getId(),
+                START.plusMinutes(30), first.getStart(), first.getId(), PageRequest.of(0, 2));
+        BookingCursor cursor = BookingCursor.of(State.CURRENT, page.get(page.size() - 1));
+        List<Booking> nextPage = bookingRepository.findCurrentByBookerIdAfterCursor(booker.getId(),
+                START.plusMinutes(30), cursor.getStart(), cursor.getId(), PageRequest.of(0, 2));
+
+        List<Long> ids = page.stream().map(Booking::getId).collect(Collectors.toList());
+        assertEquals(List.of(expectedIds.get(4), expectedIds.get(3)), ids);
+        assertEquals(1, nextPage.size());
+        assertEquals(expectedIds.get(2), nextPage.get(0).getId());
+        assertTrue(bookingRepository.findCurrentByBookerIdAfterCursor(booker.getId(), START.plusMinutes(30),
+                nextPage.get(0).getStart(), nextPage.get(0).getId(), PageRequest.of(0, 2)).isEmpty());
+    }
+
+    @Test
+    void conditionalApprovalUpdatesOnlyWaitingNonOverlappingBookingOfOwner() {
+        Long first = bookings.get(0).getId();
+        Long overlapping = bookings.get(1).getId();
+        Long later = bookings.get(3).getId();
+
+        assertEquals(0, bookingRepository.approveIfWaiting(later, booker.getId()));
+        assertEquals(1, bookingRepository.approveIfWaiting(first, owner.getId()));
+        assertEquals(0, bookingRepository.approveIfWaiting(first, owner.getId()));
+        assertEquals(0, bookingRepository.approveIfWaiting(overlapping, owner.getId()));
+        assertEquals(1, bookingRepository.rejectIfWaiting(overlapping, owner.getId()));
+        assertEquals(0, bookingRepository.rejectIfWaiting(overlapping, owner.getId()));
+
+        Booking approved = bookingRepository.findWithItemAndBookerById(first).orElseThrow();
+        assertEquals(Status.APPROVED, approved.getStatus());
+        assertEquals(1L, approved.getVersion());
+        assertEquals(Status.REJECTED, bookingRepository.findById(overlapping).orElseThrow().getStatus());
+        assertEquals(Status.WAITING, bookingRepository.findById(later).orElseThrow().getStatus());
+    }
+
+    @Test
+    void setBasedUpdateChangesOnlyWaitingBookings() {
+        Long first = bookings.get(0).getId();
+        Long overlapping = bookings.get(1).getId();
+        Long later = bookings.get(3).getId();
+        assertEquals(1, bookingRepository.approveIfWaiting(first, owner.getId()));
+
+        assertEquals(List.of(overlapping), bookingRepository.findIdsOverlappingApproved(List.of(overlapping, later)));
+        assertEquals(2, bookingRepository.findAllByIdInAndItemOwnerIdForUpdate(List.of(first, later), owner.getId())
+                .size());
+        assertTrue(bookingRepository.findAllByIdInAndItemOwnerIdForUpdate(List.of(first, later), booker.getId())
+                .isEmpty());
+        assertEquals(List.of(bookings.get(0).getItem().getId()),
+                bookingRepository.findItemIdsByIdInAndItemOwnerId(List.of(first, later), owner.getId()));
+        assertTrue(bookingRepository.findItemIdsByIdInAndItemOwnerId(List.of(first, later), booker.getId()).isEmpty());
+        assertEquals(4, bookingRepository.findAllByItemIdAndStatusForUpdate(
+                bookings.get(0).getItem().getId(), Status.WAITING).size());
+
+        assertEquals(2, bookingRepository.updateStatusIfWaiting(List.of(first, overlapping, later), Status.REJECTED));
+        assertEquals(Status.APPROVED, bookingRepository.findById(first).orElseThrow().getStatus());
+        assertEquals(Status.REJECTED, bookingRepository.findById(later).orElseThrow().getStatus());
+    }
+
+    @Test
+    void staleBookingUpdateFails() {
+        Booking saved = bookings.get(3);
+        Booking stale = Booking.builder()
+                .id(saved.getId())
+                .start(saved.getStart())
+                .end(saved.getEnd())
+                .item(saved.getItem())
+                .booker(saved.getBooker())
+                .status(saved.getStatus())
+                .version(saved.getVersion())
+                .build();
+        assertEquals(1, bookingRepository.approveIfWaiting(stale.getId(), owner.getId()));
+
+        stale.setStatus(Status.CANCELED);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bookingRepository.saveAndFlush(stale));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+}
@@ -8,20 +8,29 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.DecisionOutcome;
+import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.BookingOverlapException;
 import ru.practicum.shareit.exception.DataNotFoundException;
+import ru.practicum.shareit.exception.UnknownEnumValueException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.pagination.OffsetBasedPageRequest;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -96,7 +105,7 @@ public class BookingServiceTests {
 
     @Test
     void  addBooking() {
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
 
@@ -108,12 +117,28 @@ public class BookingServiceTests {
         assertEquals(testBooking.getStart(), bookingFromDto.getStart());
         assertEquals(testBooking.getEnd(), bookingFromDto.getEnd());
 
+        verify(itemRepository, times(1)).findByIdForUpdate(1L);
+        verify(itemRepository, times(0)).findById(anyLong());
         verify(bookingRepository, times(1)).save(any(Booking.class));
     }
 
+    @Test
+    void  addBookingOverlappingApprovedBookingFail() {
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
+        when(bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(
+                anyLong(), any(Status.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(true);
+
+        assertThrows(BookingOverlapException.class, () -> bookingService.addBooking(bookerId, 1L, bookingFromDto));
+        verify(bookingRepository, times(1)).existsByItemIdAndStatusAndStartBeforeAndEndAfter(
+                1L, Status.APPROVED, BOOKING_END, BOOKING_START);
+        verify(bookingRepository, times(0)).save(any(Booking.class));
+    }
+
     @Test
     void  addBookingByOwnerFail() {
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
 
         assertThrows(DataNotFoundException.class, () -> bookingService.addBooking(ownerId,1L, bookingFromDto));
@@ -124,7 +149,7 @@ public class BookingServiceTests {
     void  addBookingForNotAvailableItemFail() {
         item.setAvailable(false);
 
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
 
         assertThrows(ValidationException.class, () -> bookingService.addBooking(bookerId, 1L, bookingFromDto));
@@ -135,7 +160,7 @@ public class BookingServiceTests {
     void  addBookingEndIsBeforeStartFail() {
         bookingFromDto.setEnd(BOOKING_END.minusDays(3));
 
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
 
         assertThrows(ValidationException.class, () -> bookingService.addBooking(bookerId, 1L, bookingFromDto));
@@ -146,7 +171,7 @@ public class BookingServiceTests {
     void  addBookingEndIsEqualsStartFail() {
         bookingFromDto.setEnd(BOOKING_START);
 
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
 
         assertThrows(ValidationException.class, () -> bookingService.addBooking(bookerId, 1L, bookingFromDto));
@@ -204,48 +229,144 @@ public class BookingServiceTests {
 
     @Test
     void  approveBooking() {
-        booking.setStatus(Status.WAITING);
-
-        when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(itemRepository.incrementVersionByWaitingBooking(anyLong(), anyLong())).thenReturn(1);
+        when(bookingRepository.approveIfWaiting(anyLong(), anyLong())).thenReturn(1);
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
 
         Booking testApproveBooking = bookingService.approveBooking(ownerId, bookingId, true);
         assertEquals(testApproveBooking.getStatus(), Status.APPROVED);
-        verify(bookingRepository, times(1)).save(testApproveBooking);
+        verify(itemRepository, times(1)).incrementVersionByWaitingBooking(bookingId, ownerId);
+        verify(bookingRepository, times(1)).approveIfWaiting(bookingId, ownerId);
 
-        booking.setStatus(Status.WAITING);
+        booking.setStatus(Status.REJECTED);
+        when(bookingRepository.rejectIfWaiting(anyLong(), anyLong())).thenReturn(1);
 
         Booking testRejectBooking = bookingService.approveBooking(ownerId, bookingId, false);
         assertEquals(testRejectBooking.getStatus(), Status.REJECTED);
-        verify(bookingRepository, times(2)).save(any(Booking.class));
+        verify(bookingRepository, times(1)).rejectIfWaiting(bookingId, ownerId);
+        verify(itemRepository, times(1)).incrementVersionByWaitingBooking(anyLong(), anyLong());
+        verify(bookingRepository, times(0)).save(any(Booking.class));
+    }
+
+    @Test
+    void  approveOverlappingBookingFail() {
+        booking.setStatus(Status.WAITING);
+
+        when(itemRepository.incrementVersionByWaitingBooking(anyLong(), anyLong())).thenReturn(1);
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
+
+        assertThrows(BookingOverlapException.class, () -> bookingService.approveBooking(ownerId, bookingId, true));
+        verify(bookingRepository, times(1)).approveIfWaiting(bookingId, ownerId);
     }
 
     @Test
     void  approveApprovedBookingFail() {
-        when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
 
         assertThrows(ValidationException.class, () -> bookingService.approveBooking(ownerId, bookingId, true));
-        verify(bookingRepository, times(0)).save(any(Booking.class));
+
+        booking.setStatus(Status.REJECTED);
+        assertThrows(ValidationException.class, () -> bookingService.approveBooking(ownerId, bookingId, false));
     }
 
     @Test
     void  approveBookingNotByItemOwnerFail() {
-        when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
 
         assertThrows(DataNotFoundException.class,
                 () -> bookingService.approveBooking(bookerId, bookingId, true));
-        verify(bookingRepository, times(0)).save(any(Booking.class));
+        verify(itemRepository, times(1)).incrementVersionByWaitingBooking(bookingId, bookerId);
+        verify(bookingRepository, times(0)).approveIfWaiting(anyLong(), anyLong());
+    }
+
+    @Test
+    void  approveUnknownBookingFail() {
+        assertThrows(DataNotFoundException.class,
+                () -> bookingService.approveBooking(ownerId, 99L, true));
+        verify(bookingRepository, times(0)).approveIfWaiting(anyLong(), anyLong());
+        verify(bookingRepository, times(1)).findWithItemAndBookerById(99L);
+    }
+
+    @Test
+    void decideBookingsReportsOutcomePerId() {
+        Booking waiting = bookingWithStatus(1L, BOOKING_START, BOOKING_END, Status.WAITING);
+        Booking decided = bookingWithStatus(2L, BOOKING_START, BOOKING_END, Status.REJECTED);
+        Booking overlappingApproved = bookingWithStatus(4L, BOOKING_END, BOOKING_END.plusDays(1), Status.WAITING);
+        Booking overlappingBatch = bookingWithStatus(5L, BOOKING_START.plusHours(1), BOOKING_END, Status.WAITING);
+        List<Long> ids = List.of(1L, 2L, 3L, 4L, 5L);
+        when(bookingRepository.findItemIdsByIdInAndItemOwnerId(anyList(), anyLong())).thenReturn(List.of(item.getId()));
+        when(itemRepository.findAllByIdInAndOwnerIdForUpdate(anyCollection(), anyLong())).thenReturn(List.of(item));
+        when(bookingRepository.findAllByIdInAndItemOwnerIdForUpdate(anyList(), anyLong()))
+                .thenReturn(List.of(waiting, decided, overlappingApproved, overlappingBatch));
+        when(bookingRepository.findIdsOverlappingApproved(anyCollection())).thenReturn(List.of(4L));
+        when(bookingRepository.updateStatusIfWaiting(anyCollection(), any(Status.class))).thenReturn(1);
+
+        List<BookingDecisionDto> decisions = bookingService.decideBookings(ownerId, ids, null, true);
+
+        assertEquals(List.of(
+                new BookingDecisionDto(1L, DecisionOutcome.UPDATED, Status.APPROVED),
+                new BookingDecisionDto(2L, DecisionOutcome.ALREADY_DECIDED, Status.REJECTED),
+                new BookingDecisionDto(3L, DecisionOutcome.NOT_FOUND, null),
+                new BookingDecisionDto(4L, DecisionOutcome.OVERLAP, Status.WAITING),
+                new BookingDecisionDto(5L, DecisionOutcome.OVERLAP, Status.WAITING)), decisions);
+        verify(bookingRepository, times(1)).findItemIdsByIdInAndItemOwnerId(ids, ownerId);
+        verify(itemRepository, times(1)).findAllByIdInAndOwnerIdForUpdate(List.of(item.getId()), ownerId);
+        verify(bookingRepository, times(1)).findAllByIdInAndItemOwnerIdForUpdate(ids, ownerId);
+        verify(bookingRepository, times(1)).updateStatusIfWaiting(List.of(1L), Status.APPROVED);
+        assertEquals(Status.WAITING, waiting.getStatus());
+        assertEquals(0L, waiting.getVersion());
+    }
+
+    @Test
+    void decideBookingsOfItemRejectsAllWaiting() {
+        when(itemRepository.findAllByIdInAndOwnerIdForUpdate(anyCollection(), anyLong())).thenReturn(List.of(item));
+        when(bookingRepository.findAllByItemIdAndStatusForUpdate(anyLong(), any(Status.class))).thenReturn(List.of(
+                bookingWithStatus(1L, BOOKING_START, BOOKING_END, Status.WAITING),
+                bookingWithStatus(2L, BOOKING_START, BOOKING_END, Status.WAITING)));
+
+        List<BookingDecisionDto> decisions = bookingService.decideBookings(ownerId, null, item.getId(), false);
+
+        assertEquals(2, decisions.size());
+        assertTrue(decisions.stream().allMatch(decision -> decision.getOutcome() == DecisionOutcome.UPDATED
+                && decision.getStatus() == Status.REJECTED));
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusForUpdate(item.getId(), Status.WAITING);
+        verify(bookingRepository, times(1)).updateStatusIfWaiting(List.of(1L, 2L), Status.REJECTED);
+        verify(bookingRepository, times(0)).findIdsOverlappingApproved(anyCollection());
+    }
+
+    @Test
+    void decideBookingsWithWrongTargetFail() {
+        assertThrows(ValidationException.class,
+                () -> bookingService.decideBookings(ownerId, List.of(1L), item.getId(), true));
+        assertThrows(ValidationException.class,
+                () -> bookingService.decideBookings(ownerId, List.of(), null, true));
+        assertThrows(ValidationException.class,
+                () -> bookingService.decideBookings(ownerId, List.of(1L), null, null));
+
+        when(itemRepository.findAllByIdInAndOwnerIdForUpdate(anyCollection(), eq(ownerId))).thenReturn(List.of(item));
+        assertThrows(DataNotFoundException.class,
+                () -> bookingService.decideBookings(bookerId, null, item.getId(), true));
+        verify(itemRepository, times(1)).findAllByIdInAndOwnerIdForUpdate(List.of(item.getId()), bookerId);
+        verify(bookingRepository, times(0)).updateStatusIfWaiting(anyCollection(), any(Status.class));
+    }
+
+    @Test
+    void decideBookingsOfOtherOwnerReportsNotFound() {
+        List<BookingDecisionDto> decisions = bookingService.decideBookings(bookerId, List.of(bookingId), null, true);
+
+        assertEquals(List.of(new BookingDecisionDto(bookingId, DecisionOutcome.NOT_FOUND, null)), decisions);
+        verify(itemRepository, times(0)).findAllByIdInAndOwnerIdForUpdate(anyCollection(), anyLong());
+        verify(bookingRepository, times(1)).findAllByIdInAndItemOwnerIdForUpdate(List.of(bookingId), bookerId);
+        verify(bookingRepository, times(0)).updateStatusIfWaiting(anyCollection(), any(Status.class));
     }
 
     @Test
     void getAllUserBookings() {
-        Pageable pageable = PageRequest.of(0, 10);
+        Pageable pageable = new OffsetBasedPageRequest(0, 10);
         when(userRepository.existsById(anyLong())).thenReturn(true);
 
         String state = "ALL";
-        when(bookingRepository.findAllByBookerIdOrderByStartDesc(anyLong(), any(Pageable.class)))
+        when(bookingRepository.findAllByBookerIdOrderByStartDescIdDesc(anyLong(), any(Pageable.class)))
                 .thenReturn(new PageImpl<>(List.of(booking)));
 
         List<Booking> testBookingList = bookingService.getAllUserBookings(bookerId, state, 0, 10);
@@ -255,10 +376,10 @@ public class BookingServiceTests {
         assertEquals(testBookingList.get(0).getBooker(), booker);
 
         verify(bookingRepository, times(1))
-                .findAllByBookerIdOrderByStartDesc(bookerId, pageable);
+                .findAllByBookerIdOrderByStartDescIdDesc(bookerId, pageable);
 
         state = "CURRENT";
-        when(bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartAsc(
+        when(bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartAscIdAsc(
                 anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(new PageImpl<>(List.of(booking)));
 
@@ -269,11 +390,11 @@ public class BookingServiceTests {
         assertEquals(testBookingList.get(0).getBooker(), booker);
 
         verify(bookingRepository, times(1))
-                .findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartAsc(
+                .findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartAscIdAsc(
                         anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
 
         state = "PAST";
-        when(bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(
+        when(bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDescIdDesc(
                 anyLong(), any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(new PageImpl<>(List.of(booking)));
 
@@ -284,11 +405,11 @@ public class BookingServiceTests {
         assertEquals(testBookingList.get(0).getBooker(), booker);
 
         verify(bookingRepository, times(1))
-                .findAllByBookerIdAndEndBeforeOrderByStartDesc(
+                .findAllByBookerIdAndEndBeforeOrderByStartDescIdDesc(
                         anyLong(), any(LocalDateTime.class), any(Pageable.class));
 
         state = "FUTURE";
-        when(bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(
+        when(bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDescIdDesc(
                 anyLong(), any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(new PageImpl<>(List.of(booking)));
 
@@ -299,11 +420,11 @@ public class BookingServiceTests {
         assertEquals(testBookingList.get(0).getBooker(), booker);
 
         verify(bookingRepository, times(1))
-                .findAllByBookerIdAndStartAfterOrderByStartDesc(
+                .findAllByBookerIdAndStartAfterOrderByStartDescIdDesc(
                         anyLong(), any(LocalDateTime.class), any(Pageable.class));
 
         state = "WAITING";
-        when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(
+        when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDescIdDesc(
                 anyLong(), any(Status.class), any(Pageable.class)))
                 .thenReturn(new PageImpl<>(List.of(booking)));
 
@@ -314,7 +435,7 @@ public class BookingServiceTests {
         assertEquals(testBookingList.get(0).getBooker(), booker);
 
         state = "REJECTED";
-        when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(
+        when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDescIdDesc(
                 anyLong(), any(Status.class), any(Pageable.class)))
                 .thenReturn(new PageImpl<>(List.of(booking)));
 
@@ -325,7 +446,7 @@ public class BookingServiceTests {
         assertEquals(testBookingList.get(0).getBooker(), booker);
 
         verify(bookingRepository, times(2))
-                .findAllByBookerIdAndStatusOrderByStartDesc(
+                .findAllByBookerIdAndStatusOrderByStartDescIdDesc(
                         anyLong(), any(Status.class), any(Pageable.class));
     }
 
@@ -335,7 +456,7 @@ public class BookingServiceTests {
         when(itemRepository.findByOwnerIdOrderById(anyLong(), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(item)));
 
         String state = "ALL";
-        when(bookingRepository.findAllByItemOwnerIdOrderByStartDesc(anyLong(), any(PageRequest.class)))
+        when(bookingRepository.findAllByItemOwnerIdOrderByStartDescIdDesc(anyLong(), any(Pageable.class)))
                 .thenReturn(new PageImpl<>(List.of(booking)));
 
         List<Booking> testBookingList = bookingService.getAllOwnerItemBookings(ownerId, state, 0, 10);
@@ -345,12 +466,12 @@ public class BookingServiceTests {
         assertEquals(testBookingList.get(0).getItem().getOwner(), owner);
 
         verify(bookingRepository, times(1))
-                .findAllByItemOwnerIdOrderByStartDesc(
+                .findAllByItemOwnerIdOrderByStartDescIdDesc(
                         anyLong(), any(Pageable.class));
 
         state = "CURRENT";
-        when(bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartAsc(
-                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(PageRequest.class)))
+        when(bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartAscIdAsc(
+                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(new PageImpl<>(List.of(booking)));
 
         testBookingList = bookingService.getAllOwnerItemBookings(ownerId, state, 0, 10);
@@ -360,12 +481,12 @@ public class BookingServiceTests {
         assertEquals(testBookingList.get(0).getItem().getOwner(), owner);
 
         verify(bookingRepository, times(1))
-                .findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartAsc(
-                        anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(PageRequest.class));
+                .findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartAscIdAsc(
+                        anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
 
         state = "PAST";
-        when(bookingRepository.findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(
-                anyLong(), any(LocalDateTime.class), any(PageRequest.class)))
+        when(bookingRepository.findAllByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(
+                anyLong(), any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(new PageImpl<>(List.of(booking)));
 
         testBookingList = bookingService.getAllOwnerItemBookings(ownerId, state, 0, 10);
@@ -375,12 +496,12 @@ public class BookingServiceTests {
         assertEquals(testBookingList.get(0).getItem().getOwner(), owner);
 
         verify(bookingRepository, times(1))
-                .findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(
+                .findAllByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(
                         anyLong(), any(LocalDateTime.class), any(Pageable.class));
 
         state = "FUTURE";
-        when(bookingRepository.findAllByItemOwnerIdAndStartAfterOrderByStartDesc(
-                anyLong(), any(LocalDateTime.class), any(PageRequest.class)))
+        when(bookingRepository.findAllByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(
+                anyLong(), any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(new PageImpl<>(List.of(booking)));
 
         testBookingList = bookingService.getAllOwnerItemBookings(ownerId, state, 0, 10);
@@ -390,12 +511,12 @@ public class BookingServiceTests {
         assertEquals(testBookingList.get(0).getItem().getOwner(), owner);
 
         verify(bookingRepository, times(1))
-                .findAllByItemOwnerIdAndStartAfterOrderByStartDesc(
+                .findAllByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(
                         anyLong(), any(LocalDateTime.class), any(Pageable.class));
 
         state = "WAITING";
-        when(bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(
-                anyLong(), any(Status.class), any(PageRequest.class)))
+        when(bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(
+                anyLong(), any(Status.class), any(Pageable.class)))
                 .thenReturn(new PageImpl<>(List.of(booking)));
 
         testBookingList = bookingService.getAllOwnerItemBookings(ownerId, state, 0, 10);
@@ -405,8 +526,8 @@ public class BookingServiceTests {
         assertEquals(testBookingList.get(0).getItem().getOwner(), owner);
 
         state = "REJECTED";
-        when(bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(
-                anyLong(), any(Status.class), any(PageRequest.class)))
+        when(bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(
+                anyLong(), any(Status.class), any(Pageable.class)))
                 .thenReturn(new PageImpl<>(List.of(booking)));
 
         testBookingList = bookingService.getAllOwnerItemBookings(ownerId, state, 0, 10);
@@ -416,7 +537,7 @@ public class BookingServiceTests {
         assertEquals(testBookingList.get(0).getItem().getOwner(), owner);
 
         verify(bookingRepository, times(2))
-                .findAllByItemOwnerIdAndStatusOrderByStartDesc(
+                .findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(
                         anyLong(), any(Status.class), any(Pageable.class));
     }
 
@@ -429,4 +550,149 @@ public class BookingServiceTests {
                 bookerId, "ALL", 0, 10));
     }
 
+    @Test
+    void getUserBookingsAfterCursor() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findAllByBookerIdAfterCursor(
+                anyLong(), any(LocalDateTime.class), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(booking));
+
+        List<Booking> testBookingList = bookingService.getUserBookingsAfter(bookerId, "ALL", null, 10);
+
+        assertEquals(testBookingList.get(0).getId(), booking.getId());
+        BookingCursor first = BookingCursor.first(State.ALL);
+        verify(bookingRepository, times(1)).findAllByBookerIdAfterCursor(bookerId,
+                first.getStart(), first.getId(), PageRequest.of(0, 10));
+
+        BookingCursor cursor = BookingCursor.of(State.CURRENT, booking);
+        when(bookingRepository.findCurrentByBookerIdAfterCursor(
+                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(booking));
+
+        testBookingList = bookingService.getUserBookingsAfter(bookerId, "CURRENT", cursor.encode(), 10);
+
+        assertEquals(testBookingList.get(0).getId(), booking.getId());
+        verify(bookingRepository, times(1)).findCurrentByBookerIdAfterCursor(eq(bookerId),
+                any(LocalDateTime.class), eq(cursor.getStart()), eq(cursor.getId()), eq(PageRequest.of(0, 10)));
+
+        bookingService.getUserBookingsAfter(bookerId, "PAST", BookingCursor.of(State.PAST, booking).encode(), 10);
+        bookingService.getUserBookingsAfter(bookerId, "FUTURE", BookingCursor.of(State.FUTURE, booking).encode(), 10);
+        bookingService.getUserBookingsAfter(bookerId, "WAITING", BookingCursor.of(State.WAITING, booking).encode(), 10);
+        bookingService.getUserBookingsAfter(bookerId, "REJECTED",
+                BookingCursor.of(State.REJECTED, booking).encode(), 10);
+
+        verify(bookingRepository, times(1)).findPastByBookerIdAfterCursor(
+                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), any(Pageable.class));
+        verify(bookingRepository, times(1)).findFutureByBookerIdAfterCursor(
+                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), any(Pageable.class));
+        verify(bookingRepository, times(2)).findAllByBookerIdAndStatusAfterCursor(
+                anyLong(), any(Status.class), any(LocalDateTime.class), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void getOwnerItemBookingsAfterCursor() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(itemRepository.findByOwnerIdOrderById(anyLong(), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(item)));
+        when(bookingRepository.findAllByItemOwnerIdAfterCursor(
+                anyLong(), any(LocalDateTime.class), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(booking));
+
+        List<Booking> testBookingList = bookingService.getOwnerItemBookingsAfter(ownerId, "ALL", "", 10);
+
+        assertEquals(testBookingList.get(0).getId(), booking.getId());
+        BookingCursor first = BookingCursor.first(State.ALL);
+        verify(bookingRepository, times(1)).findAllByItemOwnerIdAfterCursor(ownerId,
+                first.getStart(), first.getId(), PageRequest.of(0, 10));
+
+        for (State state : List.of(State.CURRENT, State.PAST, State.FUTURE, State.WAITING, State.REJECTED)) {
+            bookingService.getOwnerItemBookingsAfter(ownerId, state.name(),
+                    BookingCursor.of(state, booking).encode(), 10);
+        }
+
+        verify(bookingRepository, times(1)).findCurrentByItemOwnerIdAfterCursor(
+                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), any(Pageable.class));
+        verify(bookingRepository, times(1)).findPastByItemOwnerIdAfterCursor(
+                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), any(Pageable.class));
+        verify(bookingRepository, times(1)).findFutureByItemOwnerIdAfterCursor(
+                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), any(Pageable.class));
+        verify(bookingRepository, times(2)).findAllByItemOwnerIdAndStatusAfterCursor(
+                anyLong(), any(Status.class), any(LocalDateTime.class), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void getBookingsWithCursorOfAnotherStateFail() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(itemRepository.findByOwnerIdOrderById(anyLong(), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(item)));
+        String pastCursor = BookingCursor.of(State.PAST, booking).encode();
+
+        assertThrows(ValidationException.class,
+                () -> bookingService.getUserBookingsAfter(bookerId, "CURRENT", pastCursor, 10));
+        assertThrows(ValidationException.class,
+                () -> bookingService.getOwnerItemBookingsAfter(ownerId, "FUTURE", pastCursor, 10));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void countBookingsByState() {
+        when(bookingRepository.countByBookerId(anyLong())).thenReturn(4L);
+        when(bookingRepository.countByItemOwnerIdAndStatus(anyLong(), any(Status.class))).thenReturn(2L);
+
+        assertEquals(4L, bookingService.countUserBookings(bookerId, "ALL"));
+        bookingService.countUserBookings(bookerId, "CURRENT");
+        bookingService.countUserBookings(bookerId, "PAST");
+        bookingService.countUserBookings(bookerId, "FUTURE");
+        assertEquals(2L, bookingService.countOwnerItemBookings(ownerId, "WAITING"));
+        bookingService.countOwnerItemBookings(ownerId, "REJECTED");
+
+        verify(bookingRepository, times(1)).countByBookerIdAndStartBeforeAndEndAfter(
+                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(bookingRepository, times(1)).countByBookerIdAndEndBefore(anyLong(), any(LocalDateTime.class));
+        verify(bookingRepository, times(1)).countByBookerIdAndStartAfter(anyLong(), any(LocalDateTime.class));
+        verify(bookingRepository, times(1)).countByItemOwnerIdAndStatus(ownerId, Status.WAITING);
+        verify(bookingRepository, times(1)).countByItemOwnerIdAndStatus(ownerId, Status.REJECTED);
+        assertThrows(UnknownEnumValueException.class, () -> bookingService.countUserBookings(bookerId, "UNKNOWN"));
+    }
+
+    @Test
+    void getUserBookingsWithMalformedCursorFail() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+
+        assertThrows(ValidationException.class,
+                () -> bookingService.getUserBookingsAfter(bookerId, "ALL", "not-a-cursor", 10));
+    }
+
+    private Booking bookingWithStatus(Long id, LocalDateTime start, LocalDateTime end, Status status) {
+        return Booking.builder()
+                .id(id)
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .version(0L)
+                .build();
+    }
+
+    @Test
+    void exportOwnerItemBookingsPassesEveryBookingToConsumer() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.streamAllByItemOwnerIdOrderByStartDescIdDesc(ownerId))
+                .thenReturn(Stream.of(booking, bookingFromDto));
+        List<Booking> exported = new ArrayList<>();
+
+        bookingService.exportOwnerItemBookings(ownerId, exported::add);
+
+        assertEquals(List.of(booking, bookingFromDto), exported);
+    }
+
+    @Test
+    void exportOwnerItemBookingsOfUnknownUserFail() {
+        when(userRepository.existsById(anyLong())).thenReturn(false);
+
+        assertThrows(DataNotFoundException.class,
+                () -> bookingService.exportOwnerItemBookings(ownerId, booking -> { }));
+
+        verify(bookingRepository, never()).streamAllByItemOwnerIdOrderByStartDescIdDesc(anyLong());
+    }
+
 }
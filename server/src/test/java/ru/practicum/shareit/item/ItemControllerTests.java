@@ -6,11 +6,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.importer.ItemImporter;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemImportFormat;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
@@ -18,14 +22,20 @@ import ru.practicum.shareit.user.User;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static ru.practicum.shareit.item.ItemController.X_CACHE_INVALIDATE;
+import static ru.practicum.shareit.item.ItemController.X_ITEM_OWNER_ID;
 import static ru.practicum.shareit.item.ItemController.X_SHARED_USER_ID;
+import static ru.practicum.shareit.item.ItemController.X_TOTAL_COUNT;
 
 @WebMvcTest(controllers = ItemController.class)
 public class ItemControllerTests {
@@ -33,6 +43,9 @@ public class ItemControllerTests {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private ItemImporter itemImporter;
+
     @Autowired
     private ObjectMapper mapper;
 
@@ -132,6 +145,61 @@ public class ItemControllerTests {
                 .create(1L, ItemMapper.toItem(itemDto), itemRequest.getId());
     }
 
+    @Test
+    void addItemsShouldReturn200AndItemDtoListInOrder() throws Exception {
+        Item second = Item.builder()
+                .id(itemId + 1)
+                .name("secondName")
+                .description("second description")
+                .available(false)
+                .owner(item.getOwner())
+                .build();
+        when(itemService.createAll(anyLong(), anyList()))
+                .thenReturn(List.of(item, second));
+
+        mvc.perform(post("/items/batch")
+                        .content(mapper.writeValueAsString(List.of(itemDto, ItemMapper.toItemDto(second))))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(X_SHARED_USER_ID, 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(itemId), Long.class))
+                .andExpect(jsonPath("$[0].requestId", is(itemRequest.getId()), Long.class))
+                .andExpect(jsonPath("$[1].id", is(second.getId()), Long.class))
+                .andExpect(jsonPath("$[1].available", is(false), Boolean.class));
+
+        verify(itemService, times(1)).createAll(eq(1L), anyList());
+    }
+
+    @Test
+    void importItemsShouldStreamErrorsAndResult() throws Exception {
+        when(itemImporter.importItems(anyLong(), any(), eq(ItemImportFormat.CSV), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<ItemImportErrorDto> errors = invocation.getArgument(3);
+                    errors.accept(new ItemImportErrorDto(3L, "Описание предмета не может быть пустым"));
+                    return new ItemImportResultDto(1L, 1L);
+                });
+
+        String report = mvc.perform(post("/items/import")
+                        .content("name,description,available\nitem,desc,true\nitem,,true\n")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(ItemController.TEXT_CSV_VALUE)
+                        .header(X_SHARED_USER_ID, 1L))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = report.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(new ItemImportErrorDto(3L, "Описание предмета не может быть пустым"),
+                mapper.readValue(lines[0], ItemImportErrorDto.class));
+        assertEquals(new ItemImportResultDto(1L, 1L), mapper.readValue(lines[1], ItemImportResultDto.class));
+    }
+
     @Test
     void updateItemShouldReturn200AndItemDto() throws Exception {
         when(itemService.update(any(Item.class), anyLong(), anyLong()))
@@ -148,7 +216,8 @@ public class ItemControllerTests {
                 .andExpect(jsonPath("$.name", is(itemDto.getName()), String.class))
                 .andExpect(jsonPath("$.description", is(itemDto.getDescription()), String.class))
                 .andExpect(jsonPath("$.available", is(itemDto.getAvailable()), Boolean.class))
-                .andExpect(jsonPath("$.requestId", is(itemDto.getRequestId()), Long.class));
+                .andExpect(jsonPath("$.requestId", is(itemDto.getRequestId()), Long.class))
+                .andExpect(header().stringValues(X_CACHE_INVALIDATE, "item:1", "search"));
 
         verify(itemService, times(1)).update(ItemMapper.toItem(itemDto), itemId, 1L);
     }
@@ -170,19 +239,46 @@ public class ItemControllerTests {
                 .andExpect(jsonPath("$.name", is(itemOutDto.getName()), String.class))
                 .andExpect(jsonPath("$.description", is(itemOutDto.getDescription()), String.class))
                 .andExpect(jsonPath("$.available", is(itemOutDto.getAvailable()), Boolean.class))
-                .andExpect(jsonPath("$.requestId", is(itemOutDto.getRequestId()), Long.class));
+                .andExpect(jsonPath("$.requestId", is(itemOutDto.getRequestId()), Long.class))
+                .andExpect(header().string(X_ITEM_OWNER_ID, String.valueOf(item.getOwner().getId())));
 
         verify(itemService, times(1)).getById(itemId);
         verify(itemService, times(1)).addBookingAndComments(item, 1L);
     }
 
+    @Test
+    void getItemByIdShouldReturnETagAnd304WhenNotModified() throws Exception {
+        when(itemService.getById(anyLong()))
+                .thenReturn(item);
+        when(itemService.getETag(any(Item.class), anyLong()))
+                .thenReturn("\"item-1-3\"");
+        when(itemService.addBookingAndComments(any(Item.class), anyLong()))
+                .thenReturn(itemOutDto);
+
+        mvc.perform(get("/items/{itemId}", itemId)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(X_SHARED_USER_ID, 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"item-1-3\""));
+
+        mvc.perform(get("/items/{itemId}", itemId)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(X_SHARED_USER_ID, 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"item-1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"item-1-3\""))
+                .andExpect(content().string(""));
+
+        verify(itemService, times(1)).addBookingAndComments(item, 1L);
+    }
+
     @Test
     void getAllOwnerItemsShouldReturn200AndItemOutDtoList() throws Exception {
         when(itemService.getOwnerItems(anyLong(), anyInt(), anyInt()))
                 .thenReturn(List.of(item));
 
-        when(itemService.addBookingAndComments(any(Item.class), anyLong()))
-                .thenReturn(itemOutDto);
+        when(itemService.addBookingsAndComments(anyList(), anyLong()))
+                .thenReturn(List.of(itemOutDto));
 
         mvc.perform(get("/items")
                         .param("from", "0")
@@ -195,11 +291,12 @@ public class ItemControllerTests {
                 .andExpect(content().json(mapper.writeValueAsString(List.of(itemOutDto))));
 
         verify(itemService, times(1)).getOwnerItems(1L, 0, 10);
+        verify(itemService, times(1)).addBookingsAndComments(List.of(item), 1L);
     }
 
     @Test
     void searchItemsShouldReturn200AndItemOutDtoList() throws Exception {
-        when(itemService.searchItems(anyString(), anyInt(), anyInt()))
+        when(itemService.searchItems(anyString(), any(), any(), anyInt(), anyInt()))
                 .thenReturn(List.of(item));
 
         mvc.perform(get("/items/search")
@@ -212,7 +309,114 @@ public class ItemControllerTests {
                 .andExpect(status().isOk())
                 .andExpect(content().json(mapper.writeValueAsString(List.of(itemDto))));
 
-        verify(itemService, times(1)).searchItems("text", 0, 10);
+        verify(itemService, times(1)).searchItems("text", null, null, 0, 10);
+    }
+
+    @Test
+    void searchItemsWithCountShouldReturnTotalCountHeader() throws Exception {
+        when(itemService.searchItems(anyString(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of(item));
+        when(itemService.countSearchItems(anyString(), any(), any()))
+                .thenReturn(42L);
+
+        mvc.perform(get("/items/search")
+                        .param("text", "text")
+                        .param("count", "true")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(X_TOTAL_COUNT, "42"))
+                .andExpect(content().json(mapper.writeValueAsString(List.of(itemDto))));
+
+        verify(itemService, times(1)).countSearchItems("text", null, null);
+    }
+
+    @Test
+    void searchItemsWithoutCountShouldNotCount() throws Exception {
+        when(itemService.searchItems(anyString(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of(item));
+
+        mvc.perform(get("/items/search")
+                        .param("text", "text")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(X_TOTAL_COUNT));
+
+        verify(itemService, times(0)).countSearchItems(anyString(), any(), any());
+    }
+
+    @Test
+    void searchItemsWithPeriodShouldPassPeriodToService() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 4, 10, 0);
+        LocalDateTime end = start.plusDays(2);
+        when(itemService.searchItems(anyString(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of(item));
+
+        mvc.perform(get("/items/search")
+                        .param("text", "text")
+                        .param("start", "2030-01-04T10:00:00")
+                        .param("end", "2030-01-06T10:00:00")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(List.of(itemDto))));
+
+        verify(itemService, times(1)).searchItems("text", start, end, 0, 10);
+    }
+
+    @Test
+    void getAvailabilityShouldReturn200AndTimeSlotList() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 12, 0);
+        LocalDateTime to = from.plusDays(5);
+        List<TimeSlotDto> slots = List.of(new TimeSlotDto(from, from.plusDays(1)), new TimeSlotDto(from.plusDays(3), to));
+        when(itemService.getAvailability(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(slots);
+        when(itemService.getAvailabilityETag(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn("\"availability-1-3\"");
+
+        mvc.perform(get("/items/1/availability")
+                        .param("from", "2030-01-01T12:00:00")
+                        .param("to", "2030-01-06T12:00:00")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(slots)))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"availability-1-3\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+
+        verify(itemService, times(1)).getAvailability(1L, from, to);
+    }
+
+    @Test
+    void getAvailabilityShouldReturn304WhenNotModified() throws Exception {
+        when(itemService.getAvailabilityETag(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn("\"availability-1-3\"");
+
+        mvc.perform(get("/items/1/availability")
+                        .param("from", "2030-01-01T12:00:00")
+                        .param("to", "2030-01-06T12:00:00")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"availability-1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"availability-1-3\""))
+                .andExpect(content().string(""));
+
+        verify(itemService, never()).getAvailability(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void getAvailabilityWithInvalidPeriodShouldReturn400EvenIfETagMatches() throws Exception {
+        when(itemService.getAvailabilityETag(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenThrow(new ValidationException("Начало периода должно быть раньше его окончания"));
+
+        mvc.perform(get("/items/1/availability")
+                        .param("from", "2030-01-06T12:00:00")
+                        .param("to", "2030-01-01T12:00:00")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"availability-1-3\""))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).getAvailability(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class));
     }
 
     @Test
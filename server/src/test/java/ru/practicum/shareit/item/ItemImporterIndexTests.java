@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.importer.ItemImporter;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemImportFormat;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = {"shareit.items.import.batch-size=2", "shareit.search.mode=INDEX"})
+public class ItemImporterIndexTests {
+
+    @Autowired
+    private ItemImporter itemImporter;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @SpyBean
+    private ItemSearchIndex searchIndex;
+
+    private User owner;
+    private List<ItemImportErrorDto> errors;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("Alex")
+                .email("alexFirst@yandex.ru")
+                .build());
+        errors = new ArrayList<>();
+        searchIndex.rebuild();
+        clearInvocations(searchIndex);
+    }
+
+    @Test
+    void importedChunksAreIndexedWithoutRebuild() throws Exception {
+        String body = "{\"name\":\"drill\",\"description\":\"good drill\",\"available\":true}\n"
+                + "{\"name\":\"saw\",\"description\":\"hand saw\",\"available\":true}\n"
+                + "{\"name\":\"drill press\",\"description\":\"bench drill\",\"available\":true}";
+
+        ItemImportResultDto result = itemImporter.importItems(
+                owner.getId(), new StringReader(body), ItemImportFormat.NDJSON, errors::add);
+
+        assertEquals(new ItemImportResultDto(3L, 0L), result);
+        assertTrue(errors.isEmpty());
+        verify(searchIndex, times(2)).indexAll(anyCollection());
+        verify(searchIndex, never()).rebuild();
+        assertEquals(3, searchIndex.getStats().getItems());
+
+        List<Long> drillIds = itemRepository.findAll().stream()
+                .filter(item -> item.getName().startsWith("drill"))
+                .map(Item::getId)
+                .sorted()
+                .collect(Collectors.toList());
+        List<Long> foundIds = searchIndex.search("drill", 0, 10).stream()
+                .map(Item::getId)
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals(drillIds, foundIds);
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+        searchIndex.rebuild();
+    }
+
+}
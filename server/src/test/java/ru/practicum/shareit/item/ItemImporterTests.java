@@ -0,0 +1,164 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.exception.DataNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.importer.ItemImporter;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemImportFormat;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "shareit.items.import.batch-size=2")
+public class ItemImporterTests {
+
+    @Autowired
+    private ItemImporter itemImporter;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemRequestRepository requestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private ItemRequest request;
+    private List<ItemImportErrorDto> errors;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("Alex")
+                .email("alexFirst@yandex.ru")
+                .build());
+        User requester = userRepository.save(User.builder()
+                .name("Boris")
+                .email("Boris@yandex.ru")
+                .build());
+        request = requestRepository.save(ItemRequest.builder()
+                .description("item request 1")
+                .requester(requester)
+                .created(LocalDateTime.now())
+                .build());
+        errors = new ArrayList<>();
+    }
+
+    @Test
+    void importNdjsonSavesValidRowsAndReportsInvalidOnes() throws Exception {
+        String body = "{\"name\":\"drill\",\"description\":\"good drill\",\"available\":true}\n"
+                + "{\"name\":\"\",\"description\":\"no name\",\"available\":true}\n"
+                + "\n"
+                + "{\"name\":\"saw\",\"description\":\"hand saw\",\"available\":false,\"requestId\":"
+                + request.getId() + "}\n"
+                + "{broken\n"
+                + "{\"name\":\"hammer\",\"description\":\"unknown request\",\"available\":true,\"requestId\":999999}\n"
+                + "{\"name\":\"ladder\",\"description\":\"tall ladder\",\"available\":true}";
+
+        ItemImportResultDto result = itemImporter.importItems(
+                owner.getId(), new StringReader(body), ItemImportFormat.NDJSON, errors::add);
+
+        assertEquals(new ItemImportResultDto(3L, 3L), result);
+        assertEquals(List.of(2L, 5L, 6L), errors.stream()
+                .map(ItemImportErrorDto::getLine)
+                .sorted()
+                .collect(Collectors.toList()));
+
+        List<Item> items = itemRepository.findAll();
+        items.sort(Comparator.comparing(Item::getId));
+        assertEquals(List.of("drill", "saw", "ladder"), items.stream()
+                .map(Item::getName)
+                .collect(Collectors.toList()));
+        assertTrue(items.stream().allMatch(item -> item.getOwner().getId().equals(owner.getId())));
+        assertEquals(request.getId(), items.get(1).getRequest().getId());
+        assertFalse(items.get(1).getAvailable());
+    }
+
+    @Test
+    void importCsvWithQuotedFields() throws Exception {
+        String body = "available,name,description,requestId\n"
+                + "true,\"drill, cordless\",\"18V \"\"pro\"\" drill\",\n"
+                + "yes,saw,hand saw,\n"
+                + "false,saw,hand saw," + request.getId() + "\n";
+
+        ItemImportResultDto result = itemImporter.importItems(
+                owner.getId(), new StringReader(body), ItemImportFormat.CSV, errors::add);
+
+        assertEquals(new ItemImportResultDto(2L, 1L), result);
+        assertEquals(1, errors.size());
+        assertEquals(3L, errors.get(0).getLine());
+        List<Item> items = itemRepository.findAll();
+        assertTrue(items.stream().anyMatch(item -> item.getName().equals("drill, cordless")
+                && item.getDescription().equals("18V \"pro\" drill")
+                && item.getRequest() == null));
+    }
+
+    @Test
+    void importedItemsGetContiguousIdsAcrossChunks() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            body.append("{\"name\":\"item").append(i).append("\",\"description\":\"imported\",\"available\":true}\n");
+        }
+
+        ItemImportResultDto result = itemImporter.importItems(
+                owner.getId(), new StringReader(body.toString()), ItemImportFormat.NDJSON, errors::add);
+        Item saved = itemRepository.save(Item.builder()
+                .name("saved")
+                .description("saved by repository")
+                .available(true)
+                .owner(owner)
+                .build());
+
+        assertEquals(new ItemImportResultDto(5L, 0L), result);
+        List<Long> importedIds = itemRepository.findAll().stream()
+                .filter(item -> !item.getId().equals(saved.getId()))
+                .map(Item::getId)
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals(5, importedIds.size());
+        assertEquals(importedIds.get(0) + 4, importedIds.get(4));
+        assertFalse(importedIds.contains(saved.getId()));
+    }
+
+    @Test
+    void importCsvWithoutRequiredColumnsFail() {
+        assertThrows(ValidationException.class, () -> itemImporter.importItems(owner.getId(),
+                new StringReader("name,available\ndrill,true\n"), ItemImportFormat.CSV, errors::add));
+        assertTrue(itemRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void importForUnknownOwnerFail() {
+        assertThrows(DataNotFoundException.class, () -> itemImporter.importItems(-1L,
+                new StringReader("{\"name\":\"drill\",\"description\":\"drill\",\"available\":true}"),
+                ItemImportFormat.NDJSON, errors::add));
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+}
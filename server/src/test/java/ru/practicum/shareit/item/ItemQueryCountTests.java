@@ -0,0 +1,168 @@
+package ru.practicum.shareit.item;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemOutDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class ItemQueryCountTests {
+
+    private static final int ITEMS_COUNT = 20;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("Alex")
+                .email("alexFirst@yandex.ru")
+                .build());
+        User booker = userRepository.save(User.builder()
+                .name("Boris")
+                .email("Boris@yandex.ru")
+                .build());
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ITEMS_COUNT; i++) {
+            Item item = itemRepository.save(Item.builder()
+                    .name("item " + i)
+                    .description("item description " + i)
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            bookingRepository.save(Booking.builder()
+                    .start(now.minusDays(2))
+                    .end(now.minusDays(1))
+                    .item(item)
+                    .booker(booker)
+                    .status(Status.APPROVED)
+                    .build());
+            bookingRepository.save(Booking.builder()
+                    .start(now.plusDays(1))
+                    .end(now.plusDays(2))
+                    .item(item)
+                    .booker(booker)
+                    .status(Status.APPROVED)
+                    .build());
+            commentRepository.save(Comment.builder()
+                    .text("comment " + i)
+                    .item(item)
+                    .author(booker)
+                    .created(now)
+                    .build());
+        }
+    }
+
+    @Test
+    void ownerItemsEnrichmentQueryCountDoesNotDependOnPageSize() {
+        long smallPageQueries = countOwnerItemsQueries(2);
+        long largePageQueries = countOwnerItemsQueries(ITEMS_COUNT);
+
+        assertEquals(smallPageQueries, largePageQueries);
+    }
+
+    @Test
+    void ownerItemsPageDoesNotIssueCountQuery() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Item> items = itemService.getOwnerItems(owner.getId(), 0, 2);
+
+        assertEquals(2, items.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void bulkItemInsertIsBatched() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(Item.builder()
+                    .name("batch item " + i)
+                    .description("batch item description " + i)
+                    .available(true)
+                    .owner(owner)
+                    .build());
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            statistics.clear();
+            itemRepository.saveAll(items);
+        });
+
+        assertTrue(items.stream().allMatch(item -> item.getId() != null));
+        assertEquals(items.size(), statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 6,
+                () -> "Выполнено запросов: " + statistics.getPrepareStatementCount());
+    }
+
+    private long countOwnerItemsQueries(int size) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return transactionTemplate.execute(status -> {
+            statistics.clear();
+            List<Item> items = itemService.getOwnerItems(owner.getId(), 0, size);
+            List<ItemOutDto> result = itemService.addBookingsAndComments(items, owner.getId());
+
+            assertEquals(size, result.size());
+            result.forEach(dto -> {
+                assertNotNull(dto.getLastBooking());
+                assertNotNull(dto.getNextBooking());
+                assertEquals(1, dto.getComments().size());
+            });
+            return statistics.getPrepareStatementCount();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+}
@@ -5,15 +5,22 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 public class ItemRepositoryTests {
@@ -24,6 +31,12 @@ public class ItemRepositoryTests {
     @Autowired
     ItemRepository itemRepository;
 
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
     Item firstitem;
     Item secondItem;
     User user;
@@ -69,10 +82,107 @@ public class ItemRepositoryTests {
         assertEquals("item", descriptionSearchResult.get(0).getName());
     }
 
+    @Test
+    void searchSkipsUnavailableItems() {
+        Item unavailableItem = Item.builder()
+                .name("unavailable")
+                .description("unavailable description for search test")
+                .available(false)
+                .owner(user)
+                .build();
+        itemRepository.save(unavailableItem);
+
+        List<Item> nameSearchResult = itemRepository.search("unavailable", PageRequest.of(0, 10))
+                .toList();
+        assertTrue(nameSearchResult.isEmpty());
+
+        List<Item> descriptionSearchResult = itemRepository.search("search test", PageRequest.of(0, 10))
+                .toList();
+        assertEquals(1, descriptionSearchResult.size());
+        assertEquals(secondItem.getId(), descriptionSearchResult.get(0).getId());
+    }
+
+    @Test
+    void searchAvailableSkipsItemsWithOverlappingApprovedBooking() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        saveBooking(firstitem, start, start.plusDays(2), Status.APPROVED);
+        saveBooking(secondItem, start, start.plusDays(2), Status.WAITING);
+        saveBooking(secondItem, start.plusDays(2), start.plusDays(3), Status.APPROVED);
+
+        List<Item> busyPeriodResult = itemRepository.searchAvailable("item", start.plusDays(1), start.plusDays(2),
+                PageRequest.of(0, 10)).toList();
+        assertEquals(List.of(secondItem.getId()), busyPeriodResult.stream().map(Item::getId).collect(Collectors.toList()));
+        assertEquals(1, itemRepository.countSearchAvailable("item", start.plusDays(1), start.plusDays(2)));
+
+        List<Item> freePeriodResult = itemRepository.searchAvailable("item", start.plusDays(3), start.plusDays(4),
+                PageRequest.of(0, 10)).toList();
+        assertEquals(2, freePeriodResult.size());
+    }
+
+    private void saveBooking(Item item, LocalDateTime start, LocalDateTime end, Status status) {
+        bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(user)
+                .status(status)
+                .build());
+    }
+
     @AfterEach
     void tearDown() {
+        bookingRepository.deleteAll();
         itemRepository.deleteAll();
         userRepository.deleteAll();
     }
 
+    @Test
+    void incrementVersionTest() {
+        Booking booking = Booking.builder()
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .item(secondItem)
+                .booker(user)
+                .status(Status.APPROVED)
+                .build();
+        bookingRepository.save(booking);
+
+        assertEquals(1, itemRepository.incrementVersion(List.of(firstitem.getId())));
+        assertEquals(1, itemRepository.incrementVersionByCommentAuthorOrBooker(user.getId()));
+        entityManager.clear();
+
+        assertEquals(1L, itemRepository.findById(firstitem.getId()).orElseThrow().getVersion());
+        assertEquals(1L, itemRepository.findById(secondItem.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void incrementVersionByWaitingBookingTest() {
+        User booker = userRepository.save(User.builder()
+                .name("Boris")
+                .email("Boris@yandex.ru")
+                .build());
+        Booking waiting = bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(firstitem)
+                .booker(booker)
+                .status(Status.WAITING)
+                .build());
+        Booking rejected = bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(firstitem)
+                .booker(booker)
+                .status(Status.REJECTED)
+                .build());
+
+        assertEquals(0, itemRepository.incrementVersionByWaitingBooking(waiting.getId(), booker.getId()));
+        assertEquals(0, itemRepository.incrementVersionByWaitingBooking(rejected.getId(), user.getId()));
+        assertEquals(0, itemRepository.incrementVersionByWaitingBooking(-1L, user.getId()));
+        assertEquals(1, itemRepository.incrementVersionByWaitingBooking(waiting.getId(), user.getId()));
+        entityManager.clear();
+
+        assertEquals(1L, itemRepository.findById(firstitem.getId()).orElseThrow().getVersion());
+    }
+
 }
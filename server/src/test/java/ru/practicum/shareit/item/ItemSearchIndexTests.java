@@ -0,0 +1,229 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.shareit.item.dto.ItemSearchIndexStatsDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.SearchMode;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.ItemRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ItemSearchIndexTests {
+
+    private ItemRepository itemRepository;
+    private ItemSearchIndex searchIndex;
+
+    private Item drill;
+    private Item screwdriver;
+    private Item unavailableDrill;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        searchIndex = new ItemSearchIndex(itemRepository, SearchMode.INDEX, 2);
+
+        drill = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Простая дрель, аккумуляторная")
+                .available(true)
+                .request(ItemRequest.builder().id(7L).build())
+                .build();
+
+        screwdriver = Item.builder()
+                .id(2L)
+                .name("Отвертка")
+                .description("Аккумуляторная отвертка")
+                .available(true)
+                .build();
+
+        unavailableDrill = Item.builder()
+                .id(3L)
+                .name("Дрель ударная")
+                .description("Сломана")
+                .available(false)
+                .build();
+
+        when(itemRepository.findByIdGreaterThanOrderById(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(drill, screwdriver));
+        when(itemRepository.findByIdGreaterThanOrderById(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(unavailableDrill));
+    }
+
+    @Test
+    void rebuildLoadsItemsInBatches() {
+        ItemSearchIndexStatsDto stats = searchIndex.rebuild();
+
+        assertTrue(stats.getEnabled());
+        assertEquals(3, stats.getItems());
+        assertTrue(stats.getTokens() > 0);
+        assertTrue(stats.getEstimatedBytes() > 0);
+
+        verify(itemRepository, times(2)).findByIdGreaterThanOrderById(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void searchUsesAndSemanticsPrefixesAndAvailability() {
+        searchIndex.rebuild();
+
+        assertEquals(List.of(1L, 2L), ids(searchIndex.search("аккумулятор", 0, 10)));
+        assertEquals(List.of(1L), ids(searchIndex.search("ДРЕЛЬ аккум", 0, 10)));
+        assertEquals(7L, searchIndex.search("дрель", 0, 10).get(0).getRequest().getId());
+        assertTrue(searchIndex.search("сломана", 0, 10).isEmpty());
+        assertTrue(searchIndex.search("молоток", 0, 10).isEmpty());
+        assertTrue(searchIndex.search("  ,  ", 0, 10).isEmpty());
+    }
+
+    @Test
+    void searchMatchesSubstringsOfWordsLikeLikeMode() {
+        searchIndex.rebuild();
+
+        assertEquals(List.of(1L), ids(searchIndex.search("рель", 0, 10)));
+        assertEquals(List.of(1L, 2L), ids(searchIndex.search("кумулятор", 0, 10)));
+        assertEquals(List.of(2L), ids(searchIndex.search("ВЕРТК", 0, 10)));
+        assertEquals(List.of(1L), ids(searchIndex.search("рост рель", 0, 10)));
+
+        searchIndex.remove(screwdriver.getId());
+        assertTrue(searchIndex.search("вертк", 0, 10).isEmpty());
+        assertEquals(List.of(1L), ids(searchIndex.search("кумулятор", 0, 10)));
+    }
+
+    @Test
+    void statsAreRegisteredAsGauges() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        searchIndex.bindTo(registry);
+        searchIndex.rebuild();
+
+        ItemSearchIndexStatsDto stats = searchIndex.getStats();
+        assertEquals(3, registry.get("shareit.search.index.items").gauge().value());
+        assertEquals((double) stats.getTokens(), registry.get("shareit.search.index.tokens").gauge().value());
+        assertEquals((double) stats.getPostings(), registry.get("shareit.search.index.postings").gauge().value());
+        assertEquals((double) stats.getEstimatedBytes(), registry.get("shareit.search.index.memory").gauge().value());
+
+        searchIndex.remove(drill.getId());
+        assertEquals(2, registry.get("shareit.search.index.items").gauge().value());
+    }
+
+    @Test
+    void searchAppliesFromAndSize() {
+        searchIndex.rebuild();
+
+        assertEquals(List.of(1L), ids(searchIndex.search("аккумуляторная", 0, 1)));
+        assertEquals(List.of(2L), ids(searchIndex.search("аккумуляторная", 1, 1)));
+        assertTrue(searchIndex.search("аккумуляторная", 2, 1).isEmpty());
+    }
+
+    @Test
+    void indexAndRemoveUpdateIndexIncrementally() {
+        searchIndex.rebuild();
+
+        screwdriver.setName("Шуруповерт");
+        searchIndex.index(screwdriver);
+        assertEquals(List.of(2L), ids(searchIndex.search("шуруп", 0, 10)));
+        assertEquals(List.of(2L), ids(searchIndex.search("отвертка шуруповерт", 0, 10)));
+
+        searchIndex.remove(screwdriver.getId());
+        assertTrue(searchIndex.search("шуруп", 0, 10).isEmpty());
+        assertEquals(2, searchIndex.getStats().getItems());
+    }
+
+    @Test
+    void changesInTransactionAreAppliedOnlyAfterCommit() {
+        searchIndex.rebuild();
+        Item hammer = Item.builder()
+                .id(4L)
+                .name("Молоток")
+                .description("Слесарный молоток")
+                .available(true)
+                .build();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            searchIndex.index(hammer);
+            searchIndex.remove(drill.getId());
+            assertTrue(searchIndex.search("молоток", 0, 10).isEmpty());
+            assertEquals(List.of(1L), ids(searchIndex.search("дрель", 0, 10)));
+
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(4L), ids(searchIndex.search("молоток", 0, 10)));
+        assertTrue(searchIndex.search("дрель", 0, 10).isEmpty());
+    }
+
+    @Test
+    void changesInRolledBackTransactionAreDropped() {
+        searchIndex.rebuild();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            screwdriver.setName("Шуруповерт");
+            searchIndex.index(screwdriver);
+            searchIndex.remove(drill.getId());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(searchIndex.search("шуруп", 0, 10).isEmpty());
+        assertEquals(List.of(1L), ids(searchIndex.search("дрель", 0, 10)));
+    }
+
+    @Test
+    void concurrentRebuildsDoNotInterfere() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ItemSearchIndexStatsDto>> rebuilds = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                rebuilds.add(executor.submit(searchIndex::rebuild));
+            }
+            for (Future<ItemSearchIndexStatsDto> rebuild : rebuilds) {
+                assertEquals(3, rebuild.get(10, TimeUnit.SECONDS).getItems());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void disabledIndexIgnoresChanges() {
+        ItemSearchIndex disabledIndex = new ItemSearchIndex(itemRepository, SearchMode.LIKE, 2);
+        disabledIndex.onApplicationReady();
+        disabledIndex.index(drill);
+
+        assertFalse(disabledIndex.isEnabled());
+        assertEquals(0, disabledIndex.getStats().getItems());
+        assertEquals(Collections.emptyList(), disabledIndex.search("дрель", 0, 10));
+
+        verify(itemRepository, never()).findByIdGreaterThanOrderById(anyLong(), any(Pageable.class));
+    }
+
+    private List<Long> ids(List<Item> items) {
+        return items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+    }
+
+}
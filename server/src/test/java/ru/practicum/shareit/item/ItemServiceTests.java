@@ -7,6 +7,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
@@ -14,10 +16,13 @@ import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.DataNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemOutDto;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.SearchMode;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.item.service.ItemService;
@@ -30,6 +35,7 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -169,6 +175,58 @@ public class ItemServiceTests {
         verify(itemRepository, times(0)).save(any(Item.class));
     }
 
+    @Test
+    void addItemsResolvesOwnerAndRequestsOnce() {
+        ItemDto first = ItemDto.builder()
+                .name("first")
+                .description("first description")
+                .available(true)
+                .requestId(itemRequest.getId())
+                .build();
+        ItemDto second = ItemDto.builder()
+                .name("second")
+                .description("second description")
+                .available(false)
+                .requestId(itemRequest.getId())
+                .build();
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+        when(itemRequestRepository.findAllById(any())).thenReturn(List.of(itemRequest));
+        when(itemRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Item> items = itemService.createAll(owner.getId(), List.of(first, second));
+
+        assertEquals(2, items.size());
+        assertEquals("first", items.get(0).getName());
+        assertEquals("second", items.get(1).getName());
+        assertTrue(items.stream().allMatch(testItem -> testItem.getOwner().equals(owner)
+                && testItem.getRequest().equals(itemRequest)));
+        verify(userRepository, times(1)).findById(owner.getId());
+        verify(itemRequestRepository, times(1)).findAllById(Set.of(itemRequest.getId()));
+        verify(itemRepository, times(1)).saveAll(anyList());
+        verify(itemRepository, never()).save(any(Item.class));
+    }
+
+    @Test
+    void addItemsWithNotFoundRequestFail() {
+        ItemDto itemDto = ItemDto.builder()
+                .name("first")
+                .description("first description")
+                .available(true)
+                .requestId(99L)
+                .build();
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+        when(itemRequestRepository.findAllById(any())).thenReturn(List.of());
+
+        assertThrows(DataNotFoundException.class, () -> itemService.createAll(owner.getId(), List.of(itemDto)));
+
+        verify(itemRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void addEmptyItemsFail() {
+        assertThrows(ValidationException.class, () -> itemService.createAll(owner.getId(), List.of()));
+    }
+
     @Test
     void updateItem() {
         when(userRepository.existsById(anyLong())).thenReturn(true);
@@ -183,6 +241,42 @@ public class ItemServiceTests {
         assertEquals(testItem.getAvailable(), itemFromDto.getAvailable());
 
         verify(itemRepository, times(1)).save(any(Item.class));
+        verify(itemRepository, times(1)).incrementVersion(List.of(itemId));
+        verify(itemRequestRepository, times(1)).incrementVersion(List.of(itemRequest.getId()));
+    }
+
+    @Test
+    void getETagDependsOnVersionAndStartedBookingsForOwner() {
+        item.setVersion(3L);
+        when(bookingRepository.countByItemIdAndStatusAndStartBefore(eq(itemId), eq(Status.APPROVED),
+                any(LocalDateTime.class))).thenReturn(2L);
+
+        assertEquals("\"item-1-3\"", itemService.getETag(item, user.getId()));
+        verify(bookingRepository, never()).countByItemIdAndStatusAndStartBefore(anyLong(), any(Status.class),
+                any(LocalDateTime.class));
+
+        assertEquals("\"item-1-3-2\"", itemService.getETag(item, owner.getId()));
+    }
+
+    @Test
+    void getAvailabilityETagDependsOnItemVersion() {
+        item.setVersion(3L);
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+
+        assertEquals("\"availability-1-3\"", itemService.getAvailabilityETag(itemId, from, from.plusDays(1)));
+    }
+
+    @Test
+    void getAvailabilityETagChecksPeriodAndItemFirst() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        assertThrows(ValidationException.class, () -> itemService.getAvailabilityETag(itemId, from, from));
+        verify(itemRepository, never()).findById(anyLong());
+        assertThrows(DataNotFoundException.class,
+                () -> itemService.getAvailabilityETag(itemId, from, from.plusDays(1)));
     }
 
     @Test
@@ -200,7 +294,7 @@ public class ItemServiceTests {
     void searchItems() {
         when(itemRepository.search(anyString(), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(item)));
 
-        List<Item> testItemList = itemService.searchItems("text", 0, 10);
+        List<Item> testItemList = itemService.searchItems("text", null, null, 0, 10);
 
         assertEquals(testItemList.get(0).getId(), item.getId());
         assertEquals(testItemList.get(0).getDescription(), item.getDescription());
@@ -210,9 +304,159 @@ public class ItemServiceTests {
         verify(itemRepository, times(1)).search(anyString(), any(PageRequest.class));
     }
 
+    @Test
+    void searchItemsFullTextMode() {
+        Object target = AopTestUtils.getTargetObject(itemService);
+        ReflectionTestUtils.setField(target, "searchMode", SearchMode.FULL_TEXT);
+        when(itemRepository.searchFullText(anyString(), any(PageRequest.class)))
+                .thenReturn(new PageImpl<>(List.of(item)));
+
+        try {
+            List<Item> testItemList = itemService.searchItems("text", null, null, 0, 10);
+
+            assertEquals(testItemList.get(0).getId(), item.getId());
+            verify(itemRepository, times(1)).searchFullText(anyString(), any(PageRequest.class));
+            verify(itemRepository, times(0)).search(anyString(), any(PageRequest.class));
+        } finally {
+            ReflectionTestUtils.setField(target, "searchMode", SearchMode.LIKE);
+        }
+    }
+
+    @Test
+    void searchItemsTrigramMode() {
+        Object target = AopTestUtils.getTargetObject(itemService);
+        ReflectionTestUtils.setField(target, "searchMode", SearchMode.TRIGRAM);
+        when(itemRepository.searchTrigram(anyString(), any(PageRequest.class)))
+                .thenReturn(new PageImpl<>(List.of(item)));
+
+        try {
+            List<Item> testItemList = itemService.searchItems("дрел", null, null, 0, 10);
+
+            assertEquals(testItemList.get(0).getId(), item.getId());
+            verify(itemRepository, times(1)).searchTrigram("дрел", PageRequest.of(0, 10));
+            verify(itemRepository, times(0)).search(anyString(), any(PageRequest.class));
+        } finally {
+            ReflectionTestUtils.setField(target, "searchMode", SearchMode.LIKE);
+        }
+    }
+
+    @Test
+    void searchItemsIndexModeSkipsRepository() {
+        Object target = AopTestUtils.getTargetObject(itemService);
+        ReflectionTestUtils.setField(target, "searchMode", SearchMode.INDEX);
+
+        try {
+            List<Item> testItemList = itemService.searchItems("text", null, null, 0, 10);
+
+            assertTrue(testItemList.isEmpty());
+            verify(itemRepository, times(0)).search(anyString(), any(PageRequest.class));
+            verify(itemRepository, times(0)).searchFullText(anyString(), any(PageRequest.class));
+        } finally {
+            ReflectionTestUtils.setField(target, "searchMode", SearchMode.LIKE);
+        }
+    }
+
+    @Test
+    void countSearchItemsUsesCountQueryOfCurrentMode() {
+        Object target = AopTestUtils.getTargetObject(itemService);
+        when(itemRepository.countSearch(anyString())).thenReturn(3L);
+        when(itemRepository.countSearchFullText(anyString())).thenReturn(2L);
+        when(itemRepository.countSearchTrigram(anyString())).thenReturn(1L);
+
+        try {
+            assertEquals(3L, itemService.countSearchItems("text", null, null));
+            ReflectionTestUtils.setField(target, "searchMode", SearchMode.FULL_TEXT);
+            assertEquals(2L, itemService.countSearchItems("text", null, null));
+            ReflectionTestUtils.setField(target, "searchMode", SearchMode.TRIGRAM);
+            assertEquals(1L, itemService.countSearchItems("text", null, null));
+            assertEquals(0L, itemService.countSearchItems("   ", null, null));
+        } finally {
+            ReflectionTestUtils.setField(target, "searchMode", SearchMode.LIKE);
+        }
+        verify(itemRepository, times(1)).countSearchTrigram("text");
+    }
+
+    @Test
+    void searchItemsWithPeriodUsesAvailabilityQueryOfCurrentMode() {
+        Object target = AopTestUtils.getTargetObject(itemService);
+        when(itemRepository.searchAvailable(anyString(), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(item)));
+        when(itemRepository.searchAvailableTrigram(anyString(), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(item)));
+        when(itemRepository.countSearchAvailableFullText(anyString(), any(LocalDateTime.class),
+                any(LocalDateTime.class))).thenReturn(2L);
+
+        try {
+            assertEquals(List.of(item), itemService.searchItems("text", BOOKING_START, BOOKING_END, 0, 10));
+            ReflectionTestUtils.setField(target, "searchMode", SearchMode.TRIGRAM);
+            assertEquals(List.of(item), itemService.searchItems("дрел", BOOKING_START, BOOKING_END, 0, 10));
+            ReflectionTestUtils.setField(target, "searchMode", SearchMode.FULL_TEXT);
+            assertEquals(2L, itemService.countSearchItems("text", BOOKING_START, BOOKING_END));
+        } finally {
+            ReflectionTestUtils.setField(target, "searchMode", SearchMode.LIKE);
+        }
+        verify(itemRepository, times(1)).searchAvailable("text", BOOKING_START, BOOKING_END, PageRequest.of(0, 10));
+        verify(itemRepository, times(1))
+                .searchAvailableTrigram("дрел", BOOKING_START, BOOKING_END, PageRequest.of(0, 10));
+        verify(itemRepository, times(0)).search(anyString(), any(PageRequest.class));
+        verify(itemRepository, times(0)).countSearchFullText(anyString());
+    }
+
+    @Test
+    void searchItemsWithWrongPeriodFail() {
+        assertThrows(ValidationException.class,
+                () -> itemService.searchItems("text", BOOKING_START, null, 0, 10));
+        assertThrows(ValidationException.class,
+                () -> itemService.searchItems("text", BOOKING_END, BOOKING_START, 0, 10));
+        assertThrows(ValidationException.class,
+                () -> itemService.countSearchItems("text", null, BOOKING_END));
+
+        verify(itemRepository, times(0)).searchAvailable(anyString(), any(LocalDateTime.class),
+                any(LocalDateTime.class), any(PageRequest.class));
+    }
+
+    @Test
+    void getAvailabilityMergesBusyPeriods() {
+        LocalDateTime from = BOOKING_START;
+        LocalDateTime to = BOOKING_START.plusDays(10);
+        when(itemRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findAllByItemIdAndStatusAndStartBeforeAndEndAfterOrderByStartAsc(
+                anyLong(), any(Status.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(
+                        Booking.builder().start(from.minusDays(1)).end(from.plusDays(1)).build(),
+                        Booking.builder().start(from.plusDays(3)).end(from.plusDays(5)).build(),
+                        Booking.builder().start(from.plusDays(4)).end(from.plusDays(6)).build(),
+                        Booking.builder().start(from.plusDays(6)).end(from.plusDays(7)).build()));
+
+        List<TimeSlotDto> slots = itemService.getAvailability(item.getId(), from, to);
+
+        assertEquals(List.of(
+                new TimeSlotDto(from.plusDays(1), from.plusDays(3)),
+                new TimeSlotDto(from.plusDays(7), to)), slots);
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusAndStartBeforeAndEndAfterOrderByStartAsc(
+                item.getId(), Status.APPROVED, to, from);
+    }
+
+    @Test
+    void getAvailabilityWithoutBookingsReturnsWholePeriod() {
+        when(itemRepository.existsById(anyLong())).thenReturn(true);
+
+        List<TimeSlotDto> slots = itemService.getAvailability(item.getId(), BOOKING_START, BOOKING_END);
+
+        assertEquals(List.of(new TimeSlotDto(BOOKING_START, BOOKING_END)), slots);
+    }
+
+    @Test
+    void getAvailabilityWithWrongPeriodFail() {
+        assertThrows(ValidationException.class,
+                () -> itemService.getAvailability(item.getId(), BOOKING_END, BOOKING_START));
+        verify(bookingRepository, times(0)).findAllByItemIdAndStatusAndStartBeforeAndEndAfterOrderByStartAsc(
+                anyLong(), any(Status.class), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
     @Test
     void searchItemsBlankText() {
-        List<Item> testItemList = itemService.searchItems("     ", 0, 10);
+        List<Item> testItemList = itemService.searchItems("     ", null, null, 0, 10);
 
         assertTrue(testItemList.isEmpty());
 
@@ -320,6 +564,51 @@ public class ItemServiceTests {
         verify(commentRepository, times(1)).findAllByItemId(anyLong());
     }
 
+    @Test
+    void addBookingsAndCommentsForOwnerItems() {
+        when(bookingRepository.findLastBookingsByItemIds(anyCollection(), any(Status.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(booking));
+        when(bookingRepository.findNextBookingsByItemIds(anyCollection(), any(Status.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        when(commentRepository.findAllByItemIdIn(anyCollection())).thenReturn(List.of(comment));
+
+        List<ItemOutDto> testOutDtoList = itemService.addBookingsAndComments(List.of(item), owner.getId());
+
+        assertEquals(1, testOutDtoList.size());
+        assertEquals(item.getId(), testOutDtoList.get(0).getId());
+        assertEquals(BookingMapper.toBookingShortDto(booking), testOutDtoList.get(0).getLastBooking());
+        assertNull(testOutDtoList.get(0).getNextBooking());
+        assertEquals(CommentMapper.toCommentOutDto(comment), testOutDtoList.get(0).getComments().get(0));
+
+        verify(bookingRepository, times(1))
+                .findLastBookingsByItemIds(eq(List.of(itemId)), eq(Status.APPROVED), any(LocalDateTime.class));
+        verify(commentRepository, times(1)).findAllByItemIdIn(List.of(itemId));
+        verify(commentRepository, times(0)).findAllByItemId(anyLong());
+    }
+
+    @Test
+    void addBookingsAndCommentsForNoOwnerSkipsBookings() {
+        when(commentRepository.findAllByItemIdIn(anyCollection())).thenReturn(Collections.emptyList());
+
+        List<ItemOutDto> testOutDtoList = itemService.addBookingsAndComments(List.of(item), user.getId());
+
+        assertNull(testOutDtoList.get(0).getLastBooking());
+        assertNull(testOutDtoList.get(0).getNextBooking());
+        assertTrue(testOutDtoList.get(0).getComments().isEmpty());
+
+        verify(bookingRepository, times(0))
+                .findLastBookingsByItemIds(anyCollection(), any(Status.class), any(LocalDateTime.class));
+        verify(bookingRepository, times(0))
+                .findNextBookingsByItemIds(anyCollection(), any(Status.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void addBookingsAndCommentsForEmptyPage() {
+        assertTrue(itemService.addBookingsAndComments(Collections.emptyList(), owner.getId()).isEmpty());
+
+        verify(commentRepository, times(0)).findAllByItemIdIn(anyCollection());
+    }
+
     @Test
     void checkItemFail() {
         when(itemRepository.existsById(anyLong())).thenReturn(false);
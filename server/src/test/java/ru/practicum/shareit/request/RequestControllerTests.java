@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -114,6 +115,23 @@ public class RequestControllerTests {
         verify(itemRequestService, times(1)).getRequest(1L, 1L);
     }
 
+    @Test
+    void getRequestByIdShouldReturn304WhenETagMatches() throws Exception {
+        when(itemRequestService.getRequest(anyLong(), anyLong()))
+                .thenReturn(testItemRequest);
+        when(itemRequestService.getETag(testItemRequest))
+                .thenReturn("\"request-1-2\"");
+
+        mvc.perform(get("/requests/{requestId}", testItemRequestId)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(X_SHARED_USER_ID, 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"request-1-2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"request-1-2\""));
+
+        verify(itemRequestService, never()).addItems(any(ItemRequest.class));
+    }
+
     @Test
     void getUserRequestsShouldReturn200AndItemRequestOutDtoList() throws Exception {
         when(itemRequestService.getUserRequests(anyLong()))
@@ -123,6 +123,14 @@ public class RequestServiceTests {
                 .findByIdIsNotOrderByCreatedAsc(anyLong(), any(PageRequest.class));
     }
 
+    @Test
+    void countAllRequests() {
+        when(itemRequestRepository.countByIdIsNot(anyLong())).thenReturn(5L);
+
+        assertEquals(5L, itemRequestService.countAllRequests(user.getId()));
+        verify(itemRequestRepository, times(1)).countByIdIsNot(user.getId());
+    }
+
     @Test
     void getRequestById() {
         when(userRepository.existsById(anyLong())).thenReturn(true);
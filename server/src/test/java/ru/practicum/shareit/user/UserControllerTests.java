@@ -22,6 +22,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static ru.practicum.shareit.item.ItemController.X_CACHE_INVALIDATE;
 
 @WebMvcTest(controllers = UserController.class)
 public class UserControllerTests {
@@ -81,7 +82,8 @@ public class UserControllerTests {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(testUserDto.getId()), Long.class))
                 .andExpect(jsonPath("$.name", is(testUserDto.getName()), String.class))
-                .andExpect(jsonPath("$.email", is(testUserDto.getEmail()), String.class));
+                .andExpect(jsonPath("$.email", is(testUserDto.getEmail()), String.class))
+                .andExpect(header().string(X_CACHE_INVALIDATE, "item"));
 
         verify(userService, times(1)).update(UserMapper.toUser(testUserDto), testUserId);
     }
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "shareit.search.mode=INDEX")
+public class UserDeleteSearchIndexTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemSearchIndex searchIndex;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private User otherOwner;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex.rebuild();
+        owner = userService.create(User.builder()
+                .name("Alex")
+                .email("alexFirst@yandex.ru")
+                .build());
+        otherOwner = userService.create(User.builder()
+                .name("Boris")
+                .email("boris@yandex.ru")
+                .build());
+    }
+
+    @Test
+    void deletedOwnerItemsDisappearFromSearch() {
+        itemService.create(owner.getId(), item("drill", "good drill"), null);
+        itemService.create(owner.getId(), item("drill press", "bench drill"), null);
+        Item otherDrill = itemService.create(otherOwner.getId(), item("old drill", "still works"), null);
+        assertEquals(3, itemService.searchItems("drill", null, null, 0, 10).size());
+
+        userService.delete(owner.getId());
+
+        List<Long> foundIds = itemService.searchItems("drill", null, null, 0, 10).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        assertEquals(List.of(otherDrill.getId()), foundIds);
+        assertEquals(1, itemService.countSearchItems("drill", null, null));
+        assertEquals(1, searchIndex.getStats().getItems());
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+        searchIndex.rebuild();
+    }
+
+    private Item item(String name, String description) {
+        return Item.builder()
+                .name(name)
+                .description(description)
+                .available(true)
+                .build();
+    }
+
+}